@@ -1,13 +1,10 @@
 package edu.cnm.deepdive.abq_film_tour_backend;
 
-import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
-import java.io.IOException;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.hateoas.config.EnableEntityLinks;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -27,28 +24,14 @@ public class AbqFilmTourBackendApplication extends ResourceServerConfigurerAdapt
   @Value("${oauth.clientId}")
   private String clientId;
 
-  private static FilmLocationRepository filmLocationRepository;
-
-  @Autowired
-  AbqFilmTourBackendApplication(FilmLocationRepository filmLocationRepository) {
-    AbqFilmTourBackendApplication.filmLocationRepository = filmLocationRepository;
-  }
-
   /**
-   * Main method, will attempt to populate the database from a local CSV file if it is empty.
+   * Main method. The database is populated from a local CSV file, or synchronized with a new city
+   * export, in the background by {@link ImportJob} once the application is ready.
    *
    * @param args standard String arguments.
    */
   public static void main(String[] args) {
-    ConfigurableApplicationContext context = SpringApplication.run(AbqFilmTourBackendApplication.class, args);
-    if (filmLocationRepository.findAllByOrderByCreatedDesc().size() == 0) { //Populate the database if it's empty
-      //TODO check more efficiently
-      try {
-        context.getBean(Parser.class).populateDatabase();
-      } catch (IOException e) {
-        System.out.println("Failed to populate database, check your CSV file.");
-      }
-    }
+    SpringApplication.run(AbqFilmTourBackendApplication.class, args);
   }
 
   @Override
@@ -59,6 +42,8 @@ public class AbqFilmTourBackendApplication extends ResourceServerConfigurerAdapt
   @Override
   public void configure(HttpSecurity http) throws Exception {
     http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
-    http.authorizeRequests().anyRequest().hasRole("USER");
+    http.authorizeRequests()
+        .antMatchers(HttpMethod.GET, "/readiness").permitAll()
+        .anyRequest().hasRole("USER");
   }
 }
\ No newline at end of file
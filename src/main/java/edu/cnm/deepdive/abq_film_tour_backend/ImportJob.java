@@ -0,0 +1,167 @@
+package edu.cnm.deepdive.abq_film_tour_backend;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.service.MetricsSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the city data import in the background once the application is ready to serve requests, so
+ * that a large seed does not hold up startup. If the database is empty it is populated from the
+ * bundled city data, and the service reports itself as not ready until that finishes. If it is
+ * already populated and a new city export is given with {@code --import.syncFile=<path>}, the
+ * city locations are synchronized with it while the service stays ready.
+ */
+@Component
+public class ImportJob implements MetricsSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImportJob.class);
+  private static final String METRICS_NAME = "import";
+
+  /**
+   * The stages of the import job.
+   */
+  public enum State {
+    /** No import has been started. */
+    IDLE,
+    /** The empty database is being populated; the service is not ready. */
+    SEEDING,
+    /** A populated database is being synchronized with a new city export. */
+    SYNCHRONIZING,
+    /** The import finished. */
+    COMPLETE,
+    /** The import stopped with an error. */
+    FAILED
+  }
+
+  private final Parser parser;
+  private final FilmLocationRepository filmLocationRepository;
+  private final boolean enabled;
+  private final String syncFile;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor((runnable) -> {
+    Thread thread = new Thread(runnable, "city-data-import");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile State state = State.IDLE;
+  private volatile ImportReport report;
+  private volatile boolean seeded;
+
+  /**
+   * Instantiates a new import job.
+   *
+   * @param parser the parser that reads the city data.
+   * @param filmLocationRepository the film location repository.
+   * @param enabled whether the import runs at startup.
+   * @param syncFile the path of a city export to synchronize with, or empty for none.
+   */
+  @Autowired
+  public ImportJob(Parser parser, FilmLocationRepository filmLocationRepository,
+      @Value("${import.enabled}") boolean enabled,
+      @Value("${import.syncFile:}") String syncFile) {
+    this.parser = parser;
+    this.filmLocationRepository = filmLocationRepository;
+    this.enabled = enabled;
+    this.syncFile = syncFile;
+    seeded = !enabled;
+  }
+
+  /**
+   * Decides which import is needed, with a single indexed probe for any stored location, and starts
+   * it on the import thread. Until the probe has found stored locations, or a seed has finished,
+   * the service is not ready: requests are accepted before this event, and a load balancer must
+   * not route them to an empty database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    if (!filmLocationRepository.existsByIdIsNotNull()) { //Populate the database if it's empty
+      state = State.SEEDING;
+      executor.execute(() -> run(true));
+      return;
+    }
+    seeded = true;
+    if (!syncFile.isEmpty()) {
+      state = State.SYNCHRONIZING;
+      executor.execute(() -> run(false));
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  private void run(boolean seed) {
+    try {
+      ImportReport report = new ImportReport();
+      this.report = report;
+      if (seed) {
+        parser.populateDatabase(report);
+      } else {
+        parser.synchronizeDatabase(syncFile, report);
+      }
+      seeded = true;
+      state = State.COMPLETE;
+    } catch (Exception e) {
+      state = State.FAILED;
+      LOGGER.error("Failed to import the city data, check your CSV file.", e);
+    }
+  }
+
+  /**
+   * Checks if the service is ready to serve requests: once the database has been found populated,
+   * or the seed of an empty one has finished. A failed seed leaves the service not ready.
+   *
+   * @return true if the database holds the city data.
+   */
+  public boolean isReady() {
+    return seeded;
+  }
+
+  /**
+   * Gets the current stage of the import.
+   *
+   * @return the import state.
+   */
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Gets the progress of the current or last import.
+   *
+   * @return the import report, or null if no import has been started.
+   */
+  public ImportReport getReport() {
+    return report;
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("state", state);
+    metrics.put("ready", isReady());
+    metrics.put("report", report);
+    return metrics;
+  }
+
+}
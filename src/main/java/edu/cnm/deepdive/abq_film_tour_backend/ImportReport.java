@@ -0,0 +1,199 @@
+package edu.cnm.deepdive.abq_film_tour_backend;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing a run of the city data import. The counters are updated while the import
+ * runs, so a report can be read from another thread to follow its progress.
+ */
+public class ImportReport {
+
+  private final long started = System.nanoTime();
+  private volatile long finished;
+
+  private final AtomicLong recordsRead = new AtomicLong();
+  private final AtomicLong locationsAdded = new AtomicLong();
+  private final AtomicLong locationsUpdated = new AtomicLong();
+  private final AtomicLong locationsUnchanged = new AtomicLong();
+  private final AtomicLong locationsRemoved = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong batchesWritten = new AtomicLong();
+  private final AtomicLong productionsFetched = new AtomicLong();
+  private final AtomicLong productionFetchFailures = new AtomicLong();
+  private final AtomicLong omdbNanos = new AtomicLong();
+  private final AtomicLong omdbMaxNanos = new AtomicLong();
+
+  void recordRead() {
+    recordsRead.incrementAndGet();
+  }
+
+  void locationsAdded(int count) {
+    locationsAdded.addAndGet(count);
+  }
+
+  void locationsUpdated(int count) {
+    locationsUpdated.addAndGet(count);
+  }
+
+  void locationUnchanged() {
+    locationsUnchanged.incrementAndGet();
+  }
+
+  void locationsRemoved(int count) {
+    locationsRemoved.addAndGet(count);
+  }
+
+  void failure() {
+    failures.incrementAndGet();
+  }
+
+  void batchWritten() {
+    batchesWritten.incrementAndGet();
+  }
+
+  void productionFetched(long nanos, boolean found) {
+    if (found) {
+      productionsFetched.incrementAndGet();
+    } else {
+      productionFetchFailures.incrementAndGet();
+    }
+    omdbNanos.addAndGet(nanos);
+    omdbMaxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  void finish() {
+    finished = System.nanoTime();
+  }
+
+  /**
+   * Gets the number of CSV records read, excluding the header.
+   *
+   * @return the number of records read.
+   */
+  public long getRecordsRead() {
+    return recordsRead.get();
+  }
+
+  /**
+   * Gets the number of film locations written to the database.
+   *
+   * @return the number of locations added.
+   */
+  public long getLocationsAdded() {
+    return locationsAdded.get();
+  }
+
+  /**
+   * Gets the number of stored city locations updated from a changed record.
+   *
+   * @return the number of locations updated.
+   */
+  public long getLocationsUpdated() {
+    return locationsUpdated.get();
+  }
+
+  /**
+   * Gets the number of stored city locations whose record had not changed.
+   *
+   * @return the number of locations left unchanged.
+   */
+  public long getLocationsUnchanged() {
+    return locationsUnchanged.get();
+  }
+
+  /**
+   * Gets the number of stored city locations flagged as removed from the city data.
+   *
+   * @return the number of locations flagged as removed.
+   */
+  public long getLocationsRemoved() {
+    return locationsRemoved.get();
+  }
+
+  /**
+   * Gets the number of records that could not be parsed or stored.
+   *
+   * @return the number of failed records.
+   */
+  public long getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * Gets the number of productions retrieved from the OMDb API.
+   *
+   * @return the number of productions fetched.
+   */
+  public long getProductionsFetched() {
+    return productionsFetched.get();
+  }
+
+  /**
+   * Gets the number of OMDb lookups that failed or found nothing.
+   *
+   * @return the number of failed lookups.
+   */
+  public long getProductionFetchFailures() {
+    return productionFetchFailures.get();
+  }
+
+  /**
+   * Checks if the import has finished.
+   *
+   * @return true once the import is complete.
+   */
+  public boolean isFinished() {
+    return finished != 0;
+  }
+
+  /**
+   * Gets the time spent so far, or the total time once finished.
+   *
+   * @return the elapsed time in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis((isFinished() ? finished : System.nanoTime()) - started);
+  }
+
+  /**
+   * Gets the number of records processed per second.
+   *
+   * @return the import throughput.
+   */
+  public double getRecordsPerSecond() {
+    long elapsed = getElapsedMillis();
+    return elapsed == 0 ? 0 : recordsRead.get() * 1000.0 / elapsed;
+  }
+
+  /**
+   * Gets the average latency of an OMDb lookup.
+   *
+   * @return the average lookup time in milliseconds.
+   */
+  public double getAverageOmdbMillis() {
+    long lookups = productionsFetched.get() + productionFetchFailures.get();
+    return lookups == 0 ? 0 : omdbNanos.get() / 1e6 / lookups;
+  }
+
+  /**
+   * Gets the latency of the slowest OMDb lookup.
+   *
+   * @return the maximum lookup time in milliseconds.
+   */
+  public double getMaxOmdbMillis() {
+    return omdbMaxNanos.get() / 1e6;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Read %d records in %d ms (%.0f records/s): added %d, updated %d, "
+            + "unchanged %d and removed %d locations in %d batches, %d failures. "
+            + "Fetched %d productions from OMDb (%d failed), %.1f ms average, %.1f ms max.",
+        getRecordsRead(), getElapsedMillis(), getRecordsPerSecond(), getLocationsAdded(),
+        getLocationsUpdated(), getLocationsUnchanged(), getLocationsRemoved(),
+        batchesWritten.get(), getFailures(), getProductionsFetched(),
+        getProductionFetchFailures(), getAverageOmdbMillis(), getMaxOmdbMillis());
+  }
+
+}
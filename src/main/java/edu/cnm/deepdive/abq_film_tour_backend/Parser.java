@@ -5,34 +5,72 @@ import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CityRecordState;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.LegacyCityRecord;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ChangeLog;
+import edu.cnm.deepdive.abq_film_tour_backend.service.EntityCache;
 import edu.cnm.deepdive.abq_film_tour_backend.service.ProductionService;
 import edu.cnm.deepdive.abq_film_tour_backend.service.RetrofitClientService;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
-import org.hibernate.exception.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * This class exists to populate the database, parsing data from a cityfilmlocations.csv file with
- * permit data retrieved from the city's servers on 12/3/2018.
+ * permit data retrieved from the city's servers on 12/3/2018, and to keep it in sync with later
+ * city exports. Records are streamed from the file rather than loaded at once, productions are
+ * looked up once per distinct IMDb ID with a bounded number of concurrent OMDb requests, and
+ * locations are written in JDBC batches, one transaction per chunk.
  */
 @Component
 public class Parser {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(Parser.class);
+
+  private static final int INDEX_OBJECTID = 0;
   private static final int INDEX_TITLE = 1;
   private static final int INDEX_TYPE = 2;
   private static final int INDEX_IMDB = 3;
@@ -44,6 +82,9 @@ public class Parser {
   private static final int INDEX_GEO_Y = 9;
   private static final int URL_SUBSTRING_BEGIN = 26;
   private static final int URL_SUBSTRING_END = 35;
+  private static final int PLOT_MAX_LENGTH = 300;
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final char FIELD_SEPARATOR = '\u001F';
 
   private static final String NULL_STRING = "null"; //Shows up in original details, etc
   private static final String NOT_APPLICABLE = "na"; //Shows up in some imdb entries
@@ -59,8 +100,19 @@ public class Parser {
   private UserRepository userRepository;
   private UserCommentRepository userCommentRepository;
   private ImageRepository imageRepository;
+  private TransactionTemplate transactionTemplate;
+  private ChangeLog changeLog;
+  private EntityCache entityCache;
   private String apikey;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${import.batchSize}")
+  private int batchSize;
+
+  @Value("${import.omdbConcurrency}")
+  private int omdbConcurrency;
 
   /**
    * Instantiates a new Parser.
@@ -70,16 +122,24 @@ public class Parser {
    * @param userRepository the user repository
    * @param userCommentRepository the user comment repository
    * @param imageRepository the image repository
+   * @param transactionManager the transaction manager used to commit each chunk
+   * @param changeLog the change log, told of the locations flagged as removed in bulk
+   * @param entityCache the entity cache, cleared of the locations flagged as removed in bulk
    */
   Parser(FilmLocationRepository filmLocationRepository, ProductionRepository productionRepository,
       UserRepository userRepository, UserCommentRepository userCommentRepository,
-      ImageRepository imageRepository, RetrofitClientService retrofitClientService) {
+      ImageRepository imageRepository, RetrofitClientService retrofitClientService,
+      PlatformTransactionManager transactionManager, ChangeLog changeLog,
+      EntityCache entityCache) {
     this.filmLocationRepository = filmLocationRepository;
     this.productionRepository = productionRepository;
     this.userRepository = userRepository;
     this.userCommentRepository = userCommentRepository;
     this.imageRepository = imageRepository;
     this.retrofitClientService = retrofitClientService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.changeLog = changeLog;
+    this.entityCache = entityCache;
   }
 
   @Autowired
@@ -93,60 +153,157 @@ public class Parser {
    * 12/3/2018. A City of Albuquerque user is created, submits individual Film Locations and
    * comments with some shooting information.
    *
+   * @param report the report to record progress on while the import runs.
+   * @throws IOException the io exception, necessary possibility for CSV parsing.
+   */
+  void populateDatabase(ImportReport report) throws IOException {
+    synchronizeDatabase(RESOURCE_FILE, report);
+  }
+
+  /**
+   * Brings the city's locations in line with a city export, in a single pass over the export. Each
+   * record is matched to a stored location by its OBJECTID: new permits are inserted, permits whose
+   * record changed since the last import, or whose production has since been found on OMDb, are
+   * updated along with their city comment, and stored permits missing from the export are flagged
+   * as removed. Locations and comments submitted by users are never touched. Locations imported
+   * before the OBJECTID was stored are matched once by site, address, shoot date and coordinates,
+   * and adopt the OBJECTID of their record.
+   *
+   * @param path the path of the city export CSV file.
+   * @return a report of the records added, updated and removed and the time taken.
    * @throws IOException the io exception, necessary possibility for CSV parsing.
    */
-  void populateDatabase() throws IOException {
+  ImportReport synchronizeDatabase(String path) throws IOException {
+    ImportReport report = new ImportReport();
+    synchronizeDatabase(path, report);
+    return report;
+  }
+
+  /**
+   * Synchronizes the city's locations with a city export as {@link #synchronizeDatabase(String)}
+   * does, recording progress on a report that can be read while the import runs.
+   *
+   * @param path the path of the city export CSV file.
+   * @param report the report to record progress on.
+   * @throws IOException the io exception, necessary possibility for CSV parsing.
+   */
+  void synchronizeDatabase(String path, ImportReport report) throws IOException {
+    GoogleUser cityUser = findCityUser();
+    LOGGER.info("Synchronizing database with {}...", path);
+    Map<Long, CityRecordState> stored = new HashMap<>();
+    for (CityRecordState state : filmLocationRepository.findAllCityRecordStates()) {
+      stored.put(state.getObjectId(), state);
+    }
+    Map<String, Deque<UUID>> legacy = new HashMap<>();
+    for (LegacyCityRecord record : filmLocationRepository.findAllLegacyCityRecords(
+        cityUser.getGoogleId(), cityUser.getGoogleName())) {
+      legacy.computeIfAbsent(legacyKey(record.getSiteName(), record.getAddress(),
+          record.getShootDate(), record.getLatCoordinate(), record.getLongCoordinate()),
+          (key) -> new ArrayDeque<>()).add(record.getId());
+    }
+    Map<String, Production> productions = resolveProductions(collectImdbIds(path), report);
     SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-    int failures = 0;
-    int successes = 0;
-    GoogleUser cityUser = new GoogleUser();
-    cityUser.setGoogleName(CITY_USER_NAME);
-    cityUser.setGoogleId(CITY_USER_ID);
-    cityUser.setPictureUrl(CITY_USER_IMAGE_URL);
-    cityUser.setBanned(false);
-    userRepository.save(cityUser);
-    FileInputStream fileInputStream = new FileInputStream(RESOURCE_FILE);
-    System.out.println("Populating database...");
-    InputStreamReader reader = new InputStreamReader(fileInputStream);
-    CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withQuote(null));
-    for (CSVRecord record : csvParser.getRecords()) {
-      System.out.println(record);
-      if (record.getRecordNumber() > 1) { //Skips header
-        try {
-          FilmLocation newLocation = new FilmLocation();
-          newLocation.setUserName(cityUser.getGoogleName());
-          parseRecord(record, newLocation);
-          String cityPost = createPost(sdf, newLocation);
-          UserComment cityUserComment = new UserComment();
-          cityUserComment.setGoogleId(cityUser.getGoogleId());
-          cityUserComment.setUserName(cityUser.getGoogleName());
-          cityUserComment.setUserPictureUrl(cityUser.getPictureUrl());
-          cityUserComment.setFilmLocation(newLocation);
-          cityUserComment.setText(cityPost);
-          cityUserComment.setApproved(true);
-          userCommentRepository.save(cityUserComment);
-          successes++;
-        } catch (NumberFormatException | DataIntegrityViolationException | DataException e) {
-          System.out.println("Failed, skipping.");
-          failures++;
+    Set<Long> seen = new HashSet<>();
+    List<FilmLocation> inserts = new ArrayList<>(batchSize);
+    Map<UUID, FilmLocation> updates = new LinkedHashMap<>();
+    try (CSVParser csvParser = openRecords(path)) {
+      for (CSVRecord record : csvParser) {
+        if (record.getRecordNumber() > 1) { //Skips header
+          report.recordRead();
+          try {
+            FilmLocation newLocation = new FilmLocation();
+            newLocation.setGoogleId(cityUser.getGoogleId());
+            newLocation.setUserName(cityUser.getGoogleName());
+            newLocation.setUserPictureUrl(cityUser.getPictureUrl());
+            parseRecord(record, newLocation);
+            newLocation.setProduction(productions.get(newLocation.getImdbId()));
+            newLocation.setCityRecordDigest(digest(newLocation));
+            if (!seen.add(newLocation.getObjectId())) {
+              report.failure(); // The same OBJECTID twice in one export.
+            } else if (stored.containsKey(newLocation.getObjectId())) {
+              CityRecordState state = stored.get(newLocation.getObjectId());
+              if (state.isCityDataRemoved()
+                  || !newLocation.getCityRecordDigest().equals(state.getCityRecordDigest())) {
+                updates.put(state.getId(), newLocation);
+              } else {
+                report.locationUnchanged();
+              }
+            } else {
+              Deque<UUID> matches = legacy.get(legacyKey(newLocation.getSiteName(),
+                  newLocation.getAddress(), newLocation.getShootDate(),
+                  newLocation.getLatCoordinate(), newLocation.getLongCoordinate()));
+              if (matches != null && !matches.isEmpty()) {
+                updates.put(matches.poll(), newLocation);
+              } else {
+                inserts.add(newLocation);
+              }
+            }
+          } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            report.failure();
+          }
+          if (inserts.size() + updates.size() >= batchSize) {
+            writeChunk(inserts, updates, cityUser, sdf, report);
+          }
         }
       }
     }
-    System.out.println(String.format("Added %d locations, %d failures.", successes, failures));
+    writeChunk(inserts, updates, cityUser, sdf, report);
+    flagRemoved(stored, seen, report);
+    report.finish();
+    LOGGER.info(report.toString());
   }
 
+  /**
+   * Finds the City of Albuquerque user, creating it if this is the first import.
+   */
+  private GoogleUser findCityUser() {
+    GoogleUser cityUser = userRepository.findByGoogleId(CITY_USER_ID);
+    if (cityUser == null) {
+      cityUser = new GoogleUser();
+      cityUser.setGoogleName(CITY_USER_NAME);
+      cityUser.setGoogleId(CITY_USER_ID);
+      cityUser.setPictureUrl(CITY_USER_IMAGE_URL);
+      cityUser.setBanned(false);
+      userRepository.save(cityUser);
+    }
+    return cityUser;
+  }
 
   /**
-   * Attempts to parse the records from the CSV file.
+   * Opens the CSV file for a single forward pass over its records.
+   */
+  private CSVParser openRecords(String path) throws IOException {
+    InputStreamReader reader = new InputStreamReader(new FileInputStream(path),
+        StandardCharsets.UTF_8);
+    return new CSVParser(reader, CSVFormat.DEFAULT.withQuote(null));
+  }
+
+  /**
+   * Streams the CSV file once to collect the distinct IMDb IDs it references.
    */
-  private void parseRecord(CSVRecord record, FilmLocation newLocation) throws IOException {
-    if (!record.get(INDEX_IMDB).equals(NOT_APPLICABLE)) {
-      newLocation.setImdbId(record.get(INDEX_IMDB)
-          .substring(URL_SUBSTRING_BEGIN, URL_SUBSTRING_END)); //Slices the ID from the URL
+  private Set<String> collectImdbIds(String path) throws IOException {
+    Set<String> imdbIds = new HashSet<>();
+    try (CSVParser csvParser = openRecords(path)) {
+      for (CSVRecord record : csvParser) {
+        if (record.getRecordNumber() > 1 && record.size() > INDEX_IMDB) {
+          String imdbId = parseImdbId(record);
+          if (imdbId != null) {
+            imdbIds.add(imdbId);
+          }
+        }
+      }
     }
-    newLocation.setProduction(findProduction(newLocation));
-    newLocation.setLongCoordinate(Double.valueOf(record.get(INDEX_GEO_X)));
-    newLocation.setLatCoordinate(Double.valueOf(record.get(INDEX_GEO_Y)));
+    return imdbIds;
+  }
+
+  /**
+   * Attempts to parse the records from the CSV file.
+   */
+  private void parseRecord(CSVRecord record, FilmLocation newLocation) {
+    newLocation.setObjectId(Long.valueOf(record.get(INDEX_OBJECTID)));
+    newLocation.setImdbId(parseImdbId(record));
+    newLocation.setLongCoordinate(parseCoordinate(record.get(INDEX_GEO_X)));
+    newLocation.setLatCoordinate(parseCoordinate(record.get(INDEX_GEO_Y)));
     newLocation.setAddress(record.get(INDEX_ADDRESS));
     newLocation.setSiteName(record.get(INDEX_SITE));
     if (!record.get(INDEX_SHOOTDATE).equals(NULL_STRING)) {
@@ -156,28 +313,272 @@ public class Parser {
       newLocation.setOriginalDetails(record.get(INDEX_ORIGINALDETAILS));
     }
     newLocation.setApproved(true);
-    filmLocationRepository.save(newLocation);
   }
 
   /**
-   * This method retrieves the production information using a given imdbID. If it is not already
-   * found in the database, it retrieves the information from the OMDB API.
+   * Digests the city fields of a parsed record and whether its production was found, so that a
+   * later export rewrites a location only if its record changed or its production has since been
+   * found.
+   */
+  private String digest(FilmLocation location) {
+    StringBuilder fields = new StringBuilder();
+    for (Object field : new Object[]{location.getObjectId(), location.getImdbId(),
+        location.getLongCoordinate(), location.getLatCoordinate(), location.getAddress(),
+        location.getSiteName(), location.getShootDate(), location.getOriginalDetails(),
+        location.getProduction() != null}) {
+      fields.append(field).append(FIELD_SEPARATOR);
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+      return Base64.getEncoder().encodeToString(
+          digest.digest(fields.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Builds the key used to match a location imported before the OBJECTID was stored.
+   */
+  private String legacyKey(String siteName, String address, long shootDate, double latCoordinate,
+      double longCoordinate) {
+    return siteName + '|' + address + '|' + shootDate + '|' + latCoordinate + '|' + longCoordinate;
+  }
+
+  /**
+   * Parses a coordinate, rejecting the NaN entries Derby cannot store so that they fail here rather
+   * than failing the batch they are written in.
+   */
+  private double parseCoordinate(String value) {
+    if (value.equals(NOT_A_NUMBER)) {
+      throw new NumberFormatException(value);
+    }
+    return Double.parseDouble(value);
+  }
+
+  /**
+   * Slices the IMDb ID from the IMDb URL of a record.
+   */
+  private String parseImdbId(CSVRecord record) {
+    String imdbLink = record.get(INDEX_IMDB);
+    if (imdbLink.equals(NOT_APPLICABLE) || imdbLink.length() < URL_SUBSTRING_END) {
+      return null;
+    }
+    return imdbLink.substring(URL_SUBSTRING_BEGIN, URL_SUBSTRING_END);
+  }
+
+  /**
+   * This method retrieves the production information for each of the given imdbIDs. Productions
+   * already in the database are read with a single query; the rest are retrieved from the OMDB API
+   * with a bounded number of concurrent requests and saved together. If the import is interrupted
+   * while waiting for them, it is abandoned rather than written without their productions.
    *
-   * @param newLocation the location to manipulate.
-   * @return the production found.
-   * @throws IOException an IO exception.
-   */
-  private Production findProduction(FilmLocation newLocation) throws IOException {
-    // FIXME Still some insertion failures (about 35), unsure why.
-    Production production = productionRepository.findByImdbId(newLocation.getImdbId());
-    if (production == null) {
-      production = retrofitClientService.getRetrofit().create(ProductionService.class)
-          .get(newLocation.getImdbId(), apikey).execute().body();
-      productionRepository.save(production);
+   * @param imdbIds the distinct IMDb IDs referenced by the import.
+   * @param report the report to record OMDb latency on.
+   * @return the productions found, keyed by IMDb ID.
+   * @throws InterruptedIOException if the import is interrupted while productions are retrieved.
+   */
+  private Map<String, Production> resolveProductions(Set<String> imdbIds, ImportReport report)
+      throws InterruptedIOException {
+    Map<String, Production> productions = new HashMap<>();
+    if (imdbIds.isEmpty()) {
+      return productions;
+    }
+    for (Production production : productionRepository.findAllByImdbIdIn(imdbIds)) {
+      productions.put(production.getImdbId(), production);
+    }
+    ProductionService productionService =
+        retrofitClientService.getRetrofit().create(ProductionService.class);
+    ExecutorService executor = Executors.newFixedThreadPool(omdbConcurrency);
+    try {
+      List<Future<Production>> lookups = new ArrayList<>();
+      for (String imdbId : imdbIds) {
+        if (!productions.containsKey(imdbId)) {
+          lookups.add(executor.submit(() -> fetchProduction(productionService, imdbId, report)));
+        }
+      }
+      List<Production> fetched = new ArrayList<>();
+      for (Future<Production> lookup : lookups) {
+        Production production = lookup.get();
+        if (production != null) {
+          fetched.add(production);
+        }
+      }
+      transactionTemplate.execute(status -> productionRepository.saveAll(fetched));
+      for (Production production : fetched) {
+        productions.put(production.getImdbId(), production);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted =
+          new InterruptedIOException("Interrupted while retrieving productions from OMDb.");
+      interrupted.initCause(e);
+      throw interrupted;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return productions;
+  }
+
+  /**
+   * Retrieves a single production from the OMDb API, returning null if it could not be found.
+   */
+  private Production fetchProduction(ProductionService productionService, String imdbId,
+      ImportReport report) {
+    long start = System.nanoTime();
+    Production production = null;
+    try {
+      production = productionService.get(imdbId, apikey).execute().body();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Failed to retrieve production {} from OMDb: {}", imdbId, e.getMessage());
     }
+    if (production != null && !imdbId.equals(production.getImdbId())) {
+      production = null; // OMDb answers unknown IDs with an error body rather than a 404.
+    } else if (production != null && production.getPlot() != null
+        && production.getPlot().length() > PLOT_MAX_LENGTH) {
+      production.setPlot(production.getPlot().substring(0, PLOT_MAX_LENGTH));
+    }
+    report.productionFetched(System.nanoTime() - start, production != null);
     return production;
   }
 
+  /**
+   * Writes a chunk of new and changed locations and their city comments in one transaction, using
+   * JDBC batches. If the chunk fails, its records are retried one at a time so that a single bad
+   * record only loses itself.
+   */
+  private void writeChunk(List<FilmLocation> inserts, Map<UUID, FilmLocation> updates,
+      GoogleUser cityUser, SimpleDateFormat sdf, ImportReport report) {
+    if (inserts.isEmpty() && updates.isEmpty()) {
+      return;
+    }
+    try {
+      applyChunk(inserts, updates, cityUser, sdf);
+      report.locationsAdded(inserts.size());
+      report.locationsUpdated(updates.size());
+    } catch (DataAccessException | PersistenceException | TransactionException e) {
+      for (FilmLocation location : inserts) {
+        location.setId(null);
+        try {
+          applyChunk(Collections.singletonList(location), Collections.emptyMap(), cityUser, sdf);
+          report.locationsAdded(1);
+        } catch (DataAccessException | PersistenceException | TransactionException failure) {
+          report.failure();
+        }
+      }
+      for (Map.Entry<UUID, FilmLocation> update : updates.entrySet()) {
+        try {
+          applyChunk(Collections.emptyList(),
+              Collections.singletonMap(update.getKey(), update.getValue()), cityUser, sdf);
+          report.locationsUpdated(1);
+        } catch (DataAccessException | PersistenceException | TransactionException failure) {
+          report.failure();
+        }
+      }
+    }
+    report.batchWritten();
+    inserts.clear();
+    updates.clear();
+  }
+
+  /**
+   * Inserts new locations with their city comments, and copies changed records onto their stored
+   * locations and city comments, in one transaction.
+   */
+  private void applyChunk(List<FilmLocation> inserts, Map<UUID, FilmLocation> updates,
+      GoogleUser cityUser, SimpleDateFormat sdf) {
+    transactionTemplate.execute(status -> {
+      List<UserComment> comments = new ArrayList<>(inserts.size());
+      for (FilmLocation location : inserts) {
+        comments.add(createComment(cityUser, location, createPost(sdf, location)));
+      }
+      filmLocationRepository.saveAll(inserts);
+      userCommentRepository.saveAll(comments);
+      if (!updates.isEmpty()) {
+        List<FilmLocation> locations = new ArrayList<>(updates.size());
+        filmLocationRepository.findAllById(updates.keySet()).forEach(locations::add);
+        Map<UUID, UserComment> cityComments = new HashMap<>();
+        for (UserComment comment :
+            userCommentRepository.findAllByFilmLocationInAndGoogleId(locations, CITY_USER_ID)) {
+          cityComments.put(comment.getFilmLocation().getId(), comment);
+        }
+        for (FilmLocation location : locations) {
+          copyCityRecord(updates.get(location.getId()), location);
+          UserComment comment = cityComments.get(location.getId());
+          if (comment != null) {
+            comment.setText(createPost(sdf, location));
+          }
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+      return null;
+    });
+  }
+
+  /**
+   * Copies the fields that come from the city data onto a stored location, leaving the rest as
+   * they are.
+   */
+  private void copyCityRecord(FilmLocation source, FilmLocation target) {
+    target.setObjectId(source.getObjectId());
+    target.setCityRecordDigest(source.getCityRecordDigest());
+    target.setCityDataRemoved(false);
+    target.setGoogleId(source.getGoogleId());
+    target.setUserName(source.getUserName());
+    target.setUserPictureUrl(source.getUserPictureUrl());
+    target.setImdbId(source.getImdbId());
+    target.setProduction(source.getProduction());
+    target.setLongCoordinate(source.getLongCoordinate());
+    target.setLatCoordinate(source.getLatCoordinate());
+    target.setAddress(source.getAddress());
+    target.setSiteName(source.getSiteName());
+    target.setShootDate(source.getShootDate());
+    target.setOriginalDetails(source.getOriginalDetails());
+  }
+
+  /**
+   * Flags the stored city locations whose OBJECTID was not in the export, in chunks of the batch
+   * size. The flags are set with a bulk update, so the locations are recorded in the change log
+   * here.
+   */
+  private void flagRemoved(Map<Long, CityRecordState> stored, Set<Long> seen,
+      ImportReport report) {
+    List<Long> removed = new ArrayList<>();
+    List<UUID> removedIds = new ArrayList<>();
+    for (CityRecordState state : stored.values()) {
+      if (!state.isCityDataRemoved() && !seen.contains(state.getObjectId())) {
+        removed.add(state.getObjectId());
+        removedIds.add(state.getId());
+      }
+    }
+    for (int i = 0; i < removed.size(); i += batchSize) {
+      report.locationsRemoved(filmLocationRepository.flagCityDataRemoved(
+          removed.subList(i, Math.min(i + batchSize, removed.size()))));
+    }
+    if (!removedIds.isEmpty()) {
+      changeLog.recordSaved(Kind.FILM_LOCATION, removedIds);
+      entityCache.invalidateFilmLocations(removedIds);
+    }
+  }
+
+  /**
+   * Creates the city user's comment for a new location.
+   */
+  private UserComment createComment(GoogleUser cityUser, FilmLocation newLocation,
+      String cityPost) {
+    UserComment cityUserComment = new UserComment();
+    cityUserComment.setGoogleId(cityUser.getGoogleId());
+    cityUserComment.setUserName(cityUser.getGoogleName());
+    cityUserComment.setUserPictureUrl(cityUser.getPictureUrl());
+    cityUserComment.setFilmLocation(newLocation);
+    cityUserComment.setText(cityPost);
+    cityUserComment.setApproved(true);
+    return cityUserComment;
+  }
+
   /**
    * Generates a user comment with the information from the city data.
    */
@@ -200,6 +601,4 @@ public class Parser {
     return cityPost.toString();
   }
 
-
-
 }
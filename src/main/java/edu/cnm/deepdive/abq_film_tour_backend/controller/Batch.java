@@ -0,0 +1,39 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The result of a batch lookup by ID.
+ *
+ * @param <T> the type of the rows looked up.
+ */
+public class Batch<T> {
+
+  private final List<T> found;
+  private final List<UUID> missing;
+
+  Batch(List<T> found, List<UUID> missing) {
+    this.found = found;
+    this.missing = missing;
+  }
+
+  /**
+   * Gets the rows found, in the order their IDs were requested.
+   *
+   * @return the rows found.
+   */
+  public List<T> getFound() {
+    return found;
+  }
+
+  /**
+   * Gets the requested IDs that matched no row.
+   *
+   * @return the IDs not found.
+   */
+  public List<UUID> getMissing() {
+    return missing;
+  }
+
+}
@@ -0,0 +1,69 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Looks up a batch of rows by ID for the batch endpoints. The distinct IDs are read with one
+ * {@code IN} query, and the rows come back in the order they were asked for, with the IDs that
+ * matched no row reported separately.
+ */
+@Component
+public class BatchFinder {
+
+  private final int maxIds;
+
+  /**
+   * Instantiates a new batch finder.
+   *
+   * @param maxIds the most IDs a request may ask for.
+   */
+  public BatchFinder(@Value("${batch.maxIds}") int maxIds) {
+    this.maxIds = maxIds;
+  }
+
+  /**
+   * Finds the rows with some IDs.
+   *
+   * @param ids the requested IDs, in the order the rows are wanted.
+   * @param query the repository query for the rows with a collection of IDs.
+   * @param idOf the ID of a row.
+   * @param <T> the row type.
+   * @return the rows found, and the IDs not found.
+   */
+  public <T> Batch<T> find(List<UUID> ids, Function<Collection<UUID>, Iterable<T>> query,
+      Function<T, UUID> idOf) {
+    Set<UUID> distinct = new LinkedHashSet<>(ids);
+    distinct.remove(null);
+    if (distinct.isEmpty() || distinct.size() > maxIds) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400_IDS);
+    }
+    Map<UUID, T> rows = new HashMap<>();
+    for (T row : query.apply(distinct)) {
+      rows.put(idOf.apply(row), row);
+    }
+    List<T> found = new ArrayList<>(rows.size());
+    List<UUID> missing = new ArrayList<>();
+    for (UUID id : distinct) {
+      T row = rows.get(id);
+      if (row != null) {
+        found.add(row);
+      } else {
+        missing.add(id);
+      }
+    }
+    return new Batch<>(found, missing);
+  }
+
+}
@@ -0,0 +1,161 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.controller.ChangePage.Tombstone;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ChangeLog;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller for the changes feed, which lets a client that has downloaded the lists once keep
+ * them current by asking only for what changed since its last sync.
+ */
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+
+  private ChangeLog changeLog;
+  private FilmLocationRepository filmLocationRepository;
+  private ProductionRepository productionRepository;
+  private UserCommentRepository userCommentRepository;
+  private ImageRepository imageRepository;
+  private Paginator paginator;
+
+  /**
+   * Instantiates a new Change controller.
+   *
+   * @param changeLog the change log
+   * @param filmLocationRepository the film location repository
+   * @param productionRepository the production repository
+   * @param userCommentRepository the user comment repository
+   * @param imageRepository the image repository
+   * @param paginator the paginator limiting the changes in a response
+   */
+  @Autowired
+  public ChangeController(ChangeLog changeLog, FilmLocationRepository filmLocationRepository,
+      ProductionRepository productionRepository, UserCommentRepository userCommentRepository,
+      ImageRepository imageRepository, Paginator paginator) {
+    this.changeLog = changeLog;
+    this.filmLocationRepository = filmLocationRepository;
+    this.productionRepository = productionRepository;
+    this.userCommentRepository = userCommentRepository;
+    this.imageRepository = imageRepository;
+    this.paginator = paginator;
+  }
+
+  /**
+   * Gets what changed since a sync token. The changes are read from the change log, and the
+   * current state of the entities written is read with one query per kind of entity.
+   *
+   * @param since the token of the previous response, or null to get only the current token,
+   *     which must be fetched before a full download is started.
+   * @param size the most changes in a response.
+   * @return the changes since the token, and the token to continue from.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = CHANGE_LIST_SUMMARY, notes = CHANGE_LIST_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_TOKEN),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public ChangePage list(
+      @ApiParam(CHANGE_SINCE_PARAM)
+      @RequestParam(value = "since", required = false) String since,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (since == null) {
+      return ChangePage.empty(Long.toString(changeLog.latest()));
+    }
+    long sequence;
+    try {
+      sequence = Long.parseLong(since);
+    } catch (NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_TOKEN);
+    }
+    if (sequence < 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_TOKEN);
+    }
+    Pageable page = paginator.limit(size);
+    List<ChangeRecord> records = changeLog.read(sequence, page);
+    Map<Kind, Set<UUID>> saved = new EnumMap<>(Kind.class);
+    List<Tombstone> deleted = new ArrayList<>();
+    for (ChangeRecord record : records) {
+      if (record.isDeleted()) {
+        deleted.add(new Tombstone(record.getKind(), record.getEntityId()));
+      } else {
+        saved.computeIfAbsent(record.getKind(), (kind) -> new LinkedHashSet<>())
+            .add(record.getEntityId());
+      }
+    }
+    List<CompactFilmLocation> filmLocations = load(Kind.FILM_LOCATION, saved, deleted,
+        filmLocationRepository::findCompactByIdIn, CompactFilmLocation::getId);
+    List<Production> productions = load(Kind.PRODUCTION, saved, deleted,
+        productionRepository::findAllById, Production::getId);
+    List<UserCommentSummary> userComments = load(Kind.USER_COMMENT, saved, deleted,
+        userCommentRepository::findSummariesByIdIn, UserCommentSummary::getId);
+    List<ImageSummary> images = load(Kind.IMAGE, saved, deleted,
+        imageRepository::findSummariesByIdIn, ImageSummary::getId);
+    String token = records.isEmpty()
+        ? since : records.get(records.size() - 1).getSequence().toString();
+    return new ChangePage(token, records.size() >= page.getPageSize(), filmLocations,
+        productions, userComments, images, deleted);
+  }
+
+  /**
+   * Loads the entities of one kind written since the token. Entities deleted after their change
+   * was read are reported as tombstones.
+   */
+  private <T> List<T> load(Kind kind, Map<Kind, Set<UUID>> saved, List<Tombstone> deleted,
+      Function<Collection<UUID>, Iterable<T>> query, Function<T, UUID> idOf) {
+    Set<UUID> ids = saved.get(kind);
+    if (ids == null) {
+      return Collections.emptyList();
+    }
+    List<T> loaded = new ArrayList<>(ids.size());
+    Set<UUID> missing = new LinkedHashSet<>(ids);
+    for (T row : query.apply(ids)) {
+      loaded.add(row);
+      missing.remove(idOf.apply(row));
+    }
+    for (UUID id : missing) {
+      deleted.add(new Tombstone(kind, id));
+    }
+    return loaded;
+  }
+
+}
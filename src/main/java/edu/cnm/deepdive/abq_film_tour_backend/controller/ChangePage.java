@@ -0,0 +1,144 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A page of the changes feed: the current state of everything written since a sync token, the
+ * tombstones of everything deleted, and the token to ask for the next changes with.
+ */
+public class ChangePage {
+
+  private final String token;
+  private final boolean more;
+  private final List<CompactFilmLocation> filmLocations;
+  private final List<Production> productions;
+  private final List<UserCommentSummary> userComments;
+  private final List<ImageSummary> images;
+  private final List<Tombstone> deleted;
+
+  ChangePage(String token, boolean more, List<CompactFilmLocation> filmLocations,
+      List<Production> productions, List<UserCommentSummary> userComments,
+      List<ImageSummary> images, List<Tombstone> deleted) {
+    this.token = token;
+    this.more = more;
+    this.filmLocations = filmLocations;
+    this.productions = productions;
+    this.userComments = userComments;
+    this.images = images;
+    this.deleted = deleted;
+  }
+
+  /**
+   * Instantiates a page with no changes, to start syncing from.
+   *
+   * @param token the token of the latest change.
+   * @return the empty page.
+   */
+  static ChangePage empty(String token) {
+    return new ChangePage(token, false, Collections.emptyList(), Collections.emptyList(),
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * Gets the token to ask for the changes after this page with.
+   *
+   * @return the sync token.
+   */
+  public String getToken() {
+    return token;
+  }
+
+  /**
+   * Gets whether there are further changes after this page.
+   *
+   * @return true if the next request will return more changes.
+   */
+  public boolean isMore() {
+    return more;
+  }
+
+  /**
+   * Gets the film locations written, which reference their productions by ID.
+   *
+   * @return the compact film locations.
+   */
+  public List<CompactFilmLocation> getFilmLocations() {
+    return filmLocations;
+  }
+
+  /**
+   * Gets the productions written.
+   *
+   * @return the productions.
+   */
+  public List<Production> getProductions() {
+    return productions;
+  }
+
+  /**
+   * Gets the comments written.
+   *
+   * @return the comment summaries.
+   */
+  public List<UserCommentSummary> getUserComments() {
+    return userComments;
+  }
+
+  /**
+   * Gets the images written.
+   *
+   * @return the image summaries.
+   */
+  public List<ImageSummary> getImages() {
+    return images;
+  }
+
+  /**
+   * Gets the tombstones of the entities deleted.
+   *
+   * @return the tombstones.
+   */
+  public List<Tombstone> getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * The kind and internal ID of a deleted entity.
+   */
+  public static class Tombstone {
+
+    private final Kind kind;
+    private final UUID id;
+
+    Tombstone(Kind kind, UUID id) {
+      this.kind = kind;
+      this.id = id;
+    }
+
+    /**
+     * Gets the kind of entity deleted.
+     *
+     * @return the entity kind.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Gets the internal ID of the entity deleted.
+     *
+     * @return the entity ID.
+     */
+    public UUID getId() {
+      return id;
+    }
+  }
+
+}
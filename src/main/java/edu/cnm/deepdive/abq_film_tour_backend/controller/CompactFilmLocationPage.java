@@ -0,0 +1,42 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ProductionSummary;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A page of compact film locations, with every production they reference side-loaded once and
+ * keyed by its internal ID.
+ */
+public class CompactFilmLocationPage {
+
+  private final List<CompactFilmLocation> filmLocations;
+  private final Map<UUID, ProductionSummary> productions;
+
+  CompactFilmLocationPage(List<CompactFilmLocation> filmLocations,
+      Map<UUID, ProductionSummary> productions) {
+    this.filmLocations = filmLocations;
+    this.productions = productions;
+  }
+
+  /**
+   * Gets the film locations of the page, which reference productions by ID.
+   *
+   * @return the compact film locations.
+   */
+  public List<CompactFilmLocation> getFilmLocations() {
+    return filmLocations;
+  }
+
+  /**
+   * Gets the distinct productions referenced by the page.
+   *
+   * @return the productions, keyed by internal ID.
+   */
+  public Map<UUID, ProductionSummary> getProductions() {
+    return productions;
+  }
+
+}
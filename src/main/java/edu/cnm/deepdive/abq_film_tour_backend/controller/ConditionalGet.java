@@ -0,0 +1,78 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ChangeLog;
+import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Answers conditional GETs from the versions held by the change log, before the database is read.
+ * A response is tagged with the latest change to the entities it is built from, so a client that
+ * sends the tag back in {@code If-None-Match} gets a 304 until one of them is written or deleted.
+ * The tag is taken before the response is read, so a write that lands in between at worst costs
+ * the client one more full response. Tags also carry the startup time of the server, so a new
+ * build never answers 304 for a body serialized by an old one.
+ */
+@Component
+public class ConditionalGet {
+
+  static final String CACHE_CONTROL = "private, no-cache";
+
+  private final ChangeLog changeLog;
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+  /**
+   * Instantiates a new conditional GET check.
+   *
+   * @param changeLog the change log holding the versions.
+   */
+  @Autowired
+  public ConditionalGet(ChangeLog changeLog) {
+    this.changeLog = changeLog;
+  }
+
+  /**
+   * Tags the response to a list read from some kinds of entity, and checks the tag against the
+   * request.
+   *
+   * @param kinds the kinds of entity the list is read from.
+   * @return true if the client's copy is current and the response has been set to 304.
+   */
+  public boolean listNotModified(Kind... kinds) {
+    return notModified(changeLog.version(kinds));
+  }
+
+  /**
+   * Tags the response to a single entity, and checks the tag against the request.
+   *
+   * @param id the internal ID of the entity.
+   * @param dependencies the kinds of the other entities included in the response.
+   * @return true if the client's copy is current and the response has been set to 304.
+   */
+  public boolean itemNotModified(UUID id, Kind... dependencies) {
+    return notModified(Math.max(changeLog.version(id), changeLog.version(dependencies)));
+  }
+
+  private boolean notModified(long version) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return false;
+    }
+    HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+    if (response == null) {
+      return false;
+    }
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+    return new ServletWebRequest(((ServletRequestAttributes) attributes).getRequest(), response)
+        .checkNotModified(
+            "\"" + epoch + "-" + Long.toString(version, Character.MAX_RADIX) + "\"");
+  }
+
+}
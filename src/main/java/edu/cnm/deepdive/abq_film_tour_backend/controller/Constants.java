@@ -2,47 +2,71 @@ package edu.cnm.deepdive.abq_film_tour_backend.controller;
 
 final class Constants {
 
+  static final String FEED_ITEM_NOTE = " Each item carries the ID and name of its film location instead of the whole location.";
+
   static final String FILM_LOCATION_LIST_SUMMARY = "Gets all film locations. ";
-  static final String FILM_LOCATION_LIST_DESC = "Gets all film locations, ordered by the time of creation.";
+  static final String FILM_LOCATION_LIST_DESC = "Gets the film locations a page at a time, ordered by the time of creation, or all at once with stream. With bbox or near, gets only the locations on a map area or around a point, nearest first.";
+  static final String FILM_LOCATION_BBOX_PARAM = "Only locations inside this box, given as west,south,east,north in degrees, ordered by distance from its center.";
+  static final String FILM_LOCATION_NEAR_PARAM = "Only locations within radius of this point, given as lat,lng in degrees, ordered by distance from it.";
+  static final String FILM_LOCATION_RADIUS_PARAM = "The distance from the near point in meters.";
+  static final String FILM_LOCATION_LIMIT_PARAM = "The most locations to return from a bbox or near query, capped by the server.";
+  static final String FILM_LOCATION_CLUSTERS_SUMMARY = "Gets map clusters of film locations.";
+  static final String FILM_LOCATION_CLUSTERS_DESC = "Gets the clusters of film locations in a viewport at a map zoom level, each with the centroid of its locations, their count, and the bounds of its cell as west,south,east,north. Zoom levels past the deepest clustered level are served from that level.";
+  static final String FILM_LOCATION_COMPACT_SUMMARY = "Gets film locations in a compact form.";
+  static final String FILM_LOCATION_COMPACT_DESC = "Gets the film locations a page at a time, ordered by the time of creation. Each location references its production by productionId instead of embedding it, and the productions on the page are listed once in a map keyed by ID.";
+  static final String FILM_LOCATION_ZOOM_PARAM = "The map zoom level, 0 for the whole world.";
+  static final String FILM_LOCATION_VIEWPORT_PARAM = "The viewport as west,south,east,north in degrees. The whole map if absent.";
   static final String FILM_LOCATION_GET_SUMMARY = "Gets a film location.";
   static final String FILM_LOCATION_GET_DESC = "Gets a single film location by its internal ID.";
+  static final String FILM_LOCATION_DETAIL_SUMMARY = "Gets a film location with its images and comments.";
+  static final String FILM_LOCATION_DETAIL_DESC = "Gets a film location with its production, the first page of its images and of its comments, newest first, and the total number of each, in one response. imagesCursor and userCommentsCursor continue the lists through the images and user_comments endpoints of the location.";
+  static final String FILM_LOCATION_BATCH_SUMMARY = "Gets a batch of film locations.";
+  static final String FILM_LOCATION_BATCH_DESC = "Gets the film locations with the given internal IDs, with their productions, in the order of the IDs. IDs matching no location are listed in missing.";
   static final String FILM_LOCATION_POST_SUMMARY = "Posts a new film location.";
   static final String FILM_LOCATION_POST_DESC = "Posts a new film location to the film locations endpoint. Should include coordinates, a site name, a Google ID, Google name, profile picture URL, and an associated Production at the minimum.";
   static final String FILM_LOCATION_DELETE_SUMMARY = "Deletes a film location.";
-  static final String FILM_LOCATION_DELETE_DESC = "Restricted to superuser privileges or above. Deletes a film location by its internal ID.";
+  static final String FILM_LOCATION_DELETE_DESC = "Restricted to superuser privileges or above. Deletes a film location by its internal ID, with all comments and images on it.";
   static final String FILM_LOCATION_PATCH_SUMMARY = "Modifies a film location.";
-  static final String FILM_LOCATION_PATCH_DESC = "Restricted to superuser privileges or above. Patches a film location. All data will be overwritten - current fields to stay the same must be included as well. The ID of the image should be included in the body. Can be used to approve a location submission.";
+  static final String FILM_LOCATION_PATCH_DESC = "Restricted to superuser privileges or above. Patches a film location with a JSON merge patch: only the fields included in the body are changed. The ID of the location must be included in the body, and a different production is referenced by its productionId. Include the version last read to be refused with a 409 if the location has been changed since. Can be used to approve a location submission.";
 
   static final String IMAGE_LIST_SUMMARY = "Gets all images for a location.";
-  static final String IMAGE_LIST_DESC = "Gets all of the images on a film location endpoint, ordered by the time of creation.";
+  static final String IMAGE_LIST_DESC = "Gets the images on a film location endpoint a page at a time, ordered by the time of creation."
+      + FEED_ITEM_NOTE;
   static final String IMAGE_ALL_SUMMARY = "Gets all images.";
-  static final String IMAGE_ALL_DESC = "Gets all images, ordered by their time of creation.";
+  static final String IMAGE_ALL_DESC = "Gets all images a page at a time, ordered by their time of creation, or all at once with stream."
+      + FEED_ITEM_NOTE;
   static final String IMAGE_GET_SUMMARY = "Gets an image.";
   static final String IMAGE_GET_DESC = "Gets a single image on a film location endpoint, referenced by its internal ID";
+  static final String IMAGE_BATCH_SUMMARY = "Gets a batch of images.";
+  static final String IMAGE_BATCH_DESC = "Gets the images with the given internal IDs, in the order of the IDs. IDs matching no image are listed in missing.";
   static final String IMAGE_POST_SUMMARY = "Posts a new image.";
   static final String IMAGE_POST_DESC = "Posts a new image to a film location endpoint. Should contain a Google ID, Google name, and profile picture URL for the submitter and the URL the image is located at.";
   static final String IMAGE_POST_BAD_DESC = "Posts an image. Posting should not be done directly, it should be done on a specific FilmLocation endpoint.";
   static final String IMAGE_DELETE_SUMMARY = "Deletes an image.";
   static final String IMAGE_DELETE_DESC = "Restricted to superuser privileges or above. Deletes a single image on a film location endpoint, referenced by its internal ID.";
   static final String IMAGE_PATCH_SUMMARY = "Modifies an image.";
-  static final String IMAGE_PATCH_DESC = "Restricted to superuser privileges or above. Patches an image from the images endpoint on a film location. All data will be overwritten - current fields to stay the same must be included as well. The ID of the image should be included in the body. Can be used to approve an image submission.";
+  static final String IMAGE_PATCH_DESC = "Restricted to superuser privileges or above. Patches an image from the images endpoint on a film location with a JSON merge patch: only the fields included in the body are changed. The ID of the image must be included in the body. Include the version last read to be refused with a 409 if the image has been changed since. Can be used to approve an image submission.";
 
   static final String USER_COMMENT_LIST_SUMMARY = "Gets all user comments for a location.";
-  static final String USER_COMMENT_LIST_DESC = "Gets all of the user comments on a film location endpoint, ordered by the time of creation.";
+  static final String USER_COMMENT_LIST_DESC = "Gets the user comments on a film location endpoint a page at a time, ordered by the time of creation."
+      + FEED_ITEM_NOTE;
   static final String USER_COMMENT_ALL_SUMMARY = "Gets all user comments.";
-  static final String USER_COMMENT_ALL_DESC = "Gets all user comments, ordered by their time of creation.";
+  static final String USER_COMMENT_ALL_DESC = "Gets all user comments a page at a time, ordered by their time of creation, or all at once with stream."
+      + FEED_ITEM_NOTE;
   static final String USER_COMMENT_GET_SUMMARY = "Gets a user comment.";
   static final String USER_COMMENT_GET_DESC = "Gets a single user comment, referenced by its internal ID";
+  static final String USER_COMMENT_BATCH_SUMMARY = "Gets a batch of user comments.";
+  static final String USER_COMMENT_BATCH_DESC = "Gets the user comments with the given internal IDs, in the order of the IDs. IDs matching no comment are listed in missing.";
   static final String USER_COMMENT_POST_SUMMARY = "Posts a new user comment.";
   static final String USER_COMMENT_POST_DESC = "Posts a new user comment to a film location endpoint. Should contain a Google ID, Google name, and profile picture URL for the author and the text content of the comment.";
   static final String USER_COMMENT_POST_BAD_DESC = "Posts a new user comment. Posting should not be done directly, it should be done on a specific FilmLocation endpoint.";
   static final String USER_COMMENT_DELETE_SUMMARY = "Deletes a user comment.";
   static final String USER_COMMENT_DELETE_DESC = "Restricted to superuser privileges or above. Deletes a single user comment on a film location endpoint, referenced by its internal ID.";
   static final String USER_COMMENT_PATCH_SUMMARY = "Modifies a user comment.";
-  static final String USER_COMMENT_PATCH_DESC = "Restricted to superuser privileges or above. Patches a user comment from the user comments endpoint on a film location. All data will be overwritten - current fields to stay the same must be included as well. The ID of the user comment should be included in the body. Can be used to approve a comment submission. ";
+  static final String USER_COMMENT_PATCH_DESC = "Restricted to superuser privileges or above. Patches a user comment from the user comments endpoint on a film location with a JSON merge patch: only the fields included in the body are changed. The ID of the user comment must be included in the body. Include the version last read to be refused with a 409 if the comment has been changed since. Can be used to approve a comment submission.";
 
   static final String USER_LIST_SUMMARY = "Gets all users.";
-  static final String USER_LIST_DESC = "Admin access only. Gets all users, ordered alphabetically by the name on their account.";
+  static final String USER_LIST_DESC = "Admin access only. Gets all users a page at a time, ordered alphabetically by the name on their account.";
   static final String USER_GET_SUMMARY = "Gets a single user.";
   static final String USER_GET_DESC = "Admin access only. Gets a user from the users endpoint, referenced by their internal ID.";
   static final String USER_POST_SUMMARY = "Posts a new user.";
@@ -50,37 +74,89 @@ final class Constants {
   static final String USER_DELETE_SUMMARY = "Deletes a user.";
   static final String USER_DELETE_DESC = "Admin access only. Deletes a user from the users endpoint, referenced by their internal ID.";
   static final String USER_PATCH_SUMMARY = "Modifies a user.";
-  static final String USER_PATCH_DESC = "Admin access only. Patches a user from the users endpoint. All data will be overwritten - current fields to stay the same must be included as well. Can be used to ban or unban a user.";
+  static final String USER_PATCH_DESC = "Admin access only. Patches a user from the users endpoint with a JSON merge patch: only the fields included in the body are changed. The ID of the user must be included in the body. Include the version last read to be refused with a 409 if the user has been changed since. Can be used to ban or unban a user.";
   static final String USER_LIST_COMMENTS_SUMMARY = "Gets all comments submitted by a user.";
-  static final String USER_LIST_COMMENTS_DESC = "Admin access only. Shows all of the comments submitted by a user in descending order by timestamp. Can be used to monitor activity.";
+  static final String USER_LIST_COMMENTS_DESC = "Admin access only. Shows all of the comments submitted by a user a page at a time, in descending order by timestamp. Can be used to monitor activity."
+      + FEED_ITEM_NOTE;
   static final String USER_LIST_LOCATIONS_SUMMARY = "Gets all locations submitted by a user.";
-  static final String USER_LIST_LOCATIONS_DESC = "Admin access only. Shows all of the locations submitted by a user in descending order by timestamp. Can be used to monitor activity.";
+  static final String USER_LIST_LOCATIONS_DESC = "Admin access only. Shows all of the locations submitted by a user a page at a time, in descending order by timestamp. Can be used to monitor activity.";
   static final String USER_LIST_IMAGES_SUMMARY = "Gets all images submitted by a user.";
-  static final String USER_LIST_IMAGES_DESC = "Admin access only. Shows all of the locations submitted by a user in descending order by timestamp. Can be used to monitor activity.";
+  static final String USER_LIST_IMAGES_DESC = "Admin access only. Shows all of the images submitted by a user a page at a time, in descending order by timestamp. Can be used to monitor activity."
+      + FEED_ITEM_NOTE;
   static final String USER_PURGE_SUMMARY = "Deletes all submitted content from this user.";
-  static final String USER_PURGE_DESC = "Admin access only. Deletes all locations, comments, and images submitted by a user. Efficient way to eliminate the contributions of a malicious user.";
+  static final String USER_PURGE_DESC = "Admin access only. Starts deleting all locations, comments, and images submitted by a user, with all comments and images on their locations. Efficient way to eliminate the contributions of a malicious user. The purge runs in the background and is returned at once; poll it with a GET to follow its progress. If a purge of the user is already running, that purge is returned.";
+  static final String USER_PURGE_STATUS_SUMMARY = "Gets the progress of the latest purge of this user.";
+  static final String USER_PURGE_STATUS_DESC = "Admin access only. Gets the latest purge of a user, with its state and the number of locations, comments and images deleted so far.";
 
   static final String PRODUCTION_LIST_SUMMARY = "Gets all productions/";
-  static final String PRODUCTION_LIST_DESC = "Gets all of the productions on the productions endpoint, ordered alphabetically by their title.";
+  static final String PRODUCTION_LIST_DESC = "Gets the productions on the productions endpoint a page at a time, ordered alphabetically by their title, optionally only those of one type. Each carries its number of film locations.";
+  static final String PRODUCTION_TYPE_PARAM = "Only productions of this type: movie, series or episode. All types if absent.";
   static final String PRODUCTION_GET_SUMMARY = "Gets a single production.";
   static final String PRODUCTION_GET_DESC = "Gets a single production from the productions endpoint, referenced by its internal ID.";
+  static final String PRODUCTION_LOCATIONS_SUMMARY = "Gets the film locations of a production.";
+  static final String PRODUCTION_LOCATIONS_DESC = "Gets the film locations of a production a page at a time, newest first, or ordered by distance from a point when near is given.";
+  static final String PRODUCTION_NEAR_PARAM = "Order the locations by distance from this point, given as lat,lng in degrees.";
+  static final String PRODUCTION_BATCH_SUMMARY = "Gets a batch of productions.";
+  static final String PRODUCTION_BATCH_DESC = "Gets the productions with the given internal IDs, in the order of the IDs. IDs matching no production are listed in missing.";
   static final String PRODUCTION_POST_SUMMARY = "Posts a new production.";
   static final String PRODUCTION_POST_DESC = "Restricted to superuser privileges or above. Posts a new production. Should have an IMDb ID, plot summary, and title at least.";
   static final String PRODUCTION_DELETE_SUMMARY = "Deletes a production.";
   static final String PRODUCTION_DELETE_DESC = "Restricted to superuser privileges or above. Deletes a production from the productions endpoint, referenced by its internal ID.";
   static final String PRODUCTION_PATCH_SUMMARY = "Modifies a production.";
-  static final String PRODUCTION_PATCH_DESC = "Restricted to superuser privileges or above. Patches a production from the productions endpoint. All data will be overwritten - current fields to stay the same must be included as well. The ID should be included in the body.";
+  static final String PRODUCTION_PATCH_DESC = "Restricted to superuser privileges or above. Patches a production from the productions endpoint with a JSON merge patch: only the fields included in the body are changed. The ID must be included in the body. Include the version last read to be refused with a 409 if the production has been changed since.";
   static final String PRODUCTION_POSTER_SUMMARY = "Retrieves a poster image for the production.";
-  static final String PRODUCTION_POSTER_DESC = "Retrieves a poster image relayed its source on the OMDb API. Image is returned as a raw StreamingBodyResponse to be deserialized.";
+  static final String PRODUCTION_POSTER_DESC = "Retrieves a poster image relayed from its source on the OMDb API and cached on the server. Supports conditional requests with ETag and Last-Modified, and a single byte range.";
+
+  static final String METRICS_SUMMARY = "Gets runtime statistics.";
+  static final String METRICS_DESC = "Admin access only. Gets runtime statistics such as cache hit ratios and key refresh counts, grouped by the component reporting them.";
+
+  static final String READINESS_SUMMARY = "Reports whether this node is ready to serve requests.";
+  static final String READINESS_DESC = "Open to unauthenticated callers for load balancer health checks. Reports not ready while the initial city data import is still populating an empty database, along with the progress of the import.";
+
+  static final String CHANGE_LIST_SUMMARY = "Gets what changed since a sync token.";
+  static final String CHANGE_LIST_DESC = "Gets the film locations, productions, comments and images written since the change identified by since, oldest change first, and the IDs of those deleted. Only the latest state of each is included. Without since, gets only the current token. Fetch it before starting a full download and sync from it once the download is done, so that writes made during the download are delivered; a change already included in the download is delivered again, which is harmless since applying a change twice leaves the same state. Use the token of each response as since in the next request; more is true while there are further changes.";
+  static final String CHANGE_SINCE_PARAM = "The token of the previous response of the changes feed.";
+  static final String SEARCH_SUMMARY = "Searches film locations, productions and comments.";
+  static final String SEARCH_DESC = "Finds the film locations, productions and comments whose text holds every word of q, ignoring case and accents, best match first. The last word also matches the start of longer words, for searching as the user types. Site names and titles count for more than addresses, and addresses for more than descriptions, plots and comments. Each result carries the ID of its film location, if it has one, to get with the batch endpoints.";
+  static final String SEARCH_QUERY_PARAM = "The words to search for.";
+  static final String SEARCH_KIND_PARAM = "Only results of this kind: FILM_LOCATION, PRODUCTION or USER_COMMENT. All kinds if absent.";
+  static final String SUGGEST_SUMMARY = "Suggests production titles and site names.";
+  static final String SUGGEST_DESC = "Returns the production titles and film location site names starting with prefix, ignoring case, accents and punctuation, those with the most film locations first. Site names shared by several locations are suggested once, with the number of locations. Answered from memory, for calling on every keystroke.";
+  static final String SUGGEST_PREFIX_PARAM = "The text typed so far.";
+  static final String SUGGEST_SIZE_PARAM = "The number of suggestions wanted, capped by the server.";
+  static final String MODERATION_QUEUE_SUMMARY = "Gets the submissions waiting for approval.";
+  static final String MODERATION_QUEUE_DESC = "Restricted to superuser privileges or above. Gets the film locations, images and comments not yet approved, oldest first, a page at a time. Each item gives its kind and carries the location, image or comment.";
+  static final String MODERATION_APPROVE_SUMMARY = "Approves a batch of submissions.";
+  static final String MODERATION_APPROVE_DESC = "Restricted to superuser privileges or above. Approves the pending film locations, images and comments with the given internal IDs, together. Returns the IDs that were pending and are now approved; IDs of approved or missing items are left out.";
+  static final String MODERATION_REJECT_SUMMARY = "Rejects a batch of submissions.";
+  static final String MODERATION_REJECT_DESC = "Restricted to superuser privileges or above. Deletes the pending film locations, images and comments with the given internal IDs, together, with all comments and images on the rejected locations. Returns the IDs that were pending and are now deleted; IDs of approved or missing items are left out.";
+  static final String MODERATION_BATCH_PARAM = "The internal IDs of the film locations, images and comments, up to a limit set by the server.";
+  static final String PAGE_CURSOR_PARAM = "The cursor of the page to get, from the Link header of the previous page. The first page if absent.";
+  static final String PAGE_SIZE_PARAM = "The number of items in a page, capped by the server.";
+  static final String BATCH_IDS_PARAM = "The internal IDs to get, separated by commas, up to a limit set by the server.";
+  static final String STREAM_PARAM = "Streams every item in one response instead of a page, for exports. Ignores cursor and size.";
+
+  static final String DEFAULT_RADIUS_METERS = "1000";
 
   static final String RESPONSE_SUCCESSFUL = "Operation successful.";
+  static final String RESPONSE_206 = "Partial content. The requested byte range of the poster.";
+  static final String RESPONSE_304 = "Not modified. The cached copy held by the client is current.";
   static final String RESPONSE_400 = "Failure to parse request. Double check any IDs.";
+  static final String RESPONSE_400_COORDINATES = "Failure to parse coordinates. Check the number and order of the values.";
+  static final String RESPONSE_400_CURSOR = "Failure to parse the page cursor or size. Use the Link header of the previous page.";
+  static final String RESPONSE_400_TOKEN = "Failure to parse the sync token. Use the token of a previous response.";
+  static final String RESPONSE_400_QUERY = "Failure to parse the query, which must hold at least one letter or digit.";
+  static final String RESPONSE_400_PREFIX = "Failure to parse the prefix, which must hold at least one letter or digit, or a size below one.";
+  static final String RESPONSE_400_IDS = "Failure to parse the IDs, or too many IDs in one request.";
   static final String RESPONSE_401 = "Failure to authorize. Advised to check authorization token header.";
   static final String RESPONSE_403_USER = "Forbidden to access. The user attempting to access this endpoint may be banned from the service.";
   static final String RESPONSE_403_SUPER = "Forbidden to access. This endpoint requires superuser privileges or higher.";
   static final String RESPONSE_403_ADMIN = "Forbidden to access. This endpoint is restricted to the administrator only.";
   static final String RESPONSE_404 = "Unrecognized request. Double check URL.";
   static final String RESPONSE_404_POSTER = "Not found. Possible problem in reaching the OMDb API, or no poster for the production may be available.";
+  static final String RESPONSE_409 = "Conflict. The entity has been changed since the version the patch was made from; read it again and reapply the change.";
+  static final String RESPONSE_416 = "Range not satisfiable. The requested byte range is outside the poster.";
   static final String RESPONSE_500 = "Internal server error. This is frequently caused by a runtime error or an unexpected exception.";
+  static final String RESPONSE_503_NOT_READY = "Not ready, the initial data import has not finished.";
 
 }
\ No newline at end of file
@@ -2,23 +2,42 @@ package edu.cnm.deepdive.abq_film_tour_backend.controller;
 
 import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ProductionSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.service.BulkDeleteService;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ClusterIndex;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ClusterIndex.Cluster;
+import edu.cnm.deepdive.abq_film_tour_backend.service.EntityCache;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SpatialIndex;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import javax.servlet.http.HttpServletResponse;
-import javax.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.ExposesResourceFor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -31,8 +50,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * The controller for the FilmLocation entity, which also includes functionality for userComments
@@ -48,6 +69,15 @@ public class FilmLocationController {
   private UserRepository userRepository;
   private ImageRepository imageRepository;
   private ProductionRepository productionRepository;
+  private SpatialIndex spatialIndex;
+  private ClusterIndex clusterIndex;
+  private Paginator paginator;
+  private JsonStreamer jsonStreamer;
+  private BatchFinder batchFinder;
+  private ConditionalGet conditionalGet;
+  private EntityCache entityCache;
+  private BulkDeleteService bulkDeleteService;
+  private MergePatcher mergePatcher;
 
   /**
    * Instantiates a new Film location controller.
@@ -57,34 +87,253 @@ public class FilmLocationController {
    * @param userRepository the user repository
    * @param imageRepository the image repository
    * @param productionRepository the production repository
+   * @param spatialIndex the spatial index of film location coordinates
+   * @param clusterIndex the map clusters of film locations
+   * @param paginator the keyset paginator for list endpoints
+   * @param jsonStreamer the streamer for whole tables
+   * @param batchFinder the lookup for batch endpoints
+   * @param conditionalGet the check answering conditional GETs
+   * @param entityCache the cache of productions and film locations by ID
+   * @param bulkDeleteService the set-based delete of film locations and what is on them
+   * @param mergePatcher the partial update of film locations, images and comments
    */
   @Autowired
   public FilmLocationController(FilmLocationRepository filmLocationRepository,
       UserCommentRepository userCommentRepository,
       UserRepository userRepository,
       ImageRepository imageRepository,
-      ProductionRepository productionRepository) {
+      ProductionRepository productionRepository,
+      SpatialIndex spatialIndex,
+      ClusterIndex clusterIndex,
+      Paginator paginator,
+      JsonStreamer jsonStreamer,
+      BatchFinder batchFinder,
+      ConditionalGet conditionalGet,
+      EntityCache entityCache,
+      BulkDeleteService bulkDeleteService,
+      MergePatcher mergePatcher) {
     this.filmLocationRepository = filmLocationRepository;
     this.userCommentRepository = userCommentRepository;
     this.userRepository = userRepository;
     this.imageRepository = imageRepository;
     this.productionRepository = productionRepository;
+    this.spatialIndex = spatialIndex;
+    this.clusterIndex = clusterIndex;
+    this.paginator = paginator;
+    this.jsonStreamer = jsonStreamer;
+    this.batchFinder = batchFinder;
+    this.conditionalGet = conditionalGet;
+    this.entityCache = entityCache;
+    this.bulkDeleteService = bulkDeleteService;
+    this.mergePatcher = mergePatcher;
   }
 
   /**
-   * Gets all the FilmLocations in the database.
+   * Gets all the FilmLocations in the database, or only those inside a bounding box or within a
+   * distance of a point, such as the visible area of a map or the user's position.
    *
-   * @return a list of Film Locations ordered by their time of creation.
+   * @param bbox the box as west,south,east,north in degrees.
+   * @param near the point as lat,lng in degrees.
+   * @param radius the distance from the point in meters.
+   * @param limit the most locations to return from a box or point query.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of locations in a page.
+   * @param stream whether to stream every row instead of a page.
+   * @param response the response a stream is written to.
+   * @return a page of Film Locations ordered by their time of creation, or the locations ordered by
+   * distance from the center of the box or the point.
+   * @throws IOException if a stream cannot be written.
    */
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = FILM_LOCATION_LIST_SUMMARY, notes = FILM_LOCATION_LIST_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_COORDINATES),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
-  public List<FilmLocation> list() {
-    return filmLocationRepository.findAllByOrderByCreatedDesc();
+  public ResponseEntity<List<FilmLocation>> list(
+      @ApiParam(FILM_LOCATION_BBOX_PARAM)
+      @RequestParam(value = "bbox", required = false) String bbox,
+      @ApiParam(FILM_LOCATION_NEAR_PARAM)
+      @RequestParam(value = "near", required = false) String near,
+      @ApiParam(FILM_LOCATION_RADIUS_PARAM)
+      @RequestParam(value = "radius", defaultValue = DEFAULT_RADIUS_METERS) double radius,
+      @ApiParam(FILM_LOCATION_LIMIT_PARAM)
+      @RequestParam(value = "limit", required = false) Integer limit,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size,
+      @ApiParam(STREAM_PARAM)
+      @RequestParam(value = "stream", defaultValue = "false") boolean stream,
+      HttpServletResponse response) throws IOException {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    int max = limit != null ? limit : spatialIndex.getMaxResults();
+    if (bbox != null) {
+      double[] box = parseCoordinates(bbox, 4);
+      if (box[0] > box[2] || box[1] > box[3]) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_COORDINATES);
+      }
+      return ResponseEntity.ok(
+          spatialIndex.load(spatialIndex.withinBox(box[1], box[0], box[3], box[2], max)));
+    } else if (near != null) {
+      double[] point = parseCoordinates(near, 2);
+      if (radius <= 0) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_COORDINATES);
+      }
+      return ResponseEntity.ok(
+          spatialIndex.load(spatialIndex.near(point[0], point[1], radius, max)));
+    }
+    if (stream) {
+      jsonStreamer.stream(filmLocationRepository::streamAll, response);
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    List<FilmLocation> locations;
+    if (cursor == null) {
+      locations = filmLocationRepository.findAllByOrderByCreatedDescIdDesc(page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      locations =
+          filmLocationRepository.findPageBefore(before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(locations, page,
+        (location) -> Paginator.cursor(location.getCreated(), location.getId()));
+  }
+
+  /**
+   * Gets a page of FilmLocations in a compact form, where each location references its production
+   * by ID and every production on the page is included once. Both are read with projection queries
+   * instead of loading entities.
+   *
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of locations in a page.
+   * @return a page of compact film locations ordered by their time of creation, with their
+   * productions.
+   */
+  @GetMapping(value = "compact", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = FILM_LOCATION_COMPACT_SUMMARY, notes = FILM_LOCATION_COMPACT_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public ResponseEntity<CompactFilmLocationPage> listCompact(
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    List<CompactFilmLocation> locations;
+    if (cursor == null) {
+      locations = filmLocationRepository.findCompactPage(page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      locations =
+          filmLocationRepository.findCompactPageBefore(before.getCreated(), before.getId(), page);
+    }
+    Set<UUID> productionIds = new HashSet<>();
+    for (CompactFilmLocation location : locations) {
+      if (location.getProductionId() != null) {
+        productionIds.add(location.getProductionId());
+      }
+    }
+    Map<UUID, ProductionSummary> productions = new LinkedHashMap<>();
+    if (!productionIds.isEmpty()) {
+      for (ProductionSummary production :
+          productionRepository.findAllSummariesByIdIn(productionIds)) {
+        productions.put(production.getId(), production);
+      }
+    }
+    return paginator.respond(new CompactFilmLocationPage(locations, productions), locations, page,
+        (location) -> Paginator.cursor(location.getCreated(), location.getId()));
+  }
+
+  /**
+   * Gets a batch of film locations, with their productions, by ID with one query.
+   *
+   * @param ids the film location ids
+   * @return the film locations, with their productions, found, in the order of the ids, and the ids not found
+   */
+  @GetMapping(value = "batch", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = FILM_LOCATION_BATCH_SUMMARY, notes = FILM_LOCATION_BATCH_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_IDS),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public Batch<FilmLocation> getBatch(
+      @ApiParam(BATCH_IDS_PARAM)
+      @RequestParam("ids") List<UUID> ids) {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    return batchFinder.find(ids, filmLocationRepository::findAllWithProductionByIdIn, FilmLocation::getId);
+  }
+
+  /**
+   * Gets the map clusters of FilmLocations in view at a zoom level, so a zoomed out map can show
+   * counts instead of every marker.
+   *
+   * @param zoom the map zoom level.
+   * @param bbox the viewport as west,south,east,north in degrees, or the whole map if absent.
+   * @return the clusters in view, with their centroids, counts and cell bounds.
+   */
+  @GetMapping(value = "clusters", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = FILM_LOCATION_CLUSTERS_SUMMARY, notes = FILM_LOCATION_CLUSTERS_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_COORDINATES),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public List<Cluster> listClusters(
+      @ApiParam(FILM_LOCATION_ZOOM_PARAM) @RequestParam("zoom") int zoom,
+      @ApiParam(FILM_LOCATION_VIEWPORT_PARAM)
+      @RequestParam(value = "bbox", required = false) String bbox) {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION)) {
+      return null;
+    }
+    double[] box = bbox != null ? parseCoordinates(bbox, 4) : new double[]{-180, -90, 180, 90};
+    if (zoom < 0 || box[0] > box[2] || box[1] > box[3]) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_COORDINATES);
+    }
+    return clusterIndex.clusters(zoom, box[1], box[0], box[3], box[2]);
+  }
+
+  private static <T> T found(T entity) {
+    if (entity == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404);
+    }
+    return entity;
+  }
+
+  static double[] parseCoordinates(String value, int count) {
+    String[] parts = value.split(",");
+    if (parts.length != count) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_COORDINATES);
+    }
+    double[] coordinates = new double[count];
+    try {
+      for (int i = 0; i < count; i++) {
+        coordinates[i] = Double.parseDouble(parts[i].trim());
+      }
+    } catch (NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_COORDINATES);
+    }
+    return coordinates;
   }
 
   /**
@@ -97,11 +346,57 @@ public class FilmLocationController {
   @ApiOperation(value = FILM_LOCATION_GET_SUMMARY, notes = FILM_LOCATION_GET_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public FilmLocation get(@PathVariable("filmLocationId") UUID filmLocationId) {
-    return filmLocationRepository.findById(filmLocationId).get();
+    if (conditionalGet.itemNotModified(filmLocationId, Kind.PRODUCTION)) {
+      return null;
+    }
+    return found(entityCache.filmLocation(filmLocationId));
+  }
+
+  /**
+   * Gets a FilmLocation with everything needed to open it in one response, read with a fixed
+   * number of queries: the location with its production, the first page of images and of
+   * comments, and the count of each.
+   *
+   * @param filmLocationId the film location id
+   * @param size the number of images and of comments in the first pages.
+   * @return the film location detail
+   */
+  @GetMapping(value = "{filmLocationId}/detail", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = FILM_LOCATION_DETAIL_SUMMARY, notes = FILM_LOCATION_DETAIL_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
+  })
+  public FilmLocationDetail getDetail(@PathVariable("filmLocationId") UUID filmLocationId,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.itemNotModified(filmLocationId,
+        Kind.PRODUCTION, Kind.IMAGE, Kind.USER_COMMENT)) {
+      return null;
+    }
+    FilmLocation filmLocation = found(entityCache.filmLocation(filmLocationId));
+    Pageable page = paginator.limit(size);
+    List<ImageSummary> images = imageRepository.findSummaryPageByFilmLocation(filmLocationId, page);
+    long imageCount = imageRepository.countByFilmLocationId(filmLocationId);
+    List<UserCommentSummary> userComments =
+        userCommentRepository.findSummaryPageByFilmLocation(filmLocationId, page);
+    long userCommentCount = userCommentRepository.countByFilmLocationId(filmLocationId);
+    return new FilmLocationDetail(filmLocation, images, imageCount,
+        Paginator.next(images, imageCount,
+            (image) -> Paginator.cursor(image.getCreated(), image.getId())),
+        userComments, userCommentCount,
+        Paginator.next(userComments, userCommentCount,
+            (comment) -> Paginator.cursor(comment.getCreated(), comment.getId())));
   }
 
   /**
@@ -118,12 +413,13 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public ResponseEntity<FilmLocation> post(@RequestBody FilmLocation filmLocation) {
     if (filmLocation.getProductionId() != null) {
       filmLocation.setProduction(
-          productionRepository.findById(UUID.fromString(filmLocation.getProductionId())).get());
+          found(entityCache.production(UUID.fromString(filmLocation.getProductionId()))));
     }
     GoogleUser user = userRepository.findByGoogleId(filmLocation.getGoogleId());
     filmLocation.setGoogleId(user.getGoogleId());
@@ -139,34 +435,29 @@ public class FilmLocationController {
    * @param filmLocationId the film location id
    */
   @Secured("ROLE_SUPER")
-  @Transactional
   @DeleteMapping(value = "{filmLocationId}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   @ApiOperation(value = FILM_LOCATION_DELETE_SUMMARY, notes = FILM_LOCATION_DELETE_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_NO_CONTENT, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public void delete(@PathVariable("filmLocationId") UUID filmLocationId){
-    FilmLocation filmLocation = filmLocationRepository.findById(filmLocationId).get();
-    List<UserComment> userComments = userCommentRepository.
-        findAllByFilmLocationOrderByCreatedDesc(filmLocation);
-    List<Image> images = imageRepository.findAllByFilmLocationOrderByCreatedDesc(filmLocation);
-    for (UserComment comment : userComments) {
-      userCommentRepository.delete(comment);
+    if (bulkDeleteService.deleteFilmLocations(Collections.singleton(filmLocationId))
+        .getFilmLocations() == 0) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404);
     }
-    for (Image image : images) {
-      imageRepository.delete(image);
-    }
-    filmLocationRepository.delete(filmLocation);
   }
 
   /**
-   * Patches a FilmLocation. All data will be overwritten - current fields to stay the same must be
-   * included as well. Can be used to approve a user submitted location.
+   * Patches a FilmLocation with a JSON merge patch, changing only the fields it includes. A
+   * different production is referenced by its productionId. Can be used to approve a user
+   * submitted location.
    *
-   * @param filmLocation the updated film location
+   * @param patch the merge patch, including the ID of the location
+   * @return the patched film location
    */
   @Secured("ROLE_SUPER")
   @PatchMapping
@@ -174,30 +465,57 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404),
+      @ApiResponse(code = HttpServletResponse.SC_CONFLICT, message = RESPONSE_409)
   })
-  public void patch(@RequestBody FilmLocation filmLocation) {
-    // This will overwrite everything,
-    // if just changing one field all other current fields must be included
-    filmLocationRepository.save(filmLocation);
+  public FilmLocation patch(@RequestBody JsonNode patch) {
+    return mergePatcher.patch(patch, filmLocationRepository::findById, FilmLocation::getVersion,
+        (filmLocation) -> {
+          if (filmLocation.getProductionId() != null) {
+            filmLocation.setProduction(
+                found(entityCache.production(UUID.fromString(filmLocation.getProductionId()))));
+          }
+        }, "production");
   }
 
   /**
-   * Gets all images on a FilmLocation.
+   * Gets the images on a FilmLocation, a page at a time.
    *
    * @param filmLocationId the film location id
-   * @return the images
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of images in a page.
+   * @return a page of images ordered by their time of creation
    */
   @GetMapping(value = "{filmLocationId}/images", produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = IMAGE_LIST_SUMMARY, notes = IMAGE_LIST_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
-  public List<Image> getImages(@PathVariable UUID filmLocationId) {
-    return imageRepository.findAllByFilmLocationOrderByCreatedDesc
-        (filmLocationRepository.findById(filmLocationId).get());
+  public ResponseEntity<List<ImageSummary>> getImages(@PathVariable UUID filmLocationId,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.IMAGE, Kind.FILM_LOCATION)) {
+      return null;
+    }
+    found(entityCache.filmLocation(filmLocationId));
+    Pageable page = paginator.limit(size);
+    List<ImageSummary> images;
+    if (cursor == null) {
+      images = imageRepository.findSummaryPageByFilmLocation(filmLocationId, page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      images = imageRepository.findSummaryPageByFilmLocationBefore(filmLocationId,
+          before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(images, page,
+        (image) -> Paginator.cursor(image.getCreated(), image.getId()));
   }
 
   /**
@@ -211,10 +529,14 @@ public class FilmLocationController {
   @ApiOperation(value = IMAGE_GET_SUMMARY, notes = IMAGE_GET_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
   public Image getImage(@PathVariable UUID filmLocationId, @PathVariable UUID imageId){
+    if (conditionalGet.itemNotModified(imageId, Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
     return imageRepository.findById(imageId).get();
   }
 
@@ -231,11 +553,12 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public ResponseEntity<Image> post(@RequestBody Image image,
       @PathVariable UUID filmLocationId) {
-    FilmLocation filmLocation = filmLocationRepository.findById(filmLocationId).get();
+    FilmLocation filmLocation = found(entityCache.filmLocation(filmLocationId));
     GoogleUser user = userRepository.findByGoogleId(image.getGoogleId());
     image.setGoogleId(user.getGoogleId());
     image.setUserName(user.getGoogleName());
@@ -265,10 +588,12 @@ public class FilmLocationController {
   }
 
   /**
-   * Patches an image. All data to stay the same must be included.
+   * Patches an image on a FilmLocation with a JSON merge patch, changing only the fields it
+   * includes.
    *
    * @param filmLocationId the film location id
-   * @param image the updated image
+   * @param patch the merge patch, including the ID of the image
+   * @return the patched image
    */
   @Secured("ROLE_SUPER")
   @PatchMapping(value = "{filmLocationId}/images/")
@@ -276,30 +601,53 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404),
+      @ApiResponse(code = HttpServletResponse.SC_CONFLICT, message = RESPONSE_409)
   })
-  public void patch(@PathVariable UUID filmLocationId, @RequestBody Image image) {
-    // This will overwrite everything,
-    // if just changing one field all other current fields must be included
-    imageRepository.save(image);
+  public Image patchImage(@PathVariable UUID filmLocationId, @RequestBody JsonNode patch) {
+    return mergePatcher.patch(patch, (id) -> imageRepository.findById(id)
+            .filter((image) -> image.getFilmLocation().getId().equals(filmLocationId)),
+        Image::getVersion, (image) -> {}, "filmLocation");
   }
 
   /**
-   * Gets all user comments on a FilmLocation.
+   * Gets the user comments on a FilmLocation, a page at a time.
    *
    * @param filmLocationId the film location id
-   * @return the user comments
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of comments in a page.
+   * @return a page of user comments ordered by their time of creation
    */
   @GetMapping(value = "{filmLocationId}/user_comments", produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = USER_COMMENT_LIST_SUMMARY, notes = USER_COMMENT_LIST_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
-  public List<UserComment> getUserComments(@PathVariable UUID filmLocationId) {
-    return userCommentRepository.findAllByFilmLocationOrderByCreatedDesc
-        (filmLocationRepository.findById(filmLocationId).get());
+  public ResponseEntity<List<UserCommentSummary>> getUserComments(@PathVariable UUID filmLocationId,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.USER_COMMENT, Kind.FILM_LOCATION)) {
+      return null;
+    }
+    found(entityCache.filmLocation(filmLocationId));
+    Pageable page = paginator.limit(size);
+    List<UserCommentSummary> comments;
+    if (cursor == null) {
+      comments = userCommentRepository.findSummaryPageByFilmLocation(filmLocationId, page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      comments = userCommentRepository.findSummaryPageByFilmLocationBefore(filmLocationId,
+          before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(comments, page,
+        (comment) -> Paginator.cursor(comment.getCreated(), comment.getId()));
   }
 
   /**
@@ -313,10 +661,14 @@ public class FilmLocationController {
   @ApiOperation(value = USER_COMMENT_GET_SUMMARY, notes = USER_COMMENT_GET_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
   public UserComment getUserComment(@PathVariable UUID filmLocationId, @PathVariable UUID userCommentId){
+    if (conditionalGet.itemNotModified(userCommentId, Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
     return userCommentRepository.findById(userCommentId).get();
   }
 
@@ -333,11 +685,12 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public ResponseEntity<UserComment> post(@RequestBody UserComment userComment,
       @PathVariable UUID filmLocationId) {
-    FilmLocation filmLocation = filmLocationRepository.findById(filmLocationId).get();
+    FilmLocation filmLocation = found(entityCache.filmLocation(filmLocationId));
     GoogleUser user = userRepository.findByGoogleId(userComment.getGoogleId());
     userComment.setGoogleId(user.getGoogleId());
     userComment.setFilmLocation(filmLocation);
@@ -367,10 +720,12 @@ public class FilmLocationController {
   }
 
   /**
-   * Patches a user comment. All data to stay the same must be included.
+   * Patches a user comment on a FilmLocation with a JSON merge patch, changing only the fields it
+   * includes.
    *
    * @param filmLocationId the film location id
-   * @param userComment the updated user comment
+   * @param patch the merge patch, including the ID of the user comment
+   * @return the patched user comment
    */
   @Secured("ROLE_SUPER")
   @PatchMapping(value = "{filmLocationId}/user_comments")
@@ -378,12 +733,15 @@ public class FilmLocationController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404),
+      @ApiResponse(code = HttpServletResponse.SC_CONFLICT, message = RESPONSE_409)
   })
-  public void patch(@PathVariable UUID filmLocationId, @RequestBody UserComment userComment) {
-    // This will overwrite everything,
-    // if just changing one field all other current fields must be included
-    userCommentRepository.save(userComment);
+  public UserComment patchUserComment(@PathVariable UUID filmLocationId,
+      @RequestBody JsonNode patch) {
+    return mergePatcher.patch(patch, (id) -> userCommentRepository.findById(id)
+            .filter((comment) -> comment.getFilmLocation().getId().equals(filmLocationId)),
+        UserComment::getVersion, (comment) -> {}, "filmLocation");
   }
 
 }
\ No newline at end of file
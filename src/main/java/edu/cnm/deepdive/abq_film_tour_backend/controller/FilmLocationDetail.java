@@ -0,0 +1,98 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import java.util.List;
+
+/**
+ * Everything needed to open a film location: the location with its production, the first page of
+ * its images and of its comments, and how many of each there are in all. The cursors continue the
+ * lists through the images and comments endpoints of the location.
+ */
+public class FilmLocationDetail {
+
+  private final FilmLocation filmLocation;
+  private final List<ImageSummary> images;
+  private final long imageCount;
+  private final String imagesCursor;
+  private final List<UserCommentSummary> userComments;
+  private final long userCommentCount;
+  private final String userCommentsCursor;
+
+  FilmLocationDetail(FilmLocation filmLocation, List<ImageSummary> images, long imageCount,
+      String imagesCursor, List<UserCommentSummary> userComments, long userCommentCount,
+      String userCommentsCursor) {
+    this.filmLocation = filmLocation;
+    this.images = images;
+    this.imageCount = imageCount;
+    this.imagesCursor = imagesCursor;
+    this.userComments = userComments;
+    this.userCommentCount = userCommentCount;
+    this.userCommentsCursor = userCommentsCursor;
+  }
+
+  /**
+   * Gets the film location, with its production.
+   *
+   * @return the film location.
+   */
+  public FilmLocation getFilmLocation() {
+    return filmLocation;
+  }
+
+  /**
+   * Gets the newest images of the location.
+   *
+   * @return the first page of images.
+   */
+  public List<ImageSummary> getImages() {
+    return images;
+  }
+
+  /**
+   * Gets the number of images of the location.
+   *
+   * @return the total number of images.
+   */
+  public long getImageCount() {
+    return imageCount;
+  }
+
+  /**
+   * Gets the cursor of the next page of images.
+   *
+   * @return the cursor, or null if every image is on the first page.
+   */
+  public String getImagesCursor() {
+    return imagesCursor;
+  }
+
+  /**
+   * Gets the newest comments on the location.
+   *
+   * @return the first page of comments.
+   */
+  public List<UserCommentSummary> getUserComments() {
+    return userComments;
+  }
+
+  /**
+   * Gets the number of comments on the location.
+   *
+   * @return the total number of comments.
+   */
+  public long getUserCommentCount() {
+    return userCommentCount;
+  }
+
+  /**
+   * Gets the cursor of the next page of comments.
+   *
+   * @return the cursor, or null if every comment is on the first page.
+   */
+  public String getUserCommentsCursor() {
+    return userCommentsCursor;
+  }
+
+}
@@ -0,0 +1,94 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes a whole table to a response as a JSON array, one element per row as rows arrive from a
+ * forward-only database cursor. Rows may be entities or projections. Each entity is detached once
+ * it is written, and the persistence context is cleared every few rows, so memory use does not grow
+ * with the size of the table.
+ */
+@Component
+public class JsonStreamer {
+
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int flushSize;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Instantiates a new JSON streamer.
+   *
+   * @param objectMapper the mapper used to serialize each row.
+   * @param transactionManager the transaction manager that keeps the cursor open.
+   * @param flushSize the number of rows written between flushes of the response.
+   */
+  @Autowired
+  public JsonStreamer(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+      @Value("${streaming.flushSize}") int flushSize) {
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.flushSize = flushSize;
+  }
+
+  /**
+   * Streams the rows of a query to a response.
+   *
+   * @param query the repository query returning a stream of entities.
+   * @param response the response to write to.
+   * @param <T> the entity type.
+   * @throws IOException if the response cannot be written.
+   */
+  public <T> void stream(Supplier<Stream<T>> query, HttpServletResponse response)
+      throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+    JsonGenerator generator = objectMapper.getFactory()
+        .createGenerator(response.getOutputStream());
+    try {
+      transactionTemplate.execute((status) -> {
+        try (Stream<T> rows = query.get()) {
+          generator.writeStartArray();
+          int count = 0;
+          for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+            T row = iterator.next();
+            generator.writeObject(row);
+            if (row.getClass().isAnnotationPresent(Entity.class)) {
+              entityManager.detach(row);
+            }
+            if (++count % flushSize == 0) {
+              entityManager.clear();
+              generator.flush();
+            }
+          }
+          generator.writeEndArray();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return null;
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    generator.flush();
+  }
+
+}
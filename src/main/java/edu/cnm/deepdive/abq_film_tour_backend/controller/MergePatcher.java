@@ -0,0 +1,102 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Applies a JSON merge patch (RFC 7396) to a stored entity for the patch endpoints. The entity
+ * named by the {@code id} of the patch is loaded, only the fields present in the patch are copied
+ * onto it, and it is written back in the same transaction. The entities are mapped with dynamic
+ * updates, so the {@code UPDATE} sets only the columns that changed, or is skipped if none did.
+ * A patch carrying the {@code version} it was made from is refused with a 409 if the entity has
+ * been written since, as is one whose entity is written by someone else before it commits.
+ */
+@Component
+public class MergePatcher {
+
+  private static final String ID = "id";
+  private static final String VERSION = "version";
+  private static final String[] READ_ONLY = {ID, VERSION, "created", "updated", "href"};
+
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Instantiates a new merge patcher.
+   *
+   * @param objectMapper the mapper used to copy the fields of a patch onto an entity.
+   * @param transactionManager the transaction manager each patch is applied in.
+   */
+  @Autowired
+  public MergePatcher(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Applies a patch to the entity it names.
+   *
+   * @param patch the merge patch, a JSON object holding the ID of the entity.
+   * @param finder the repository lookup of the entity by ID.
+   * @param versionOf the version of an entity.
+   * @param applied called with the patched entity before it is written, to resolve references.
+   * @param ignored fields of the patch that are not copied, besides the read-only ones.
+   * @param <T> the entity type.
+   * @return the patched entity.
+   */
+  public <T> T patch(JsonNode patch, Function<UUID, Optional<T>> finder,
+      ToLongFunction<T> versionOf, Consumer<T> applied, String... ignored) {
+    UUID id = id(patch);
+    try {
+      return transactionTemplate.execute((status) -> {
+        T entity = finder.apply(id).orElseThrow(() ->
+            new ResponseStatusException(HttpStatus.NOT_FOUND, Constants.RESPONSE_404));
+        JsonNode version = patch.get(VERSION);
+        if (version != null && !version.isNull()
+            && version.asLong() != versionOf.applyAsLong(entity)) {
+          throw new ResponseStatusException(HttpStatus.CONFLICT, Constants.RESPONSE_409);
+        }
+        ObjectNode fields = ((ObjectNode) patch).deepCopy();
+        fields.remove(Arrays.asList(READ_ONLY));
+        fields.remove(Arrays.asList(ignored));
+        try {
+          objectMapper.readerForUpdating(entity).readValue(fields);
+        } catch (IOException e) {
+          throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400, e);
+        }
+        applied.accept(entity);
+        return entity;
+      });
+    } catch (OptimisticLockingFailureException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, Constants.RESPONSE_409, e);
+    }
+  }
+
+  private static UUID id(JsonNode patch) {
+    JsonNode id = (patch != null && patch.isObject()) ? patch.get(ID) : null;
+    if (id == null || !id.isTextual()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400);
+    }
+    try {
+      return UUID.fromString(id.asText());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400, e);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.service.MetricsSource;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller reporting runtime statistics such as cache hit ratios. Only the admin has access.
+ */
+@RestController
+@RequestMapping("/metrics")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class MetricsController {
+
+  private List<MetricsSource> metricsSources;
+
+  /**
+   * Instantiates a new Metrics controller.
+   *
+   * @param metricsSources every component reporting statistics.
+   */
+  @Autowired
+  public MetricsController(List<MetricsSource> metricsSources) {
+    this.metricsSources = metricsSources;
+  }
+
+  /**
+   * Gets the current statistics of every metrics source, keyed by source name.
+   *
+   * @return a map of source names to their statistics.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = METRICS_SUMMARY, notes = METRICS_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_ADMIN)
+  })
+  public Map<String, Map<String, Object>> get() {
+    Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+    for (MetricsSource source : metricsSources) {
+      metrics.put(source.getMetricsName(), source.getMetrics());
+    }
+    return metrics;
+  }
+
+}
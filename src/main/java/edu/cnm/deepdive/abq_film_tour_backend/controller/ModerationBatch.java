@@ -0,0 +1,70 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The IDs of the film locations, images and comments to approve or reject together.
+ */
+public class ModerationBatch {
+
+  private List<UUID> filmLocations = new ArrayList<>();
+  private List<UUID> images = new ArrayList<>();
+  private List<UUID> userComments = new ArrayList<>();
+
+  /**
+   * Gets the IDs of the film locations.
+   *
+   * @return the film location IDs.
+   */
+  public List<UUID> getFilmLocations() {
+    return filmLocations;
+  }
+
+  /**
+   * Sets the IDs of the film locations.
+   *
+   * @param filmLocations the film location IDs.
+   */
+  public void setFilmLocations(List<UUID> filmLocations) {
+    this.filmLocations = filmLocations;
+  }
+
+  /**
+   * Gets the IDs of the images.
+   *
+   * @return the image IDs.
+   */
+  public List<UUID> getImages() {
+    return images;
+  }
+
+  /**
+   * Sets the IDs of the images.
+   *
+   * @param images the image IDs.
+   */
+  public void setImages(List<UUID> images) {
+    this.images = images;
+  }
+
+  /**
+   * Gets the IDs of the comments.
+   *
+   * @return the comment IDs.
+   */
+  public List<UUID> getUserComments() {
+    return userComments;
+  }
+
+  /**
+   * Sets the IDs of the comments.
+   *
+   * @param userComments the comment IDs.
+   */
+  public void setUserComments(List<UUID> userComments) {
+    this.userComments = userComments;
+  }
+
+}
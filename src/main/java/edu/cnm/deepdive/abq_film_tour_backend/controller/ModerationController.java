@@ -0,0 +1,194 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ModerationService;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ModerationService.Decided;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller for the moderation queue: the film locations, images and comments waiting for
+ * approval, and bulk approval or rejection of them. Restricted to superusers, like the PATCH
+ * endpoints that otherwise approve one item at a time.
+ */
+@RestController
+@RequestMapping("/moderation")
+@Secured("ROLE_SUPER")
+public class ModerationController {
+
+  private FilmLocationRepository filmLocationRepository;
+  private ImageRepository imageRepository;
+  private UserCommentRepository userCommentRepository;
+  private ModerationService moderationService;
+  private Paginator paginator;
+  private ConditionalGet conditionalGet;
+  private int maxIds;
+
+  /**
+   * Instantiates a new Moderation controller.
+   *
+   * @param filmLocationRepository the film location repository
+   * @param imageRepository the image repository
+   * @param userCommentRepository the user comment repository
+   * @param moderationService the bulk approval and rejection of pending items
+   * @param paginator the keyset paginator for list endpoints
+   * @param conditionalGet the check answering conditional GETs
+   * @param maxIds the most IDs a request may approve or reject
+   */
+  @Autowired
+  public ModerationController(FilmLocationRepository filmLocationRepository,
+      ImageRepository imageRepository, UserCommentRepository userCommentRepository,
+      ModerationService moderationService, Paginator paginator, ConditionalGet conditionalGet,
+      @Value("${moderation.maxIds}") int maxIds) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.imageRepository = imageRepository;
+    this.userCommentRepository = userCommentRepository;
+    this.moderationService = moderationService;
+    this.paginator = paginator;
+    this.conditionalGet = conditionalGet;
+    this.maxIds = maxIds;
+  }
+
+  /**
+   * Gets a page of the film locations, images and comments waiting for approval, oldest first.
+   * Each kind is read from its own pending index, and the pages are merged.
+   *
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of items in a page.
+   * @return a page of pending items ordered by their time of creation.
+   */
+  @GetMapping(value = "queue", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = MODERATION_QUEUE_SUMMARY, notes = MODERATION_QUEUE_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+  })
+  public ResponseEntity<List<PendingItem>> queue(
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.IMAGE, Kind.USER_COMMENT)) {
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    List<CompactFilmLocation> locations;
+    List<ImageSummary> images;
+    List<UserCommentSummary> comments;
+    if (cursor == null) {
+      locations = filmLocationRepository.findPendingCompactPage(page);
+      images = imageRepository.findPendingSummaryPage(page);
+      comments = userCommentRepository.findPendingSummaryPage(page);
+    } else {
+      Cursor after = Paginator.decode(cursor);
+      locations = filmLocationRepository.findPendingCompactPageAfter(after.getCreated(),
+          after.getId(), page);
+      images = imageRepository.findPendingSummaryPageAfter(after.getCreated(), after.getId(),
+          page);
+      comments = userCommentRepository.findPendingSummaryPageAfter(after.getCreated(),
+          after.getId(), page);
+    }
+    List<PendingItem> items = new ArrayList<>();
+    locations.forEach((location) -> items.add(PendingItem.of(location)));
+    images.forEach((image) -> items.add(PendingItem.of(image)));
+    comments.forEach((comment) -> items.add(PendingItem.of(comment)));
+    items.sort(PendingItem.QUEUE_ORDER);
+    List<PendingItem> merged = items.subList(0, Math.min(items.size(), page.getPageSize()));
+    return paginator.respond(merged, page,
+        (item) -> Paginator.cursor(item.getCreated(), item.getId()));
+  }
+
+  /**
+   * Approves pending film locations, images and comments together.
+   *
+   * @param batch the IDs to approve.
+   * @return the IDs that were pending and are now approved.
+   */
+  @PostMapping(value = "approve", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = MODERATION_APPROVE_SUMMARY, notes = MODERATION_APPROVE_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_IDS),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+  })
+  public Decided approve(@ApiParam(MODERATION_BATCH_PARAM) @RequestBody ModerationBatch batch) {
+    checkSize(batch);
+    return moderationService.approve(distinct(batch.getFilmLocations()),
+        distinct(batch.getImages()), distinct(batch.getUserComments()));
+  }
+
+  /**
+   * Rejects pending film locations, images and comments together, deleting them.
+   *
+   * @param batch the IDs to reject.
+   * @return the IDs that were pending and are now deleted.
+   */
+  @PostMapping(value = "reject", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = MODERATION_REJECT_SUMMARY, notes = MODERATION_REJECT_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_IDS),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+  })
+  public Decided reject(@ApiParam(MODERATION_BATCH_PARAM) @RequestBody ModerationBatch batch) {
+    checkSize(batch);
+    return moderationService.reject(distinct(batch.getFilmLocations()),
+        distinct(batch.getImages()), distinct(batch.getUserComments()));
+  }
+
+  private void checkSize(ModerationBatch batch) {
+    int count = distinct(batch.getFilmLocations()).size() + distinct(batch.getImages()).size()
+        + distinct(batch.getUserComments()).size();
+    if (count == 0 || count > maxIds) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_IDS);
+    }
+  }
+
+  private static Set<UUID> distinct(List<UUID> ids) {
+    Set<UUID> distinct = new LinkedHashSet<>();
+    if (ids != null) {
+      distinct.addAll(ids);
+      distinct.remove(null);
+    }
+    return distinct;
+  }
+
+}
@@ -0,0 +1,203 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Keyset pagination for list endpoints. A page is read with a limit and a condition on the sort key
+ * of the last row of the previous page, such as (created, id), so every page costs one index range
+ * scan no matter how deep it is. The sort key is handed to clients as an opaque cursor, in the
+ * {@code Link} header of every page that may have a next page.
+ */
+@Component
+public class Paginator {
+
+  private static final char SEPARATOR = ':';
+
+  private final int defaultSize;
+  private final int maxSize;
+
+  /**
+   * Instantiates a new paginator.
+   *
+   * @param defaultSize the page size when a request does not give one.
+   * @param maxSize the largest page size a request may ask for.
+   */
+  public Paginator(@Value("${pagination.defaultSize}") int defaultSize,
+      @Value("${pagination.maxSize}") int maxSize) {
+    this.defaultSize = defaultSize;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Limits a page to the requested size, the default size, or the maximum size.
+   *
+   * @param size the requested page size, or null for the default.
+   * @return the page request for the first rows matching the cursor condition.
+   */
+  public Pageable limit(Integer size) {
+    int pageSize = size == null ? defaultSize : size;
+    if (pageSize < 1) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400_CURSOR);
+    }
+    return PageRequest.of(0, Math.min(pageSize, maxSize));
+  }
+
+  /**
+   * Wraps a page in a response with a {@code Link} header to the next page, if the page is full.
+   *
+   * @param page the rows of the page.
+   * @param limit the page request the rows were read with.
+   * @param cursorOf the cursor of a row, from its sort key.
+   * @param <T> the row type.
+   * @return the response.
+   */
+  public <T> ResponseEntity<List<T>> respond(List<T> page, Pageable limit,
+      Function<T, String> cursorOf) {
+    return respond(page, page, limit, cursorOf);
+  }
+
+  /**
+   * Wraps a body built from a page in a response with a {@code Link} header to the next page, if
+   * the page is full.
+   *
+   * @param body the response body.
+   * @param page the rows of the page the body was built from.
+   * @param limit the page request the rows were read with.
+   * @param cursorOf the cursor of a row, from its sort key.
+   * @param <B> the body type.
+   * @param <T> the row type.
+   * @return the response.
+   */
+  public <B, T> ResponseEntity<B> respond(B body, List<T> page, Pageable limit,
+      Function<T, String> cursorOf) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (!page.isEmpty() && page.size() >= limit.getPageSize()) {
+      String next = ServletUriComponentsBuilder.fromCurrentRequest()
+          .replaceQueryParam("cursor", cursorOf.apply(page.get(page.size() - 1)))
+          .replaceQueryParam("size", limit.getPageSize())
+          .build()
+          .toUriString();
+      response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+    }
+    return response.body(body);
+  }
+
+  /**
+   * Gets the cursor of the page after a first page embedded in a larger response, whose rows are
+   * counted separately.
+   *
+   * @param page the rows of the first page.
+   * @param total the number of rows in all pages.
+   * @param cursorOf the cursor of a row, from its sort key.
+   * @param <T> the row type.
+   * @return the cursor of the next page, or null if every row is on the first page.
+   */
+  public static <T> String next(List<T> page, long total, Function<T, String> cursorOf) {
+    return (page.isEmpty() || total <= page.size())
+        ? null : cursorOf.apply(page.get(page.size() - 1));
+  }
+
+  /**
+   * Encodes a cursor for rows sorted by time of creation.
+   *
+   * @param created the time of creation of the last row.
+   * @param id the ID of the last row.
+   * @return the cursor.
+   */
+  public static String cursor(Date created, UUID id) {
+    return cursor(Long.toString(created.getTime()), id);
+  }
+
+  /**
+   * Encodes a cursor for rows sorted by a text column.
+   *
+   * @param key the sort column of the last row, which may be null.
+   * @param id the ID of the last row.
+   * @return the cursor.
+   */
+  public static String cursor(String key, UUID id) {
+    String value = key == null ? id.toString() : id.toString() + SEPARATOR + key;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor from a request.
+   *
+   * @param cursor the cursor.
+   * @return the decoded sort key.
+   */
+  public static Cursor decode(String cursor) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = value.indexOf(SEPARATOR);
+      if (separator < 0) {
+        return new Cursor(null, UUID.fromString(value));
+      }
+      return new Cursor(value.substring(separator + 1),
+          UUID.fromString(value.substring(0, separator)));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400_CURSOR);
+    }
+  }
+
+  /**
+   * The sort key of the last row of a page.
+   */
+  public static class Cursor {
+
+    private final String key;
+    private final UUID id;
+
+    private Cursor(String key, UUID id) {
+      this.key = key;
+      this.id = id;
+    }
+
+    /**
+     * Gets the sort column of the last row as text.
+     *
+     * @return the sort key, or null if the row had none.
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Gets the sort column of the last row as a time of creation.
+     *
+     * @return the time of creation.
+     */
+    public Date getCreated() {
+      try {
+        return new Date(Long.parseLong(key));
+      } catch (NumberFormatException e) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Constants.RESPONSE_400_CURSOR);
+      }
+    }
+
+    /**
+     * Gets the ID of the last row.
+     *
+     * @return the row ID.
+     */
+    public UUID getId() {
+      return id;
+    }
+  }
+
+}
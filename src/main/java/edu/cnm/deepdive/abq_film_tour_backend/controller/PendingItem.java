@@ -0,0 +1,114 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A film location, image or comment waiting in the moderation queue. Exactly one of the film
+ * location, image and comment is present, as given by the kind.
+ */
+@JsonInclude(Include.NON_NULL)
+public class PendingItem {
+
+  /**
+   * The order of the queue: oldest first, then by ID in the order the database sorts IDs, which
+   * compares their bytes unsigned.
+   */
+  static final Comparator<PendingItem> QUEUE_ORDER =
+      Comparator.comparing((PendingItem item) -> item.getCreated().getTime())
+          .thenComparing((item) -> item.getId().getMostSignificantBits(), Long::compareUnsigned)
+          .thenComparing((item) -> item.getId().getLeastSignificantBits(), Long::compareUnsigned);
+
+  private final Kind kind;
+  private final UUID id;
+  private final Date created;
+  private final CompactFilmLocation filmLocation;
+  private final ImageSummary image;
+  private final UserCommentSummary userComment;
+
+  private PendingItem(Kind kind, UUID id, Date created, CompactFilmLocation filmLocation,
+      ImageSummary image, UserCommentSummary userComment) {
+    this.kind = kind;
+    this.id = id;
+    this.created = created;
+    this.filmLocation = filmLocation;
+    this.image = image;
+    this.userComment = userComment;
+  }
+
+  static PendingItem of(CompactFilmLocation filmLocation) {
+    return new PendingItem(Kind.FILM_LOCATION, filmLocation.getId(), filmLocation.getCreated(),
+        filmLocation, null, null);
+  }
+
+  static PendingItem of(ImageSummary image) {
+    return new PendingItem(Kind.IMAGE, image.getId(), image.getCreated(), null, image, null);
+  }
+
+  static PendingItem of(UserCommentSummary userComment) {
+    return new PendingItem(Kind.USER_COMMENT, userComment.getId(), userComment.getCreated(),
+        null, null, userComment);
+  }
+
+  /**
+   * Gets the kind of the pending item.
+   *
+   * @return FILM_LOCATION, IMAGE or USER_COMMENT.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the internal ID of the pending item.
+   *
+   * @return the ID.
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Gets the time the item was submitted.
+   *
+   * @return the time of creation.
+   */
+  public Date getCreated() {
+    return created;
+  }
+
+  /**
+   * Gets the pending film location, which references its production by ID.
+   *
+   * @return the compact film location, or null if the item is not a film location.
+   */
+  public CompactFilmLocation getFilmLocation() {
+    return filmLocation;
+  }
+
+  /**
+   * Gets the pending image.
+   *
+   * @return the image summary, or null if the item is not an image.
+   */
+  public ImageSummary getImage() {
+    return image;
+  }
+
+  /**
+   * Gets the pending comment.
+   *
+   * @return the comment summary, or null if the item is not a comment.
+   */
+  public UserCommentSummary getUserComment() {
+    return userComment;
+  }
+
+}
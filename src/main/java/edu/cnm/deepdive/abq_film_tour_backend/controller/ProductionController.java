@@ -2,23 +2,44 @@ package edu.cnm.deepdive.abq_film_tour_backend.controller;
 
 import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.IndexedLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.service.EntityCache;
+import edu.cnm.deepdive.abq_film_tour_backend.service.PosterStore;
+import edu.cnm.deepdive.abq_film_tour_backend.service.PosterStore.Poster;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SpatialIndex;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import okhttp3.ResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.ExposesResourceFor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,9 +51,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Controller for the Production entity.
@@ -42,40 +65,103 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 @RequestMapping("/productions")
 public class ProductionController {
 
-  private static final String OMDB_POSTER_URL_FORMAT = "https://img.omdbapi.com/?i=%s&h=%s&apikey=%s";
-  private static final int OMDB_POSTER_HEIGHT = 600;
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
   private ProductionRepository productionRepository;
-  private String apikey;
+  private FilmLocationRepository filmLocationRepository;
+  private Paginator paginator;
+  private PosterStore posterStore;
+  private BatchFinder batchFinder;
+  private ConditionalGet conditionalGet;
+  private EntityCache entityCache;
+  private SpatialIndex spatialIndex;
+  private MergePatcher mergePatcher;
 
   /**
    * Instantiates a new Production controller.
    *
    * @param productionRepository the production repository
+   * @param filmLocationRepository the film location repository
+   * @param paginator the keyset paginator for list endpoints
+   * @param posterStore the disk cache of production posters
+   * @param batchFinder the lookup for batch endpoints
+   * @param conditionalGet the check answering conditional GETs
+   * @param entityCache the cache of productions and film locations by ID
+   * @param spatialIndex the spatial index loading locations in the order found
+   * @param mergePatcher the partial update of productions
    */
   @Autowired
-  public ProductionController(ProductionRepository productionRepository) {
+  public ProductionController(ProductionRepository productionRepository,
+      FilmLocationRepository filmLocationRepository, Paginator paginator,
+      PosterStore posterStore, BatchFinder batchFinder, ConditionalGet conditionalGet,
+      EntityCache entityCache, SpatialIndex spatialIndex, MergePatcher mergePatcher) {
     this.productionRepository = productionRepository;
-  }
-
-  @Autowired
-  @Qualifier("apiKey")
-  public void setApikey(String apikey) {
-    this.apikey = apikey;
+    this.filmLocationRepository = filmLocationRepository;
+    this.paginator = paginator;
+    this.posterStore = posterStore;
+    this.batchFinder = batchFinder;
+    this.conditionalGet = conditionalGet;
+    this.entityCache = entityCache;
+    this.spatialIndex = spatialIndex;
+    this.mergePatcher = mergePatcher;
   }
 
   /**
-   * Gets a list of productions ordered by their title.
+   * Gets a page of productions ordered by their title. Productions without a title come after all
+   * of the titled productions.
    *
-   * @return a list of productions ordered by their title.
+   * @param type the type of production to list, or null for all types.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of productions in a page.
+   * @return a page of productions ordered by their title.
    */
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = PRODUCTION_LIST_SUMMARY, notes = PRODUCTION_LIST_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
-  public List<Production> list() { return productionRepository.findAllByOrderByTitleAsc();}
+  public ResponseEntity<List<Production>> list(
+      @ApiParam(PRODUCTION_TYPE_PARAM)
+      @RequestParam(value = "type", required = false) String type,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.PRODUCTION)) {
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    Cursor after = (cursor == null) ? null : Paginator.decode(cursor);
+    List<Production> productions;
+    if (after == null) {
+      productions = (type == null)
+          ? productionRepository.findAllByOrderByTitleAscIdAsc(page)
+          : productionRepository.findAllByTypeOrderByTitleAscIdAsc(type, page);
+    } else if (after.getKey() == null) {
+      productions = (type == null)
+          ? productionRepository.findUntitledPageAfter(after.getId(), page)
+          : productionRepository.findUntitledPageByTypeAfter(type, after.getId(), page);
+    } else {
+      productions = new ArrayList<>((type == null)
+          ? productionRepository.findPageAfter(after.getKey(), after.getId(), page)
+          : productionRepository.findPageByTypeAfter(type, after.getKey(), after.getId(), page));
+      if (productions.size() < page.getPageSize()) {
+        Pageable rest = PageRequest.of(0, page.getPageSize() - productions.size());
+        productions.addAll((type == null)
+            ? productionRepository.findAllByTitleIsNullOrderByIdAsc(rest)
+            : productionRepository.findAllByTypeAndTitleIsNullOrderByIdAsc(type, rest));
+      }
+    }
+    return paginator.respond(productions, page,
+        (production) -> Paginator.cursor(production.getTitle(), production.getId()));
+  }
 
   /**
    * Posts a new production. Should include a title, IMDb ID, and 300 character plot summary at least.
@@ -107,11 +193,116 @@ public class ProductionController {
   @ApiOperation(value = PRODUCTION_GET_SUMMARY, notes = PRODUCTION_GET_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
   })
   public Production get(@PathVariable("productionId") UUID productionId){
-    return productionRepository.findById(productionId).get();
+    if (conditionalGet.itemNotModified(productionId)) {
+      return null;
+    }
+    Production production = entityCache.production(productionId);
+    if (production == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404);
+    }
+    return production;
+  }
+
+  /**
+   * Gets a page of the film locations of a production, newest first, or ordered by distance from a
+   * point. The distance order is computed from the coordinates of every location of the
+   * production, which are few enough to sort in memory.
+   *
+   * @param productionId the production id
+   * @param near the point as lat,lng in degrees, or null for newest first.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of locations in a page.
+   * @return a page of the film locations of the production.
+   */
+  @GetMapping(value = "{productionId}/film_locations", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = PRODUCTION_LOCATIONS_SUMMARY, notes = PRODUCTION_LOCATIONS_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_COORDINATES),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
+  })
+  public ResponseEntity<List<FilmLocation>> getFilmLocations(
+      @PathVariable("productionId") UUID productionId,
+      @ApiParam(PRODUCTION_NEAR_PARAM)
+      @RequestParam(value = "near", required = false) String near,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    if (entityCache.production(productionId) == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404);
+    }
+    Pageable page = paginator.limit(size);
+    Cursor after = (cursor == null) ? null : Paginator.decode(cursor);
+    if (near == null) {
+      List<FilmLocation> locations = (after == null)
+          ? filmLocationRepository.findPageByProduction(productionId, page)
+          : filmLocationRepository.findPageByProductionBefore(
+              productionId, after.getCreated(), after.getId(), page);
+      return paginator.respond(locations, page,
+          (location) -> Paginator.cursor(location.getCreated(), location.getId()));
+    }
+    double[] point = FilmLocationController.parseCoordinates(near, 2);
+    double afterDistance = -1;
+    if (after != null) {
+      try {
+        afterDistance = Double.parseDouble(String.valueOf(after.getKey()));
+      } catch (NumberFormatException e) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_CURSOR);
+      }
+    }
+    Map<UUID, Double> distances = new HashMap<>();
+    for (IndexedLocation location :
+        filmLocationRepository.findAllIndexedLocationsByProductionId(productionId)) {
+      double distance = SpatialIndex.distance(point[0], point[1],
+          location.getLatCoordinate(), location.getLongCoordinate());
+      if (after == null || distance > afterDistance
+          || (distance == afterDistance && location.getId().compareTo(after.getId()) > 0)) {
+        distances.put(location.getId(), distance);
+      }
+    }
+    List<UUID> ids = new ArrayList<>(distances.keySet());
+    ids.sort(Comparator.comparing((UUID id) -> distances.get(id)).thenComparing((id) -> id));
+    List<FilmLocation> locations =
+        spatialIndex.load(ids.subList(0, Math.min(ids.size(), page.getPageSize())));
+    return paginator.respond(locations, page, (location) ->
+        Paginator.cursor(Double.toString(distances.get(location.getId())), location.getId()));
+  }
+
+  /**
+   * Gets a batch of productions by ID with one query.
+   *
+   * @param ids the production ids
+   * @return the productions found, in the order of the ids, and the ids not found
+   */
+  @GetMapping(value = "batch", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = PRODUCTION_BATCH_SUMMARY, notes = PRODUCTION_BATCH_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_IDS),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public Batch<Production> getBatch(
+      @ApiParam(BATCH_IDS_PARAM)
+      @RequestParam("ids") List<UUID> ids) {
+    if (conditionalGet.listNotModified(Kind.PRODUCTION)) {
+      return null;
+    }
+    return batchFinder.find(ids, productionRepository::findAllById, Production::getId);
   }
 
   /**
@@ -133,10 +324,10 @@ public class ProductionController {
   }
 
   /**
-   * Patches a production. This will overwrite everything. If just changing one field all other
-   * current fields must be included.
+   * Patches a production with a JSON merge patch, changing only the fields it includes.
    *
-   * @param production an updated production.
+   * @param patch the merge patch, including the ID of the production.
+   * @return the patched production.
    */
   @Secured("ROLE_SUPER")
   @PatchMapping
@@ -144,28 +335,26 @@ public class ProductionController {
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
-      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER)
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_SUPER),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404),
+      @ApiResponse(code = HttpServletResponse.SC_CONFLICT, message = RESPONSE_409)
   })
-  public void patch(@RequestBody Production production) {
-    productionRepository.save(production);
-  }
-
-  /**
-   * Creates an OMDB url to retrieve the poster image using the supplied api key.
-   */
-  private String createProductionPosterUrl(Production production) {
-    String imdbId = production.getImdbId();
-    String height = String.valueOf(OMDB_POSTER_HEIGHT);
-    String apikey = this.apikey;
-    return String.format(OMDB_POSTER_URL_FORMAT, imdbId, height, apikey);
+  public Production patch(@RequestBody JsonNode patch) {
+    return mergePatcher.patch(patch, productionRepository::findById, Production::getVersion,
+        (production) -> {});
   }
 
   /**
-   * Retrieves a poster image from the OMDB Poster API and relays it to the client without exposing an API key.
+   * Serves the poster of a production from the poster cache, fetching it from the OMDb Poster API
+   * the first time without exposing the API key. Conditional requests are answered from the ETag
+   * and modification time of the cached copy, and a single byte range may be requested. The file is
+   * handed to the servlet container to send without copying it through the application, where the
+   * container supports it.
+   *
    * @param productionId the ID of the associated production
-   * @param relayResponse an HttpServletResponse to explicitly set the content-type to return
-   * @return a raw output stream to be serialized into an image
-   * @throws IOException failed to reach OMDB server
+   * @param request the request, which may carry conditional and range headers
+   * @param response the response the poster is written to
+   * @throws IOException failed to reach OMDB server or to read the cached poster
    */
   @GetMapping(value = "{productionId}/poster",
       produces = {
@@ -175,29 +364,83 @@ public class ProductionController {
   @ApiOperation(value = PRODUCTION_POSTER_SUMMARY, notes = PRODUCTION_POSTER_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_PARTIAL_CONTENT, message = RESPONSE_206),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER),
-      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404_POSTER)
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404_POSTER),
+      @ApiResponse(code = HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+          message = RESPONSE_416)
   })
-  public StreamingResponseBody getPoster(@PathVariable("productionId") UUID productionId,
-      HttpServletResponse relayResponse)
+  public void getPoster(@PathVariable("productionId") UUID productionId,
+      HttpServletRequest request, HttpServletResponse response)
       throws IOException {
-    String url = createProductionPosterUrl(productionRepository.findById(productionId).get());
-    OkHttpClient client = new OkHttpClient();
-    Request request = new Request.Builder()
-        .url(url)
-        .build();
-    Response response = client.newCall(request).execute();
-    ResponseBody body = response.body();
-    InputStream inputStream = body.byteStream();
-    relayResponse.setContentType(body.contentType().toString());
-    relayResponse.setContentLengthLong(body.contentLength());
-    return outputStream -> {
-      int transfer;
-      while ((transfer = inputStream.read()) >= 0) {
-        outputStream.write(transfer);
+    Production production = entityCache.production(productionId);
+    if (production == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404);
+    }
+    Poster poster = posterStore.get(production.getImdbId());
+    if (poster == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404_POSTER);
+    }
+    if (new ServletWebRequest(request, response)
+        .checkNotModified(poster.getETag(), poster.getLastModified())) {
+      return;
+    }
+    long length = poster.getLength();
+    long start = 0;
+    long end = length;
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    String range = request.getHeader(HttpHeaders.RANGE);
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (range != null && (ifRange == null || ifRange.equals(poster.getETag()))) {
+      List<HttpRange> ranges;
+      try {
+        ranges = HttpRange.parseRanges(range);
+      } catch (IllegalArgumentException e) {
+        ranges = Collections.emptyList(); // An invalid Range header is ignored (RFC 7233 3.1).
+      }
+      if (ranges.size() == 1 && rangeStart(ranges.get(0), length) >= length) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        return;
+      }
+      if (ranges.size() == 1) {
+        start = rangeStart(ranges.get(0), length);
+        end = ranges.get(0).getRangeEnd(length) + 1;
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE,
+            "bytes " + start + "-" + (end - 1) + "/" + length);
+      }
+    }
+    response.setContentType(poster.getContentType());
+    response.setContentLengthLong(end - start);
+    if (!HttpMethod.HEAD.matches(request.getMethod())) {
+      sendFile(poster.getFile(), start, end, request, response);
+    }
+  }
+
+  private static long rangeStart(HttpRange range, long length) {
+    try {
+      return range.getRangeStart(length);
+    } catch (IllegalArgumentException e) {
+      return length;
+    }
+  }
+
+  private void sendFile(Path file, long start, long end, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, end);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+      for (long position = start; position < end; ) {
+        position += channel.transferTo(position, end - position, output);
       }
-      outputStream.flush();
-    };
+    }
   }
-}
\ No newline at end of file
+}
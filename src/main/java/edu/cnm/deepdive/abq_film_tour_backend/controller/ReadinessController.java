@@ -0,0 +1,55 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.ImportJob;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller answering readiness checks, open to unauthenticated callers so a load balancer can
+ * hold traffic back from a node still seeding its database.
+ */
+@RestController
+@RequestMapping("/readiness")
+public class ReadinessController {
+
+  private ImportJob importJob;
+
+  /**
+   * Instantiates a new Readiness controller.
+   *
+   * @param importJob the background city data import.
+   */
+  @Autowired
+  public ReadinessController(ImportJob importJob) {
+    this.importJob = importJob;
+  }
+
+  /**
+   * Reports whether this node is ready, along with the progress of the city data import.
+   *
+   * @return the import state and progress, with a 503 status until the seed has finished.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = READINESS_SUMMARY, notes = READINESS_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_SERVICE_UNAVAILABLE, message = RESPONSE_503_NOT_READY)
+  })
+  public ResponseEntity<Map<String, Object>> get() {
+    HttpStatus status = importJob.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+    return ResponseEntity.status(status).body(importJob.getMetrics());
+  }
+
+}
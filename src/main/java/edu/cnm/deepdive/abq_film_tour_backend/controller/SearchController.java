@@ -0,0 +1,101 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SearchIndex;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SearchIndex.Hit;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller for full-text search over film locations, productions and comments, answered from
+ * the in-memory search index without touching the database.
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+  private SearchIndex searchIndex;
+  private Paginator paginator;
+  private ConditionalGet conditionalGet;
+
+  /**
+   * Instantiates a new Search controller.
+   *
+   * @param searchIndex the full-text index
+   * @param paginator the paginator limiting the results in a page
+   * @param conditionalGet the check answering conditional GETs
+   */
+  @Autowired
+  public SearchController(SearchIndex searchIndex, Paginator paginator,
+      ConditionalGet conditionalGet) {
+    this.searchIndex = searchIndex;
+    this.paginator = paginator;
+    this.conditionalGet = conditionalGet;
+  }
+
+  /**
+   * Searches the text of film locations, productions and comments, a page at a time.
+   *
+   * @param q the query text.
+   * @param kind the kind of entity to find, or null for all kinds.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of results in a page.
+   * @return a page of results, best match first.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = SEARCH_SUMMARY, notes = SEARCH_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_QUERY),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public ResponseEntity<List<Hit>> search(
+      @ApiParam(SEARCH_QUERY_PARAM) @RequestParam("q") String q,
+      @ApiParam(SEARCH_KIND_PARAM) @RequestParam(value = "kind", required = false) Kind kind,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    if (SearchIndex.tokenize(q).isEmpty()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_QUERY);
+    }
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION, Kind.USER_COMMENT)) {
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    Float afterScore = null;
+    Cursor after = null;
+    if (cursor != null) {
+      after = Paginator.decode(cursor);
+      try {
+        afterScore = Float.valueOf(String.valueOf(after.getKey()));
+      } catch (NumberFormatException e) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_CURSOR);
+      }
+    }
+    List<Hit> hits = searchIndex.search(q, kind, afterScore,
+        after != null ? after.getId() : null, page.getPageSize());
+    return paginator.respond(hits, page,
+        (hit) -> Paginator.cursor(Float.toString(hit.getScore()), hit.getId()));
+  }
+
+}
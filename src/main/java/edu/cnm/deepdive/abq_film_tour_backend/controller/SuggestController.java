@@ -0,0 +1,75 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SearchIndex;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SuggestIndex;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SuggestIndex.Suggestion;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller for type-ahead suggestions of production titles and site names, answered from the
+ * in-memory suggest index without touching the database.
+ */
+@RestController
+@RequestMapping("/suggest")
+public class SuggestController {
+
+  private SuggestIndex suggestIndex;
+  private ConditionalGet conditionalGet;
+
+  /**
+   * Instantiates a new Suggest controller.
+   *
+   * @param suggestIndex the prefix index of titles and site names
+   * @param conditionalGet the check answering conditional GETs
+   */
+  @Autowired
+  public SuggestController(SuggestIndex suggestIndex, ConditionalGet conditionalGet) {
+    this.suggestIndex = suggestIndex;
+    this.conditionalGet = conditionalGet;
+  }
+
+  /**
+   * Gets the production titles and site names starting with a prefix.
+   *
+   * @param prefix the text typed so far.
+   * @param size the number of suggestions wanted.
+   * @return the suggestions, those with the most film locations first.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = SUGGEST_SUMMARY, notes = SUGGEST_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_PREFIX),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public List<Suggestion> suggest(
+      @ApiParam(SUGGEST_PREFIX_PARAM) @RequestParam("prefix") String prefix,
+      @ApiParam(SUGGEST_SIZE_PARAM) @RequestParam(value = "size", required = false) Integer size) {
+    if (SearchIndex.tokenize(prefix).isEmpty() || (size != null && size < 1)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, RESPONSE_400_PREFIX);
+    }
+    if (conditionalGet.listNotModified(Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    return suggestIndex.suggest(prefix, size);
+  }
+
+}
@@ -2,15 +2,21 @@ package edu.cnm.deepdive.abq_film_tour_backend.controller;
 
 import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
 
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.ExposesResourceFor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,6 +28,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -34,31 +41,75 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserCommentController {
 
   private UserCommentRepository userCommentRepository;
+  private Paginator paginator;
+  private JsonStreamer jsonStreamer;
+  private BatchFinder batchFinder;
+  private ConditionalGet conditionalGet;
 
   /**
    * Instantiates a new User comment controller.
    *
    * @param userCommentRepository the user comment repository
+   * @param paginator the keyset paginator for list endpoints
+   * @param jsonStreamer the streamer for whole tables
+   * @param batchFinder the lookup for batch endpoints
+   * @param conditionalGet the check answering conditional GETs
    */
   @Autowired
-  public UserCommentController(UserCommentRepository userCommentRepository) {
+  public UserCommentController(UserCommentRepository userCommentRepository, Paginator paginator,
+      JsonStreamer jsonStreamer, BatchFinder batchFinder, ConditionalGet conditionalGet) {
     this.userCommentRepository = userCommentRepository;
+    this.paginator = paginator;
+    this.jsonStreamer = jsonStreamer;
+    this.batchFinder = batchFinder;
+    this.conditionalGet = conditionalGet;
   }
 
   /**
-   * Gets a list of comments ordered by their time of creation.
+   * Gets a page of comments ordered by their time of creation.
    *
-   * @return a list of comments ordered by their time of creation.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of comments in a page.
+   * @param stream whether to stream every row instead of a page.
+   * @param response the response a stream is written to.
+   * @return a page of comments ordered by their time of creation.
+   * @throws IOException if a stream cannot be written.
    */
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = USER_COMMENT_ALL_SUMMARY, notes = USER_COMMENT_ALL_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
-  public List<UserComment> list() {
-    return userCommentRepository.findAllByOrderByCreatedDesc();
+  public ResponseEntity<List<UserCommentSummary>> list(
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size,
+      @ApiParam(STREAM_PARAM)
+      @RequestParam(value = "stream", defaultValue = "false") boolean stream,
+      HttpServletResponse response) throws IOException {
+    if (conditionalGet.listNotModified(Kind.USER_COMMENT, Kind.FILM_LOCATION)) {
+      return null;
+    }
+    if (stream) {
+      jsonStreamer.stream(userCommentRepository::streamAllSummaries, response);
+      return null;
+    }
+    Pageable page = paginator.limit(size);
+    List<UserCommentSummary> comments;
+    if (cursor == null) {
+      comments = userCommentRepository.findSummaryPage(page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      comments =
+          userCommentRepository.findSummaryPageBefore(before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(comments, page,
+        (comment) -> Paginator.cursor(comment.getCreated(), comment.getId()));
   }
 
   /**
@@ -71,13 +122,41 @@ public class UserCommentController {
   @ApiOperation(value = USER_COMMENT_DELETE_SUMMARY, notes = USER_COMMENT_DELETE_DESC)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
   })
   public UserComment get(@PathVariable("user_comments") UUID userCommentId) {
+    if (conditionalGet.itemNotModified(userCommentId, Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
     return userCommentRepository.findById(userCommentId).get();
   }
 
+  /**
+   * Gets a batch of user comments by ID with one query.
+   *
+   * @param ids the user comment ids
+   * @return the user comments found, in the order of the ids, and the ids not found
+   */
+  @GetMapping(value = "batch", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = USER_COMMENT_BATCH_SUMMARY, notes = USER_COMMENT_BATCH_DESC)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_MODIFIED, message = RESPONSE_304),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_IDS),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_USER)
+  })
+  public Batch<UserComment> getBatch(
+      @ApiParam(BATCH_IDS_PARAM)
+      @RequestParam("ids") List<UUID> ids) {
+    if (conditionalGet.listNotModified(Kind.USER_COMMENT, Kind.FILM_LOCATION, Kind.PRODUCTION)) {
+      return null;
+    }
+    return batchFinder.find(ids, userCommentRepository::findAllWithFilmLocationByIdIn, UserComment::getId);
+  }
+
   /**
    * Posts a new user comment. Posting should not be done directly, it should be done on a specific FilmLocation endpoint.
    *
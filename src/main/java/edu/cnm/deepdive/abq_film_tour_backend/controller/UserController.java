@@ -2,22 +2,31 @@ package edu.cnm.deepdive.abq_film_tour_backend.controller;
 
 import static edu.cnm.deepdive.abq_film_tour_backend.controller.Constants.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.cnm.deepdive.abq_film_tour_backend.controller.Paginator.Cursor;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
-import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
-import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.service.PurgeJobService;
+import edu.cnm.deepdive.abq_film_tour_backend.service.UserResolutionService;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.ExposesResourceFor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -30,8 +39,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Controller for the "GoogleUser" entity. Not required to contain any connections to other
@@ -47,36 +58,74 @@ public class UserController {
   private UserCommentRepository userCommentRepository;
   private ImageRepository imageRepository;
   private FilmLocationRepository filmLocationRepository;
+  private UserResolutionService userResolutionService;
+  private Paginator paginator;
+  private PurgeJobService purgeJobService;
+  private MergePatcher mergePatcher;
 
   /**
    * Instantiates a new User controller.
    *
    * @param userRepository the user repository
    * @param userCommentRepository the user comment repository
+   * @param userResolutionService the cache of resolved users, invalidated when a user changes
+   * @param paginator the keyset paginator for list endpoints
+   * @param purgeJobService the runner of background purges
+   * @param mergePatcher the partial update of users
    */
   @Autowired
   public UserController(UserRepository userRepository,
-      UserCommentRepository userCommentRepository, ImageRepository imageRepository, FilmLocationRepository filmLocationRepository) {
+      UserCommentRepository userCommentRepository, ImageRepository imageRepository, FilmLocationRepository filmLocationRepository,
+      UserResolutionService userResolutionService, Paginator paginator,
+      PurgeJobService purgeJobService, MergePatcher mergePatcher) {
     this.userRepository = userRepository;
     this.userCommentRepository = userCommentRepository;
     this.imageRepository = imageRepository;
     this.filmLocationRepository = filmLocationRepository;
+    this.userResolutionService = userResolutionService;
+    this.paginator = paginator;
+    this.purgeJobService = purgeJobService;
+    this.mergePatcher = mergePatcher;
   }
 
   /**
-   * Gets a list of users ordered by the name on their Google account.
+   * Gets a page of users ordered by the name on their Google account. Users without a name come
+   * after all of the named users.
    *
-   * @return a list of users ordered by their name.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of users in a page.
+   * @return a page of users ordered by their name.
    */
   @ApiOperation(value = USER_LIST_SUMMARY, notes = USER_LIST_DESC)
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiResponses({
       @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_BAD_REQUEST, message = RESPONSE_400_CURSOR),
       @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
       @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_ADMIN)
   })
-  public List<GoogleUser> list() {
-    return userRepository.findAllByOrderByGoogleNameAsc();
+  public ResponseEntity<List<GoogleUser>> list(
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size) {
+    Pageable page = paginator.limit(size);
+    Cursor after = (cursor == null) ? null : Paginator.decode(cursor);
+    List<GoogleUser> users;
+    if (after == null) {
+      users = userRepository.findAllByOrderByGoogleNameAscIdAsc(page);
+    } else if (after.getKey() == null) {
+      users = userRepository.findUnnamedPageAfter(after.getId(), page);
+    } else {
+      users = new ArrayList<>(
+          userRepository.findPageAfter(after.getKey(), after.getId(), page));
+      if (users.size() < page.getPageSize()) {
+        users.addAll(userRepository.findAllByGoogleNameIsNullOrderByIdAsc(
+            PageRequest.of(0, page.getPageSize() - users.size())));
+      }
+    }
+    return paginator.respond(users, page,
+        (user) -> Paginator.cursor(user.getGoogleName(), user.getId()));
   }
 
   /**
@@ -102,6 +151,7 @@ public class UserController {
       produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<GoogleUser> post(@RequestBody GoogleUser googleUser) {
     userRepository.save(googleUser);
+    userResolutionService.invalidate(googleUser.getGoogleId());
     return ResponseEntity.created(googleUser.getHref()).body(googleUser);
   }
 
@@ -117,74 +167,161 @@ public class UserController {
   public void delete(@PathVariable("userId") UUID userId) {
     GoogleUser user = userRepository.findById(userId).get();
     userRepository.delete(user);
+    userResolutionService.invalidate(user.getGoogleId());
   }
 
   /**
-   * Patches a user. This will overwrite everything. if just changing one field all other current
-   * fields must be included.
+   * Patches a user with a JSON merge patch, changing only the fields it includes.
    *
-   * @param user an updated user.
+   * @param patch the merge patch, including the ID of the user.
+   * @return the patched user.
    */
   @ApiOperation(value = USER_PATCH_SUMMARY, notes = USER_PATCH_DESC)
   @PatchMapping
-  public void patch(@RequestBody GoogleUser user) {
-    userRepository.save(user);
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_ADMIN),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404),
+      @ApiResponse(code = HttpServletResponse.SC_CONFLICT, message = RESPONSE_409)
+  })
+  public GoogleUser patch(@RequestBody JsonNode patch) {
+    GoogleUser user = mergePatcher.patch(patch, (id) -> userRepository.findById(id)
+        .map((existing) -> {
+          userResolutionService.invalidate(existing.getGoogleId());
+          return existing;
+        }), GoogleUser::getVersion, (existing) -> {});
+    userResolutionService.invalidate(user.getGoogleId());
+    return user;
   }
 
   /**
-   * Gets all of the comments a user has submitted in order of creation
+   * Gets the comments a user has submitted in order of creation, a page at a time.
    *
    * @param userId the user UUID
-   * @return a list of all comments submitted by a user, in order by the time of creation.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of comments in a page.
+   * @return a page of comments submitted by a user, in order by the time of creation.
    */
   @ApiOperation(value = USER_LIST_COMMENTS_SUMMARY, notes = USER_LIST_COMMENTS_DESC)
   @GetMapping(value = "{userId}/user_comments", produces = MediaType.APPLICATION_JSON_VALUE)
-  public List<UserComment> getUserComments(@PathVariable UUID userId){
+  public ResponseEntity<List<UserCommentSummary>> getUserComments(@PathVariable UUID userId,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size){
     GoogleUser user = userRepository.findById(userId).get();
-    return userCommentRepository.findAllByGoogleIdOrderByCreatedDesc(user.getGoogleId());
+    Pageable page = paginator.limit(size);
+    List<UserCommentSummary> comments;
+    if (cursor == null) {
+      comments = userCommentRepository.findSummaryPageByGoogleId(user.getGoogleId(), page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      comments = userCommentRepository.findSummaryPageByGoogleIdBefore(user.getGoogleId(),
+          before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(comments, page,
+        (comment) -> Paginator.cursor(comment.getCreated(), comment.getId()));
   }
 
   /**
-   * Gets all of the images a user has submitted in order of creation
+   * Gets the images a user has submitted in order of creation, a page at a time.
    *
    * @param userId the user UUID
-   * @return a list of all comments submitted by a user, in order by the time of creation.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of images in a page.
+   * @return a page of images submitted by a user, in order by the time of creation.
    */
   @ApiOperation(value = USER_LIST_IMAGES_SUMMARY, notes = USER_LIST_IMAGES_DESC)
   @GetMapping(value = "{userId}/images", produces = MediaType.APPLICATION_JSON_VALUE)
-  public List<Image> getImages(@PathVariable UUID userId){
+  public ResponseEntity<List<ImageSummary>> getImages(@PathVariable UUID userId,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size){
     GoogleUser user = userRepository.findById(userId).get();
-    return imageRepository.findAllByGoogleIdOrderByCreatedDesc(user.getGoogleId());
+    Pageable page = paginator.limit(size);
+    List<ImageSummary> images;
+    if (cursor == null) {
+      images = imageRepository.findSummaryPageByGoogleId(user.getGoogleId(), page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      images = imageRepository.findSummaryPageByGoogleIdBefore(user.getGoogleId(),
+          before.getCreated(), before.getId(), page);
+    }
+    return paginator.respond(images, page,
+        (image) -> Paginator.cursor(image.getCreated(), image.getId()));
   }
 
   /**
-   * Gets all of the film locations a user has submitted in order of creation
+   * Gets the film locations a user has submitted in order of creation, a page at a time.
    *
    * @param userId the user UUID
-   * @return a list of all comments submitted by a user, in order by the time of creation.
+   * @param cursor the cursor of the page to get, from the previous page.
+   * @param size the number of locations in a page.
+   * @return a page of locations submitted by a user, in order by the time of creation.
    */
   @ApiOperation(value = USER_LIST_LOCATIONS_SUMMARY, notes = USER_LIST_LOCATIONS_DESC)
   @GetMapping(value = "{userId}/film_locations", produces = MediaType.APPLICATION_JSON_VALUE)
-  public List<FilmLocation> getFilmLocations(@PathVariable UUID userId){
+  public ResponseEntity<List<FilmLocation>> getFilmLocations(@PathVariable UUID userId,
+      @ApiParam(PAGE_CURSOR_PARAM)
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @ApiParam(PAGE_SIZE_PARAM)
+      @RequestParam(value = "size", required = false) Integer size){
     GoogleUser user = userRepository.findById(userId).get();
-    return filmLocationRepository.findAllByGoogleIdOrderByCreatedDesc(user.getGoogleId());
+    Pageable page = paginator.limit(size);
+    List<FilmLocation> locations;
+    if (cursor == null) {
+      locations = filmLocationRepository.findAllByGoogleIdOrderByCreatedDescIdDesc(user.getGoogleId(), page);
+    } else {
+      Cursor before = Paginator.decode(cursor);
+      locations = filmLocationRepository.findPageByGoogleIdBefore(user.getGoogleId(), before.getCreated(),
+          before.getId(), page);
+    }
+    return paginator.respond(locations, page,
+        (location) -> Paginator.cursor(location.getCreated(), location.getId()));
   }
 
+  /**
+   * Starts purging everything a user has submitted: their film locations, with everyone's comments
+   * and images on them, and their own comments and images. The purge runs in the background; if one
+   * is already running for the user, that one is returned.
+   *
+   * @param userId the internal user ID
+   * @return the purge job, to be polled for its progress.
+   */
   @ApiOperation(value = USER_PURGE_SUMMARY, notes = USER_PURGE_DESC)
-  @RequestMapping(value = "{userId}/purge")
-  public void purge(@PathVariable UUID userId) {
-    GoogleUser user = userRepository.findById(userId).get();
-    List<UserComment> userComments = userCommentRepository.findAllByGoogleId(user.getGoogleId());
-    for (UserComment comment : userComments) {
-      userCommentRepository.delete(comment);
-    }
-    List<Image> images = imageRepository.findAllByGoogleId(user.getGoogleId());
-    for (Image image : images) {
-      imageRepository.delete(image);
-    }
-    List<FilmLocation> locations = filmLocationRepository.findAllByGoogleId(user.getGoogleId());
-    for (FilmLocation location : locations) {
-      filmLocationRepository.delete(location);
-    }
+  @PostMapping(value = "{userId}/purge", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_ACCEPTED, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_ADMIN),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
+  })
+  public PurgeJob purge(@PathVariable UUID userId) {
+    GoogleUser user = userRepository.findById(userId)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404));
+    return purgeJobService.start(user);
   }
+
+  /**
+   * Gets the progress of the latest purge of a user.
+   *
+   * @param userId the internal user ID
+   * @return the latest purge job.
+   */
+  @ApiOperation(value = USER_PURGE_STATUS_SUMMARY, notes = USER_PURGE_STATUS_DESC)
+  @GetMapping(value = "{userId}/purge", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses({
+      @ApiResponse(code = HttpServletResponse.SC_OK, message = RESPONSE_SUCCESSFUL),
+      @ApiResponse(code = HttpServletResponse.SC_UNAUTHORIZED, message = RESPONSE_401),
+      @ApiResponse(code = HttpServletResponse.SC_FORBIDDEN, message = RESPONSE_403_ADMIN),
+      @ApiResponse(code = HttpServletResponse.SC_NOT_FOUND, message = RESPONSE_404)
+  })
+  public PurgeJob getPurge(@PathVariable UUID userId) {
+    return purgeJobService.latest(userId)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, RESPONSE_404));
+  }
+
 }
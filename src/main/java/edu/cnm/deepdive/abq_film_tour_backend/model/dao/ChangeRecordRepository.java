@@ -0,0 +1,27 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface ChangeRecordRepository extends CrudRepository<ChangeRecord, Long> {
+
+  List<ChangeRecord> findAllBySequenceGreaterThanOrderBySequenceAsc(long sequence,
+      Pageable pageable);
+
+  @Query("SELECT MAX(c.sequence) FROM ChangeRecord c")
+  Long findLatestSequence();
+
+  @Modifying
+  @Query("DELETE FROM ChangeRecord c WHERE c.kind = :kind AND c.entityId IN :entityIds")
+  int deleteAllByKindAndEntityIdIn(@Param("kind") Kind kind,
+      @Param("entityIds") Collection<UUID> entityIds);
+
+}
@@ -1,17 +1,166 @@
 package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CityRecordState;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.FilmLocationReference;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.IndexedLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.LegacyCityRecord;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface FilmLocationRepository extends CrudRepository<FilmLocation, UUID> {
 
-  List<FilmLocation> findAllByOrderByCreatedDesc();
+  @EntityGraph(attributePaths = "production")
+  @Override
+  Optional<FilmLocation> findById(UUID id);
+
+  @EntityGraph(attributePaths = "production")
+  List<FilmLocation> findAllWithProductionByIdIn(Collection<UUID> ids);
+
+  @EntityGraph(attributePaths = "production")
+  List<FilmLocation> findAllByOrderByCreatedDescIdDesc(Pageable pageable);
+
+  @EntityGraph(attributePaths = "production")
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT f FROM FilmLocation f ORDER BY f.created DESC, f.id DESC")
+  Stream<FilmLocation> streamAll();
+
+  @EntityGraph(attributePaths = "production")
+  @Query("SELECT f FROM FilmLocation f WHERE f.created <= :created "
+      + "AND (f.created < :created OR f.id < :id) ORDER BY f.created DESC, f.id DESC")
+  List<FilmLocation> findPageBefore(@Param("created") Date created, @Param("id") UUID id,
+      Pageable pageable);
+
+  String COMPACT_SELECT = "SELECT f.id AS id, f.created AS created, f.objectId AS objectId, "
+      + "f.cityDataRemoved AS cityDataRemoved, f.siteName AS siteName, f.imdbId AS imdbId, "
+      + "p.id AS productionId, f.address AS address, f.shootDate AS shootDate, "
+      + "f.originalDetails AS originalDetails, f.longCoordinate AS longCoordinate, "
+      + "f.latCoordinate AS latCoordinate, f.approved AS approved, f.googleId AS googleId, "
+      + "f.userName AS userName, f.userPictureUrl AS userPictureUrl "
+      + "FROM FilmLocation f LEFT JOIN f.production p ";
+
+  @Query(COMPACT_SELECT + "ORDER BY f.created DESC, f.id DESC")
+  List<CompactFilmLocation> findCompactPage(Pageable pageable);
+
+  @Query(COMPACT_SELECT)
+  List<CompactFilmLocation> findAllCompact();
+
+  @Query(COMPACT_SELECT + "WHERE f.id IN :ids")
+  List<CompactFilmLocation> findCompactByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(COMPACT_SELECT + "WHERE f.created <= :created "
+      + "AND (f.created < :created OR f.id < :id) ORDER BY f.created DESC, f.id DESC")
+  List<CompactFilmLocation> findCompactPageBefore(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query(COMPACT_SELECT + "WHERE f.approved = FALSE ORDER BY f.created ASC, f.id ASC")
+  List<CompactFilmLocation> findPendingCompactPage(Pageable pageable);
+
+  @Query(COMPACT_SELECT + "WHERE f.approved = FALSE AND f.created >= :created "
+      + "AND (f.created > :created OR f.id > :id) ORDER BY f.created ASC, f.id ASC")
+  List<CompactFilmLocation> findPendingCompactPageAfter(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query("SELECT f.id FROM FilmLocation f WHERE f.approved = FALSE AND f.id IN :ids")
+  List<UUID> findPendingIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query("UPDATE FilmLocation f SET f.approved = TRUE, f.version = f.version + 1 "
+      + "WHERE f.id IN :ids")
+  int approveAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+  String REFERENCE_SELECT = "SELECT f.id AS id, p.id AS productionId "
+      + "FROM FilmLocation f LEFT JOIN f.production p ";
+
+  @Query(REFERENCE_SELECT + "WHERE f.id IN :ids")
+  List<FilmLocationReference> findReferencesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(REFERENCE_SELECT + "WHERE f.googleId = :googleId")
+  List<FilmLocationReference> findReferencesByGoogleId(@Param("googleId") String googleId,
+      Pageable pageable);
+
+  @Modifying
+  @Query("DELETE FROM FilmLocation f WHERE f.id IN :ids")
+  int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query("SELECT f.id FROM FilmLocation f WHERE f.googleId = :googleId")
+  List<UUID> findIdsByGoogleId(@Param("googleId") String googleId, Pageable pageable);
+
+  @Modifying
+  @Query("UPDATE FilmLocation f SET f.userName = :userName, f.userPictureUrl = :userPictureUrl, "
+      + "f.version = f.version + 1 WHERE f.id IN :ids")
+  int updateUserProfile(@Param("ids") Collection<UUID> ids, @Param("userName") String userName,
+      @Param("userPictureUrl") String userPictureUrl);
+
+  @EntityGraph(attributePaths = "production")
+  List<FilmLocation> findAllByGoogleIdOrderByCreatedDescIdDesc(String googleId, Pageable pageable);
+
+  @EntityGraph(attributePaths = "production")
+  @Query("SELECT f FROM FilmLocation f WHERE f.googleId = :googleId AND f.created <= :created "
+      + "AND (f.created < :created OR f.id < :id) ORDER BY f.created DESC, f.id DESC")
+  List<FilmLocation> findPageByGoogleIdBefore(@Param("googleId") String googleId,
+      @Param("created") Date created, @Param("id") UUID id, Pageable pageable);
+
+  @EntityGraph(attributePaths = "production")
+  @Query("SELECT f FROM FilmLocation f WHERE f.production.id = :productionId "
+      + "ORDER BY f.created DESC, f.id DESC")
+  List<FilmLocation> findPageByProduction(@Param("productionId") UUID productionId,
+      Pageable pageable);
+
+  @EntityGraph(attributePaths = "production")
+  @Query("SELECT f FROM FilmLocation f WHERE f.production.id = :productionId "
+      + "AND f.created <= :created AND (f.created < :created OR f.id < :id) "
+      + "ORDER BY f.created DESC, f.id DESC")
+  List<FilmLocation> findPageByProductionBefore(@Param("productionId") UUID productionId,
+      @Param("created") Date created, @Param("id") UUID id, Pageable pageable);
+
+  FilmLocation findByObjectId(Long objectId);
+
+  boolean existsByIdIsNotNull();
+
+  @Query("SELECT f.id AS id, f.latCoordinate AS latCoordinate, "
+      + "f.longCoordinate AS longCoordinate, f.geohash AS geohash FROM FilmLocation f")
+  List<IndexedLocation> findAllIndexedLocations();
+
+  @Query("SELECT f.id AS id, f.latCoordinate AS latCoordinate, "
+      + "f.longCoordinate AS longCoordinate, f.geohash AS geohash FROM FilmLocation f "
+      + "WHERE f.production.id = :productionId")
+  List<IndexedLocation> findAllIndexedLocationsByProductionId(
+      @Param("productionId") UUID productionId);
+
+  @Query("SELECT f.id AS id, f.objectId AS objectId, f.cityRecordDigest AS cityRecordDigest, "
+      + "f.cityDataRemoved AS cityDataRemoved FROM FilmLocation f WHERE f.objectId IS NOT NULL")
+  List<CityRecordState> findAllCityRecordStates();
 
-  List<FilmLocation> findAllByGoogleId(String googleId);
+  @Query("SELECT f.id AS id, f.siteName AS siteName, f.address AS address, "
+      + "f.shootDate AS shootDate, f.latCoordinate AS latCoordinate, "
+      + "f.longCoordinate AS longCoordinate FROM FilmLocation f "
+      + "WHERE f.objectId IS NULL AND (f.googleId = :googleId "
+      + "OR (f.googleId IS NULL AND f.userName = :userName))")
+  List<LegacyCityRecord> findAllLegacyCityRecords(@Param("googleId") String googleId,
+      @Param("userName") String userName);
 
-  List<FilmLocation> findAllByGoogleIdOrderByCreatedDesc(String googleId);
+  @Transactional
+  @Modifying
+  @Query("UPDATE FilmLocation f SET f.cityDataRemoved = true, f.version = f.version + 1 "
+      + "WHERE f.objectId IN :objectIds")
+  int flagCityDataRemoved(@Param("objectIds") Collection<Long> objectIds);
 
-}
\ No newline at end of file
+}
@@ -1,20 +1,108 @@
 package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
 
-import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ImageSummary;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface ImageRepository extends CrudRepository<Image, UUID> {
 
-  List<Image> findAllByOrderByCreatedDesc();
+  String SUMMARY_SELECT = "SELECT i.id AS id, i.created AS created, i.description AS description, i.url AS url, "
+      + "f.id AS filmLocationId, f.siteName AS filmLocationName, i.approved AS approved, "
+      + "i.googleId AS googleId, i.userName AS userName, "
+      + "i.userPictureUrl AS userPictureUrl FROM Image i JOIN i.filmLocation f ";
+
+  String SUMMARY_BEFORE = "i.created <= :created AND (i.created < :created OR i.id < :id) ";
+
+  String SUMMARY_ORDER = "ORDER BY i.created DESC, i.id DESC";
+
+  String PENDING_ORDER = "ORDER BY i.created ASC, i.id ASC";
+
+  @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPage(Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPageBefore(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE i.id IN :ids")
+  List<ImageSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+  Stream<ImageSummary> streamAllSummaries();
+
+  long countByFilmLocationId(UUID filmLocationId);
+
+  @Query(SUMMARY_SELECT + "WHERE f.id = :filmLocationId " + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPageByFilmLocation(
+      @Param("filmLocationId") UUID filmLocationId, Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE f.id = :filmLocationId AND " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPageByFilmLocationBefore(
+      @Param("filmLocationId") UUID filmLocationId, @Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE i.googleId = :googleId " + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPageByGoogleId(@Param("googleId") String googleId,
+      Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE i.googleId = :googleId AND " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<ImageSummary> findSummaryPageByGoogleIdBefore(@Param("googleId") String googleId,
+      @Param("created") Date created, @Param("id") UUID id, Pageable pageable);
+
+  @EntityGraph(attributePaths = {"filmLocation", "filmLocation.production"})
+  @Override
+  Optional<Image> findById(UUID id);
+
+  @EntityGraph(attributePaths = {"filmLocation", "filmLocation.production"})
+  List<Image> findAllWithFilmLocationByIdIn(Collection<UUID> ids);
+
+  @Query("SELECT i.id FROM Image i WHERE i.googleId = :googleId")
+  List<UUID> findIdsByGoogleId(@Param("googleId") String googleId, Pageable pageable);
+
+  @Query("SELECT i.id FROM Image i WHERE i.filmLocation.id IN :filmLocationIds")
+  List<UUID> findIdsByFilmLocationIdIn(
+      @Param("filmLocationIds") Collection<UUID> filmLocationIds);
+
+  @Modifying
+  @Query("DELETE FROM Image i WHERE i.id IN :ids")
+  int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(SUMMARY_SELECT + "WHERE i.approved = FALSE " + PENDING_ORDER)
+  List<ImageSummary> findPendingSummaryPage(Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE i.approved = FALSE AND i.created >= :created "
+      + "AND (i.created > :created OR i.id > :id) " + PENDING_ORDER)
+  List<ImageSummary> findPendingSummaryPageAfter(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
 
-  List<Image> findAllByFilmLocationOrderByCreatedDesc(FilmLocation filmLocation);
+  @Query("SELECT i.id FROM Image i WHERE i.approved = FALSE AND i.id IN :ids")
+  List<UUID> findPendingIdsByIdIn(@Param("ids") Collection<UUID> ids);
 
-  List<Image> findAllByGoogleId(String googleId);
+  @Modifying
+  @Query("UPDATE Image i SET i.approved = TRUE, i.version = i.version + 1 WHERE i.id IN :ids")
+  int approveAllByIdIn(@Param("ids") Collection<UUID> ids);
 
-  List<Image> findAllByGoogleIdOrderByCreatedDesc(String googleId);
+  @Modifying
+  @Query("UPDATE Image i SET i.userName = :userName, i.userPictureUrl = :userPictureUrl, "
+      + "i.version = i.version + 1 WHERE i.id IN :ids")
+  int updateUserProfile(@Param("ids") Collection<UUID> ids, @Param("userName") String userName,
+      @Param("userPictureUrl") String userPictureUrl);
 
 }
@@ -2,16 +2,67 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
 
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ProductionSummary;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ProductionRepository extends CrudRepository<Production, UUID> {
 
-  List<Production> findAllByOrderByTitleAsc();
+  List<Production> findAllByOrderByTitleAscIdAsc(Pageable pageable);
 
-  List<Production> findAllByTypeOrderByTitle(String type);
+  @Query("SELECT p FROM Production p WHERE p.title >= :title "
+      + "AND (p.title > :title OR p.id > :id) ORDER BY p.title ASC, p.id ASC")
+  List<Production> findPageAfter(@Param("title") String title, @Param("id") UUID id,
+      Pageable pageable);
+
+  @Query("SELECT p FROM Production p WHERE p.title IS NULL AND p.id > :id ORDER BY p.id ASC")
+  List<Production> findUntitledPageAfter(@Param("id") UUID id, Pageable pageable);
+
+  List<Production> findAllByTitleIsNullOrderByIdAsc(Pageable pageable);
+
+  List<Production> findAllByTypeOrderByTitleAscIdAsc(String type, Pageable pageable);
+
+  @Query("SELECT p FROM Production p WHERE p.type = :type AND p.title >= :title "
+      + "AND (p.title > :title OR p.id > :id) ORDER BY p.title ASC, p.id ASC")
+  List<Production> findPageByTypeAfter(@Param("type") String type, @Param("title") String title,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query("SELECT p FROM Production p WHERE p.type = :type AND p.title IS NULL AND p.id > :id "
+      + "ORDER BY p.id ASC")
+  List<Production> findUntitledPageByTypeAfter(@Param("type") String type, @Param("id") UUID id,
+      Pageable pageable);
+
+  List<Production> findAllByTypeAndTitleIsNullOrderByIdAsc(String type, Pageable pageable);
 
   Production findByImdbId(String imdbID);
 
+  List<Production> findAllByImdbIdIn(Collection<String> imdbIds);
+
+  String SUMMARY_SELECT = "SELECT p.id AS id, p.imdbId AS imdbId, p.title AS title, "
+      + "p.type AS type, p.releaseYear AS releaseYear, p.plot AS plot FROM Production p ";
+
+  @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+  List<ProductionSummary> findAllSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(SUMMARY_SELECT)
+  List<ProductionSummary> findAllSummaries();
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Production p SET p.locationCount = p.locationCount + :delta WHERE p.id IN :ids")
+  int addToLocationCount(@Param("delta") int delta, @Param("ids") Collection<UUID> ids);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Production p SET p.locationCount = "
+      + "(SELECT COUNT(f) FROM FilmLocation f WHERE f.production = p)")
+  int recountLocations();
+
 }
@@ -0,0 +1,17 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob.State;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.repository.CrudRepository;
+
+public interface PurgeJobRepository extends CrudRepository<PurgeJob, UUID> {
+
+  Optional<PurgeJob> findFirstByUserIdOrderByCreatedDesc(UUID userId);
+
+  List<PurgeJob> findAllByStateInOrderByCreatedAsc(Collection<State> states);
+
+}
@@ -1,21 +1,119 @@
 package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.apache.catalina.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface UserCommentRepository extends CrudRepository<UserComment, UUID> {
 
-  List<UserComment> findAllByOrderByCreatedDesc();
+  String SUMMARY_SELECT = "SELECT c.id AS id, c.created AS created, c.text AS text, "
+      + "f.id AS filmLocationId, f.siteName AS filmLocationName, c.approved AS approved, "
+      + "c.googleId AS googleId, c.userName AS userName, "
+      + "c.userPictureUrl AS userPictureUrl FROM UserComment c JOIN c.filmLocation f ";
+
+  String SUMMARY_BEFORE = "c.created <= :created AND (c.created < :created OR c.id < :id) ";
+
+  String SUMMARY_ORDER = "ORDER BY c.created DESC, c.id DESC";
+
+  String PENDING_ORDER = "ORDER BY c.created ASC, c.id ASC";
+
+  @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPage(Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPageBefore(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query(SUMMARY_SELECT)
+  List<UserCommentSummary> findAllSummaries();
+
+  @Query(SUMMARY_SELECT + "WHERE c.id IN :ids")
+  List<UserCommentSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+  Stream<UserCommentSummary> streamAllSummaries();
+
+  long countByFilmLocationId(UUID filmLocationId);
+
+  @Query(SUMMARY_SELECT + "WHERE f.id = :filmLocationId " + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPageByFilmLocation(
+      @Param("filmLocationId") UUID filmLocationId, Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE f.id = :filmLocationId AND " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPageByFilmLocationBefore(
+      @Param("filmLocationId") UUID filmLocationId, @Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE c.googleId = :googleId " + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPageByGoogleId(@Param("googleId") String googleId,
+      Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE c.googleId = :googleId AND " + SUMMARY_BEFORE + SUMMARY_ORDER)
+  List<UserCommentSummary> findSummaryPageByGoogleIdBefore(@Param("googleId") String googleId,
+      @Param("created") Date created, @Param("id") UUID id, Pageable pageable);
+
+  @EntityGraph(attributePaths = {"filmLocation", "filmLocation.production"})
+  @Override
+  Optional<UserComment> findById(UUID id);
+
+  @EntityGraph(attributePaths = {"filmLocation", "filmLocation.production"})
+  List<UserComment> findAllWithFilmLocationByIdIn(Collection<UUID> ids);
 
   List<UserComment> findAllByFilmLocationOrderByCreatedDesc(FilmLocation filmLocation);
 
-  List<UserComment> findAllByGoogleId(String googleId);
+  @Query("SELECT c.id FROM UserComment c WHERE c.googleId = :googleId")
+  List<UUID> findIdsByGoogleId(@Param("googleId") String googleId, Pageable pageable);
+
+  @Query("SELECT c.id FROM UserComment c WHERE c.filmLocation.id IN :filmLocationIds")
+  List<UUID> findIdsByFilmLocationIdIn(
+      @Param("filmLocationIds") Collection<UUID> filmLocationIds);
+
+  @Modifying
+  @Query("DELETE FROM UserComment c WHERE c.id IN :ids")
+  int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(SUMMARY_SELECT + "WHERE c.approved = FALSE " + PENDING_ORDER)
+  List<UserCommentSummary> findPendingSummaryPage(Pageable pageable);
+
+  @Query(SUMMARY_SELECT + "WHERE c.approved = FALSE AND c.created >= :created "
+      + "AND (c.created > :created OR c.id > :id) " + PENDING_ORDER)
+  List<UserCommentSummary> findPendingSummaryPageAfter(@Param("created") Date created,
+      @Param("id") UUID id, Pageable pageable);
+
+  @Query("SELECT c.id FROM UserComment c WHERE c.approved = FALSE AND c.id IN :ids")
+  List<UUID> findPendingIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query("UPDATE UserComment c SET c.approved = TRUE, c.version = c.version + 1 "
+      + "WHERE c.id IN :ids")
+  int approveAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query("UPDATE UserComment c SET c.userName = :userName, c.userPictureUrl = :userPictureUrl, "
+      + "c.version = c.version + 1 WHERE c.id IN :ids")
+  int updateUserProfile(@Param("ids") Collection<UUID> ids, @Param("userName") String userName,
+      @Param("userPictureUrl") String userPictureUrl);
 
-  List<UserComment> findAllByGoogleIdOrderByCreatedDesc(String googleId);
+  List<UserComment> findAllByFilmLocationInAndGoogleId(Collection<FilmLocation> filmLocations,
+      String googleId);
 
 }
@@ -3,12 +3,68 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.dao;
 import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends CrudRepository<GoogleUser, UUID> {
 
-  List<GoogleUser> findAllByOrderByGoogleNameAsc();
+  List<GoogleUser> findAllByOrderByGoogleNameAscIdAsc(Pageable pageable);
+
+  @Query("SELECT u FROM GoogleUser u WHERE u.googleName >= :googleName "
+      + "AND (u.googleName > :googleName OR u.id > :id) ORDER BY u.googleName ASC, u.id ASC")
+  List<GoogleUser> findPageAfter(@Param("googleName") String googleName, @Param("id") UUID id,
+      Pageable pageable);
+
+  @Query("SELECT u FROM GoogleUser u WHERE u.googleName IS NULL AND u.id > :id ORDER BY u.id ASC")
+  List<GoogleUser> findUnnamedPageAfter(@Param("id") UUID id, Pageable pageable);
+
+  List<GoogleUser> findAllByGoogleNameIsNullOrderByIdAsc(Pageable pageable);
 
   GoogleUser findByGoogleId(String googleId);
 
-}
\ No newline at end of file
+  /**
+   * Inserts a user on first sign-in, or assigns a role to an existing user that has none, in a
+   * single statement. Running it again for the same Google ID changes nothing.
+   *
+   * @param id the internal ID to use if the user is inserted.
+   * @param googleId the Google ID of the user.
+   * @param googleName the full name on the Google account.
+   * @param gmailAddress the email address on the Google account.
+   * @param pictureUrl the URL of the Google profile picture.
+   * @param userRole the role to record for the user.
+   * @return the number of rows inserted or updated.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "MERGE INTO google_user u USING sysibm.sysdummy1 ON u.google_id = :googleId "
+      + "WHEN NOT MATCHED THEN INSERT "
+      + "(user_id, google_id, google_name, gmail_address, picture_url, banned, user_role, "
+      + "updated) VALUES (:id, :googleId, :googleName, :gmailAddress, :pictureUrl, FALSE, "
+      + ":userRole, CURRENT_TIMESTAMP) "
+      + "WHEN MATCHED AND u.user_role IS NULL THEN UPDATE SET user_role = :userRole, "
+      + "updated = CURRENT_TIMESTAMP",
+      nativeQuery = true)
+  int upsert(@Param("id") UUID id, @Param("googleId") String googleId,
+      @Param("googleName") String googleName, @Param("gmailAddress") String gmailAddress,
+      @Param("pictureUrl") String pictureUrl, @Param("userRole") String userRole);
+
+  /**
+   * Records a changed name or picture on a user's Google account.
+   *
+   * @param googleId the Google ID of the user.
+   * @param googleName the full name on the Google account.
+   * @param pictureUrl the URL of the Google profile picture.
+   * @return the number of rows updated.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE GoogleUser u SET u.googleName = :googleName, u.pictureUrl = :pictureUrl, "
+      + "u.updated = CURRENT_TIMESTAMP, u.version = u.version + 1 WHERE u.googleId = :googleId")
+  int updateProfile(@Param("googleId") String googleId, @Param("googleName") String googleName,
+      @Param("pictureUrl") String pictureUrl);
+
+}
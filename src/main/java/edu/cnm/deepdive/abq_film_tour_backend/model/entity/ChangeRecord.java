@@ -0,0 +1,150 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
+
+import java.util.Date;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * An entry in the change log read by the changes feed. Every committed write or delete of a film
+ * location, production, comment or image is recorded under the next number of a single increasing
+ * sequence. Only the latest change to each entity is kept, so a delete is kept as a tombstone.
+ */
+@Entity
+@Table(indexes = @Index(name = "change_record_entity", columnList = "kind, entityId"))
+public class ChangeRecord {
+
+  /**
+   * The kinds of entity recorded in the change log.
+   */
+  public enum Kind {
+    /** A film location. */
+    FILM_LOCATION,
+    /** A production. */
+    PRODUCTION,
+    /** A user comment. */
+    USER_COMMENT,
+    /** An image. */
+    IMAGE;
+
+    /**
+     * Gets the kind of an entity.
+     *
+     * @param entity the entity.
+     * @return the kind, or null if changes to the entity are not recorded.
+     */
+    public static Kind of(Object entity) {
+      if (entity instanceof FilmLocation) {
+        return FILM_LOCATION;
+      } else if (entity instanceof Production) {
+        return PRODUCTION;
+      } else if (entity instanceof UserComment) {
+        return USER_COMMENT;
+      } else if (entity instanceof Image) {
+        return IMAGE;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The position of this change in the change sequence.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "change_sequence", nullable = false, updatable = false)
+  private Long sequence;
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16, nullable = false, updatable = false)
+  private Kind kind;
+
+  @Column(columnDefinition = "CHAR(16) FOR BIT DATA", nullable = false, updatable = false)
+  private UUID entityId;
+
+  /**
+   * Flag set when the change deleted the entity.
+   */
+  @Column(nullable = false, updatable = false)
+  private boolean deleted;
+
+  @CreationTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  @Column(nullable = false, updatable = false)
+  private Date recorded;
+
+  /**
+   * Instantiates an empty change record, for JPA.
+   */
+  protected ChangeRecord() {
+  }
+
+  /**
+   * Instantiates a new change record.
+   *
+   * @param kind the kind of entity that changed.
+   * @param entityId the internal ID of the entity.
+   * @param deleted whether the entity was deleted.
+   */
+  public ChangeRecord(Kind kind, UUID entityId, boolean deleted) {
+    this.kind = kind;
+    this.entityId = entityId;
+    this.deleted = deleted;
+  }
+
+  /**
+   * Gets the position of the change in the change sequence.
+   *
+   * @return the sequence number.
+   */
+  public Long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Gets the kind of entity that changed.
+   *
+   * @return the entity kind.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the internal ID of the entity that changed.
+   *
+   * @return the entity ID.
+   */
+  public UUID getEntityId() {
+    return entityId;
+  }
+
+  /**
+   * Gets whether the change deleted the entity.
+   *
+   * @return true for a tombstone.
+   */
+  public boolean isDeleted() {
+    return deleted;
+  }
+
+  /**
+   * Gets the time the change was recorded.
+   *
+   * @return the time of the change.
+   */
+  public Date getRecorded() {
+    return recorded;
+  }
+
+}
@@ -3,6 +3,8 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangePublisher;
+import edu.cnm.deepdive.abq_film_tour_backend.service.GeoHash;
 import io.swagger.annotations.ApiModelProperty;
 import java.net.URI;
 import java.util.Date;
@@ -10,18 +12,27 @@ import java.util.UUID;
 import javax.annotation.PostConstruct;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PostLoad;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityLinks;
 import org.springframework.lang.NonNull;
@@ -34,10 +45,28 @@ import org.springframework.stereotype.Component;
  * information from these should be referenced in comments.
  */
 @Component
-@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonIgnoreProperties(value = {"hibernateLazyInitializer", "handler"}, ignoreUnknown = true)
 @Entity
+@DynamicUpdate
+@EntityListeners(EntityChangePublisher.class)
+@Table(indexes = {
+    @Index(name = "film_location_geohash", columnList = "geohash"),
+    @Index(name = "film_location_created",
+        columnList = "created DESC, film_location_id DESC"),
+    @Index(name = "film_location_google_created",
+        columnList = "googleId, created DESC, film_location_id DESC"),
+    @Index(name = "film_location_production_created",
+        columnList = "production_production_id, created DESC, film_location_id DESC"),
+    @Index(name = "film_location_approved_created",
+        columnList = "approved, created, film_location_id")
+})
 public class FilmLocation {
 
+  /**
+   * The number of characters in the stored geohash, a cell of about 5 by 5 meters.
+   */
+  public static final int GEOHASH_PRECISION = 9;
+
   private static EntityLinks entityLinks;
 
   @PostConstruct
@@ -71,6 +100,43 @@ public class FilmLocation {
       nullable = false, updatable = false)
   private UUID id;
 
+  /**
+   * The time this location was last written.
+   */
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+
+  /**
+   * The version of this location, incremented by every write. An update made from an older version
+   * fails instead of overwriting the write in between.
+   */
+  @Version
+  @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+  private long version;
+
+  /**
+   * The OBJECTID of the city permit record this location was imported from. Null for locations
+   * submitted by users. Declared as a column constraint because Derby allows any number of nulls
+   * in a unique constraint, but not in the unique index Hibernate would otherwise create.
+   */
+  @Column(columnDefinition = "BIGINT UNIQUE")
+  private Long objectId;
+
+  /**
+   * A SHA-256 digest of the city permit record as last imported, and of whether its production was
+   * found, used to detect changes in later exports.
+   */
+  @JsonIgnore
+  @Column(length = 44)
+  private String cityRecordDigest;
+
+  /**
+   * Flag set when the city permit record this location was imported from is no longer in the
+   * city data.
+   */
+  private boolean cityDataRemoved;
+
   /**
    * The longitude coordinate for this location.
    */
@@ -80,6 +146,13 @@ public class FilmLocation {
    */
   private double latCoordinate;
 
+  /**
+   * The geohash of the coordinates, kept up to date whenever the location is written.
+   */
+  @JsonIgnore
+  @Column(length = GEOHASH_PRECISION)
+  private String geohash;
+
   /**
    * The name of the site.
    */
@@ -99,10 +172,21 @@ public class FilmLocation {
   @Transient
   private String productionId;
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  /**
+   * The production filmed at this location. Loaded only by the repository methods whose fetch plan
+   * includes it.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
   @OnDelete(action = OnDeleteAction.NO_ACTION)
   private Production production;
 
+  /**
+   * The ID of the production this location is counted under in the stored location counts: the
+   * production it was loaded with, until a write to it has been counted.
+   */
+  @Transient
+  private UUID countedProductionId;
+
   /**
    * This field exists in the city data and is used to construct a comment with information about
    * the latest shoot.
@@ -159,6 +243,26 @@ public class FilmLocation {
     this.id = id;
   }
 
+  /**
+   * Gets the time of the last write.
+   *
+   * @return the time this location was last written
+   */
+  @ApiModelProperty(value = "The time this entity was last written.", readOnly = true)
+  public Date getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the version.
+   *
+   * @return the version of the last write to this location
+   */
+  @ApiModelProperty(value = "The version of this entity, incremented by every write. Send it in a patch to detect a conflicting write.", readOnly = true)
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Gets time of creation.
    *
@@ -180,6 +284,110 @@ public class FilmLocation {
     this.created = created;
   }
 
+  /**
+   * Gets the OBJECTID of the city permit record this location was imported from.
+   *
+   * @return the city OBJECTID, or null for user submitted locations.
+   */
+  @ApiModelProperty(value = "The OBJECTID of the city permit record. Included in city data entries.", readOnly = true)
+  public Long getObjectId() {
+    return objectId;
+  }
+
+  /**
+   * Sets the OBJECTID of the city permit record this location was imported from.
+   *
+   * @param objectId the city OBJECTID.
+   */
+  public void setObjectId(Long objectId) {
+    this.objectId = objectId;
+  }
+
+  /**
+   * Gets the digest of the city permit record as last imported.
+   *
+   * @return the Base64-encoded record digest.
+   */
+  @JsonIgnore
+  public String getCityRecordDigest() {
+    return cityRecordDigest;
+  }
+
+  /**
+   * Sets the digest of the city permit record as last imported.
+   *
+   * @param cityRecordDigest the Base64-encoded record digest.
+   */
+  public void setCityRecordDigest(String cityRecordDigest) {
+    this.cityRecordDigest = cityRecordDigest;
+  }
+
+  /**
+   * Checks if the city permit record for this location has been removed from the city data.
+   *
+   * @return true if the city no longer lists this location.
+   */
+  @ApiModelProperty(value = "Whether the city has removed this permit from its data.", readOnly = true)
+  public boolean isCityDataRemoved() {
+    return cityDataRemoved;
+  }
+
+  /**
+   * Sets the flag indicating the city permit record has been removed from the city data.
+   *
+   * @param cityDataRemoved true if the city no longer lists this location.
+   */
+  public void setCityDataRemoved(boolean cityDataRemoved) {
+    this.cityDataRemoved = cityDataRemoved;
+  }
+
+  /**
+   * Gets the geohash of the coordinates.
+   *
+   * @return the geohash.
+   */
+  @JsonIgnore
+  public String getGeohash() {
+    return geohash;
+  }
+
+  /**
+   * Recomputes the geohash from the coordinates. Called before every insert and update.
+   */
+  @PrePersist
+  @PreUpdate
+  public void updateGeohash() {
+    geohash = GeoHash.encode(latCoordinate, longCoordinate, GEOHASH_PRECISION);
+  }
+
+  /**
+   * Remembers the production this location was loaded with, to count a change of production.
+   */
+  @PostLoad
+  public void rememberProduction() {
+    countedProductionId = (production != null) ? production.getId() : null;
+  }
+
+  /**
+   * Gets the ID of the production this location is counted under.
+   *
+   * @return the production ID, or null if the location is not counted under any.
+   */
+  @JsonIgnore
+  public UUID getCountedProductionId() {
+    return countedProductionId;
+  }
+
+  /**
+   * Sets the ID of the production this location is counted under, once a write is counted.
+   *
+   * @param countedProductionId the production ID, or null.
+   */
+  @JsonIgnore
+  public void setCountedProductionId(UUID countedProductionId) {
+    this.countedProductionId = countedProductionId;
+  }
+
   /**
    * Gets site name.
    *
@@ -3,13 +3,21 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.annotations.ApiModelProperty;
 import java.net.URI;
+import java.util.Date;
 import java.util.UUID;
 import javax.annotation.PostConstruct;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityLinks;
 import org.springframework.stereotype.Component;
@@ -20,6 +28,8 @@ import org.springframework.stereotype.Component;
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Component
 @Entity
+@DynamicUpdate
+@Table(indexes = @Index(name = "google_user_name", columnList = "googleName, user_id"))
 public class GoogleUser {
 
   private static EntityLinks entityLinks;
@@ -41,9 +51,25 @@ public class GoogleUser {
       nullable = false, updatable = false)
   private UUID id;
 
+  /**
+   * The time this user was last written.
+   */
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+
+  /**
+   * The version of this user, incremented by every write. An update made from an older version
+   * fails instead of overwriting the write in between.
+   */
+  @Version
+  @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+  private long version;
+
   /**
    * Persistent Google Analytics user ID to reference the user's Google account information.
    */
+  @Column(unique = true)
   private String googleId;
 
   /**
@@ -99,6 +125,26 @@ public class GoogleUser {
     this.id = id;
   }
 
+  /**
+   * Gets the time of the last write.
+   *
+   * @return the time this user was last written
+   */
+  @ApiModelProperty(value = "The time this entity was last written.", readOnly = true)
+  public Date getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the version.
+   *
+   * @return the version of the last write to this user
+   */
+  @ApiModelProperty(value = "The version of this entity, incremented by every write. Send it in a patch to detect a conflicting write.", readOnly = true)
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Gets google id - a unique identifier for Google accounts.
    *
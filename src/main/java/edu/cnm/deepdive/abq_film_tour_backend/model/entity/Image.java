@@ -3,6 +3,7 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangePublisher;
 import io.swagger.annotations.ApiModelProperty;
 import java.net.URI;
 import java.util.Date;
@@ -10,18 +11,24 @@ import java.util.UUID;
 import javax.annotation.PostConstruct;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityLinks;
 import org.springframework.lang.NonNull;
@@ -33,6 +40,16 @@ import org.springframework.stereotype.Component;
 @Component
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Entity
+@DynamicUpdate
+@EntityListeners(EntityChangePublisher.class)
+@Table(indexes = {
+    @Index(name = "image_created", columnList = "created DESC, image_id DESC"),
+    @Index(name = "image_location_created",
+        columnList = "film_location_id, created DESC, image_id DESC"),
+    @Index(name = "image_google_created",
+        columnList = "googleId, created DESC, image_id DESC"),
+    @Index(name = "image_approved_created", columnList = "approved, created, image_id")
+})
 public class Image {
 
   private static EntityLinks entityLinks;
@@ -54,6 +71,21 @@ public class Image {
       nullable = false, updatable = false)
   private UUID id;
 
+  /**
+   * The time this image was last written.
+   */
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+
+  /**
+   * The version of this image, incremented by every write. An update made from an older version
+   * fails instead of overwriting the write in between.
+   */
+  @Version
+  @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+  private long version;
+
   @NonNull
   @JsonIgnore
   @CreationTimestamp
@@ -62,7 +94,7 @@ public class Image {
   private Date created;
 
   @NonNull
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "film_location_id", nullable = false, updatable = false)
   @OnDelete(action = OnDeleteAction.CASCADE)
   private FilmLocation filmLocation;
@@ -126,6 +158,26 @@ public class Image {
     this.id = id;
   }
 
+  /**
+   * Gets the time of the last write.
+   *
+   * @return the time this image was last written
+   */
+  @ApiModelProperty(value = "The time this entity was last written.", readOnly = true)
+  public Date getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the version.
+   *
+   * @return the version of the last write to this image
+   */
+  @ApiModelProperty(value = "The version of this entity, incremented by every write. Send it in a patch to detect a conflicting write.", readOnly = true)
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Gets time of creation.
    *
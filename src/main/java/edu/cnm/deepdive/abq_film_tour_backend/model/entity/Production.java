@@ -2,16 +2,26 @@ package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.gson.annotations.SerializedName;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangePublisher;
 import io.swagger.annotations.ApiModelProperty;
 import io.swagger.annotations.ApiOperation;
 import java.net.URI;
+import java.util.Date;
 import java.util.UUID;
 import javax.annotation.PostConstruct;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityLinks;
 import org.springframework.stereotype.Component;
@@ -20,9 +30,12 @@ import org.springframework.stereotype.Component;
  * This entity represents a film or television series with an entry on IMDb. Fields are serialized
  * to be imported directly from the OMDb API.
  */
-@JsonIgnoreProperties (ignoreUnknown = true)
+@JsonIgnoreProperties(value = {"hibernateLazyInitializer", "handler"}, ignoreUnknown = true)
 @Component
 @Entity
+@DynamicUpdate
+@EntityListeners(EntityChangePublisher.class)
+@Table(indexes = @Index(name = "production_title", columnList = "title, production_id"))
 public class Production {
 
   private static EntityLinks entityLinks;
@@ -46,6 +59,21 @@ public class Production {
       nullable = false, updatable = false)
   private UUID id;
 
+  /**
+   * The time this production was last written.
+   */
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+
+  /**
+   * The version of this production, incremented by every write. An update made from an older version
+   * fails instead of overwriting the write in between.
+   */
+  @Version
+  @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+  private long version;
+
   /**
    * The 7 digit String ID starting with "tt", corresponds to i in omdbapi
    */
@@ -80,6 +108,14 @@ public class Production {
   @SerializedName("Plot")
   private String plot;
 
+  /**
+   * The number of film locations of this production. Maintained by
+   * {@link edu.cnm.deepdive.abq_film_tour_backend.service.LocationCounter} with bulk updates, so
+   * it is never written from the entity.
+   */
+  @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL", insertable = false, updatable = false)
+  private int locationCount;
+
   /**
    * Gets id.
    *
@@ -99,6 +135,26 @@ public class Production {
     this.id = id;
   }
 
+  /**
+   * Gets the time of the last write.
+   *
+   * @return the time this production was last written
+   */
+  @ApiModelProperty(value = "The time this entity was last written.", readOnly = true)
+  public Date getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the version.
+   *
+   * @return the version of the last write to this production
+   */
+  @ApiModelProperty(value = "The version of this entity, incremented by every write. Send it in a patch to detect a conflicting write.", readOnly = true)
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Gets imdb id.
    *
@@ -194,6 +250,16 @@ public class Production {
     this.plot = plot;
   }
 
+  /**
+   * Gets the number of film locations of this production.
+   *
+   * @return the location count.
+   */
+  @ApiModelProperty(value = "The number of film locations of this production.", readOnly = true)
+  public int getLocationCount() {
+    return locationCount;
+  }
+
   /**
    * Gets href.
    *
@@ -0,0 +1,204 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.entity;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.util.Date;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * A purge of everything a user has submitted, run in the background a chunk at a time. The job is
+ * stored with the number of rows deleted so far, updated in the transaction that deletes each
+ * chunk, so a job interrupted by a restart resumes where it stopped and its progress can be polled.
+ */
+@Entity
+@Table(indexes = @Index(name = "purge_job_user_created", columnList = "userId, created DESC"))
+public class PurgeJob {
+
+  /**
+   * The stages of a purge job.
+   */
+  public enum State {
+    /** The job is waiting to run. */
+    PENDING,
+    /** The job is deleting chunks. */
+    RUNNING,
+    /** Everything the user submitted has been deleted. */
+    COMPLETE,
+    /** The job stopped with an error. */
+    FAILED
+  }
+
+  @Id
+  @GeneratedValue(generator = "uuid2")
+  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @Column(name = "purge_job_id", columnDefinition = "CHAR(16) FOR BIT DATA",
+      nullable = false, updatable = false)
+  private UUID id;
+
+  @CreationTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  @Column(nullable = false, updatable = false)
+  private Date created;
+
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+
+  @Column(columnDefinition = "CHAR(16) FOR BIT DATA", nullable = false, updatable = false)
+  private UUID userId;
+
+  @Column(nullable = false, updatable = false)
+  private String googleId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16, nullable = false)
+  private State state = State.PENDING;
+
+  private long deletedFilmLocations;
+
+  private long deletedImages;
+
+  private long deletedUserComments;
+
+  /**
+   * Instantiates an empty purge job, for JPA.
+   */
+  protected PurgeJob() {
+  }
+
+  /**
+   * Instantiates a new pending purge job.
+   *
+   * @param user the user whose submissions are purged.
+   */
+  public PurgeJob(GoogleUser user) {
+    this.userId = user.getId();
+    this.googleId = user.getGoogleId();
+  }
+
+  /**
+   * Gets the internal ID of the job.
+   *
+   * @return the job ID.
+   */
+  @ApiModelProperty(value = "Internal ID of this purge job.", readOnly = true)
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Gets the time the job was started.
+   *
+   * @return the time of creation.
+   */
+  @ApiModelProperty(value = "The time this job was started.", readOnly = true)
+  public Date getCreated() {
+    return created;
+  }
+
+  /**
+   * Gets the time the job last made progress.
+   *
+   * @return the time of the last update.
+   */
+  @ApiModelProperty(value = "The time this job last made progress.", readOnly = true)
+  public Date getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Gets the internal ID of the user whose submissions are purged.
+   *
+   * @return the user ID.
+   */
+  @ApiModelProperty(value = "Internal ID of the user being purged.", readOnly = true)
+  public UUID getUserId() {
+    return userId;
+  }
+
+  /**
+   * Gets the Google ID the purged submissions were made under.
+   *
+   * @return the Google ID.
+   */
+  @ApiModelProperty(value = "The Google ID the purged submissions were made under.", readOnly = true)
+  public String getGoogleId() {
+    return googleId;
+  }
+
+  /**
+   * Gets the stage of the job.
+   *
+   * @return the job state.
+   */
+  @ApiModelProperty(value = "PENDING, RUNNING, COMPLETE or FAILED.", readOnly = true)
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Sets the stage of the job.
+   *
+   * @param state the job state.
+   */
+  public void setState(State state) {
+    this.state = state;
+  }
+
+  /**
+   * Gets the number of film locations deleted so far, including those of other users' comments
+   * and images on them.
+   *
+   * @return the film location count.
+   */
+  @ApiModelProperty(value = "The number of film locations deleted so far.", readOnly = true)
+  public long getDeletedFilmLocations() {
+    return deletedFilmLocations;
+  }
+
+  /**
+   * Gets the number of images deleted so far.
+   *
+   * @return the image count.
+   */
+  @ApiModelProperty(value = "The number of images deleted so far.", readOnly = true)
+  public long getDeletedImages() {
+    return deletedImages;
+  }
+
+  /**
+   * Gets the number of comments deleted so far.
+   *
+   * @return the comment count.
+   */
+  @ApiModelProperty(value = "The number of comments deleted so far.", readOnly = true)
+  public long getDeletedUserComments() {
+    return deletedUserComments;
+  }
+
+  /**
+   * Adds the rows deleted by a chunk to the totals.
+   *
+   * @param filmLocations the film locations deleted.
+   * @param images the images deleted.
+   * @param userComments the comments deleted.
+   */
+  public void addDeleted(int filmLocations, int images, int userComments) {
+    deletedFilmLocations += filmLocations;
+    deletedImages += images;
+    deletedUserComments += userComments;
+  }
+
+}
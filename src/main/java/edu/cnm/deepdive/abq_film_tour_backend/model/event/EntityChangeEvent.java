@@ -0,0 +1,52 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.event;
+
+/**
+ * Published whenever an entity is written or deleted, so in-memory indexes and caches can follow
+ * the database. Listeners that must only see committed changes should listen with
+ * {@code @TransactionalEventListener}.
+ */
+public class EntityChangeEvent {
+
+  /**
+   * The kinds of change.
+   */
+  public enum Type {
+    /** The entity was inserted or updated. */
+    SAVED,
+    /** The entity was deleted. */
+    DELETED
+  }
+
+  private final Object entity;
+  private final Type type;
+
+  /**
+   * Instantiates a new entity change event.
+   *
+   * @param entity the entity, in the state it was written.
+   * @param type the kind of change.
+   */
+  public EntityChangeEvent(Object entity, Type type) {
+    this.entity = entity;
+    this.type = type;
+  }
+
+  /**
+   * Gets the entity that changed.
+   *
+   * @return the entity.
+   */
+  public Object getEntity() {
+    return entity;
+  }
+
+  /**
+   * Gets the kind of change.
+   *
+   * @return the change type.
+   */
+  public Type getType() {
+    return type;
+  }
+
+}
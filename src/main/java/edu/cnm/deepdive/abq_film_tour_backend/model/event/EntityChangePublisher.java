@@ -0,0 +1,42 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.event;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that republishes the writes of the entities it is attached to as
+ * {@link EntityChangeEvent}s. Attach it with {@code @EntityListeners}. Bulk JPQL updates bypass
+ * entity listeners and are not published.
+ */
+@Component
+public class EntityChangePublisher {
+
+  private final ApplicationEventPublisher publisher;
+
+  /**
+   * Instantiates a new entity change publisher.
+   *
+   * @param publisher the Spring event publisher.
+   */
+  @Autowired
+  public EntityChangePublisher(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void saved(Object entity) {
+    publisher.publishEvent(new EntityChangeEvent(entity, Type.SAVED));
+  }
+
+  @PostRemove
+  void deleted(Object entity) {
+    publisher.publishEvent(new EntityChangeEvent(entity, Type.DELETED));
+  }
+
+}
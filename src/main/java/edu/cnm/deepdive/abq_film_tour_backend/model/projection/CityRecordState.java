@@ -0,0 +1,39 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import java.util.UUID;
+
+/**
+ * The stored state of a film location imported from the city data, as much as is needed to diff it
+ * against a new city export.
+ */
+public interface CityRecordState {
+
+  /**
+   * Gets the internal ID of the film location.
+   *
+   * @return the film location ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the OBJECTID of the city permit record.
+   *
+   * @return the city OBJECTID.
+   */
+  Long getObjectId();
+
+  /**
+   * Gets the digest of the city permit record as last imported.
+   *
+   * @return the Base64-encoded record digest.
+   */
+  String getCityRecordDigest();
+
+  /**
+   * Checks if the location has been flagged as removed from the city data.
+   *
+   * @return true if flagged as removed.
+   */
+  boolean isCityDataRemoved();
+
+}
@@ -0,0 +1,126 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A film location as listed in a compact response, which references its production by ID instead
+ * of embedding it.
+ */
+public interface CompactFilmLocation {
+
+  /**
+   * Gets the internal ID of the film location.
+   *
+   * @return the film location ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the time the film location was created, which pages are ordered by.
+   *
+   * @return the time of creation.
+   */
+  @JsonIgnore
+  Date getCreated();
+
+  /**
+   * Gets the OBJECTID of the city permit record.
+   *
+   * @return the OBJECTID, or null for user submissions.
+   */
+  Long getObjectId();
+
+  /**
+   * Gets whether the city has removed this permit from its data.
+   *
+   * @return true if the permit was removed.
+   */
+  boolean isCityDataRemoved();
+
+  /**
+   * Gets the name of the site.
+   *
+   * @return the site name.
+   */
+  String getSiteName();
+
+  /**
+   * Gets the IMDb ID of the production.
+   *
+   * @return the IMDb ID.
+   */
+  String getImdbId();
+
+  /**
+   * Gets the internal ID of the production, a key of the side-loaded productions.
+   *
+   * @return the production ID, or null if the location has no production.
+   */
+  UUID getProductionId();
+
+  /**
+   * Gets the address.
+   *
+   * @return the address.
+   */
+  String getAddress();
+
+  /**
+   * Gets the time of the last shoot in epoch date format.
+   *
+   * @return the shoot date.
+   */
+  long getShootDate();
+
+  /**
+   * Gets general information about the last shoot.
+   *
+   * @return the original details.
+   */
+  String getOriginalDetails();
+
+  /**
+   * Gets the longitude coordinate.
+   *
+   * @return the longitude.
+   */
+  double getLongCoordinate();
+
+  /**
+   * Gets the latitude coordinate.
+   *
+   * @return the latitude.
+   */
+  double getLatCoordinate();
+
+  /**
+   * Gets whether the location is approved.
+   *
+   * @return true if approved.
+   */
+  boolean isApproved();
+
+  /**
+   * Gets the Google ID of the submitter.
+   *
+   * @return the Google ID.
+   */
+  String getGoogleId();
+
+  /**
+   * Gets the name of the submitter.
+   *
+   * @return the user name.
+   */
+  String getUserName();
+
+  /**
+   * Gets the profile picture URL of the submitter.
+   *
+   * @return the picture URL.
+   */
+  String getUserPictureUrl();
+
+}
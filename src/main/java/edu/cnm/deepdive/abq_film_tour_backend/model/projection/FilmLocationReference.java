@@ -0,0 +1,24 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import java.util.UUID;
+
+/**
+ * The keys of a film location, as much as is needed to delete it in bulk and account for it.
+ */
+public interface FilmLocationReference {
+
+  /**
+   * Gets the internal ID of the film location.
+   *
+   * @return the film location ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the internal ID of the production filmed at the location.
+   *
+   * @return the production ID, or null if the location has no production.
+   */
+  UUID getProductionId();
+
+}
@@ -0,0 +1,38 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import java.util.UUID;
+
+/**
+ * The coordinates of a film location, as much as is needed to place it in the spatial index.
+ */
+public interface IndexedLocation {
+
+  /**
+   * Gets the internal ID of the film location.
+   *
+   * @return the film location ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the latitude coordinate.
+   *
+   * @return the latitude.
+   */
+  double getLatCoordinate();
+
+  /**
+   * Gets the longitude coordinate.
+   *
+   * @return the longitude.
+   */
+  double getLongCoordinate();
+
+  /**
+   * Gets the stored geohash of the coordinates.
+   *
+   * @return the geohash, or null for locations written before geohashes were stored.
+   */
+  String getGeohash();
+
+}
@@ -0,0 +1,53 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import java.util.UUID;
+
+/**
+ * A film location imported from the city data before the OBJECTID was stored, with the fields used
+ * to match it to its record in a city export.
+ */
+public interface LegacyCityRecord {
+
+  /**
+   * Gets the internal ID of the film location.
+   *
+   * @return the film location ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the site name.
+   *
+   * @return the site name.
+   */
+  String getSiteName();
+
+  /**
+   * Gets the address.
+   *
+   * @return the address.
+   */
+  String getAddress();
+
+  /**
+   * Gets the shoot date.
+   *
+   * @return the shoot date in epoch milliseconds.
+   */
+  long getShootDate();
+
+  /**
+   * Gets the latitude coordinate.
+   *
+   * @return the latitude.
+   */
+  double getLatCoordinate();
+
+  /**
+   * Gets the longitude coordinate.
+   *
+   * @return the longitude.
+   */
+  double getLongCoordinate();
+
+}
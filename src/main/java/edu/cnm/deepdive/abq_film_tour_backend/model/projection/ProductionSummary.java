@@ -0,0 +1,53 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import java.util.UUID;
+
+/**
+ * The fields of a production that are side-loaded once per response alongside the compact film
+ * locations that reference it.
+ */
+public interface ProductionSummary {
+
+  /**
+   * Gets the internal ID of the production.
+   *
+   * @return the production ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the IMDb ID.
+   *
+   * @return the IMDb ID.
+   */
+  String getImdbId();
+
+  /**
+   * Gets the title.
+   *
+   * @return the title.
+   */
+  String getTitle();
+
+  /**
+   * Gets the type: movie, series, or episode.
+   *
+   * @return the type.
+   */
+  String getType();
+
+  /**
+   * Gets the release year. May be represented as a range of years.
+   *
+   * @return the release year.
+   */
+  String getReleaseYear();
+
+  /**
+   * Gets the short plot summary.
+   *
+   * @return the plot.
+   */
+  String getPlot();
+
+}
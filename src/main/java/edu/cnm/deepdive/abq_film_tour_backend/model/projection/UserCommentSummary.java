@@ -0,0 +1,77 @@
+package edu.cnm.deepdive.abq_film_tour_backend.model.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A user comment as listed in a feed, which carries the ID and name of its film location instead
+ * of the whole location.
+ */
+public interface UserCommentSummary {
+
+  /**
+   * Gets the internal ID.
+   *
+   * @return the comment ID.
+   */
+  UUID getId();
+
+  /**
+   * Gets the time the comment was created, which pages are ordered by.
+   *
+   * @return the time of creation.
+   */
+  @JsonIgnore
+  Date getCreated();
+
+  /**
+   * Gets the text content of the comment.
+   *
+   * @return the text.
+   */
+  String getText();
+
+  /**
+   * Gets the internal ID of the film location the comment was posted on.
+   *
+   * @return the film location ID.
+   */
+  UUID getFilmLocationId();
+
+  /**
+   * Gets the site name of the film location the comment was posted on.
+   *
+   * @return the film location name.
+   */
+  String getFilmLocationName();
+
+  /**
+   * Gets whether the comment is approved.
+   *
+   * @return true if approved.
+   */
+  boolean isApproved();
+
+  /**
+   * Gets the Google ID of the author.
+   *
+   * @return the Google ID.
+   */
+  String getGoogleId();
+
+  /**
+   * Gets the name of the author.
+   *
+   * @return the user name.
+   */
+  String getUserName();
+
+  /**
+   * Gets the profile picture URL of the author.
+   *
+   * @return the picture URL.
+   */
+  String getUserPictureUrl();
+
+}
@@ -0,0 +1,191 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A small thread-safe, in-process cache with a maximum number of entries and per-entry expiry.
+ * The least recently used entry is evicted once the cache is full. Hit, miss, eviction and load
+ * statistics are kept so caches can be reported through a {@link MetricsSource}.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class BoundedCache<K, V> {
+
+  private static final long NEVER = Long.MAX_VALUE;
+
+  private final int maxSize;
+  private final long timeToLiveMillis;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long loads;
+  private long loadNanos;
+
+  /**
+   * Instantiates a new bounded cache.
+   *
+   * @param maxSize the maximum number of entries held at once.
+   * @param timeToLiveMillis how long an entry stays valid after it is written, or 0 for no limit.
+   */
+  public BoundedCache(int maxSize, long timeToLiveMillis) {
+    this.maxSize = maxSize;
+    this.timeToLiveMillis = timeToLiveMillis;
+    entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        if (size() > BoundedCache.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Gets a cached value, counting a hit or a miss.
+   *
+   * @param key the key.
+   * @return the value, or null if it is absent or expired.
+   */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+      entries.remove(key);
+      evictions++;
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * Gets a cached value, loading and caching it on a miss. The loader is called without holding
+   * the cache lock, so concurrent misses for the same key may load it more than once. Null values
+   * returned by the loader are not cached.
+   *
+   * @param key the key.
+   * @param loader computes the value for a key that is not cached.
+   * @return the cached or loaded value.
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    V value = get(key);
+    if (value == null) {
+      long start = System.nanoTime();
+      value = loader.apply(key);
+      long elapsed = System.nanoTime() - start;
+      synchronized (this) {
+        loads++;
+        loadNanos += elapsed;
+      }
+      if (value != null) {
+        put(key, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Caches a value for the configured time to live.
+   *
+   * @param key the key.
+   * @param value the value.
+   */
+  public void put(K key, V value) {
+    put(key, value, timeToLiveMillis > 0 ? System.currentTimeMillis() + timeToLiveMillis : NEVER);
+  }
+
+  /**
+   * Caches a value until a given time, or the configured time to live if that is sooner.
+   *
+   * @param key the key.
+   * @param value the value.
+   * @param expiresAt the expiry time in epoch milliseconds.
+   */
+  public synchronized void put(K key, V value, long expiresAt) {
+    if (timeToLiveMillis > 0) {
+      expiresAt = Math.min(expiresAt, System.currentTimeMillis() + timeToLiveMillis);
+    }
+    entries.put(key, new Entry<>(value, expiresAt));
+  }
+
+  /**
+   * Removes a key from the cache.
+   *
+   * @param key the key.
+   */
+  public synchronized void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Removes every entry from the cache.
+   */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Drops entries whose expiry time has passed.
+   */
+  public synchronized void cleanUp() {
+    long now = System.currentTimeMillis();
+    for (Iterator<Entry<V>> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+      if (iterator.next().expiresAt <= now) {
+        iterator.remove();
+        evictions++;
+      }
+    }
+  }
+
+  /**
+   * Gets the number of entries currently held, including any that have expired but not yet been
+   * dropped.
+   *
+   * @return the number of entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets a snapshot of the cache statistics.
+   *
+   * @return a map of statistic names to values.
+   */
+  public synchronized Map<String, Object> getStatistics() {
+    Map<String, Object> statistics = new LinkedHashMap<>();
+    long requests = hits + misses;
+    statistics.put("size", entries.size());
+    statistics.put("maxSize", maxSize);
+    statistics.put("hits", hits);
+    statistics.put("misses", misses);
+    statistics.put("hitRatio", requests == 0 ? 0.0 : (double) hits / requests);
+    statistics.put("evictions", evictions);
+    statistics.put("loads", loads);
+    statistics.put("averageLoadMillis", loads == 0 ? 0.0 : loadNanos / 1e6 / loads);
+    return statistics;
+  }
+
+  private static class Entry<V> {
+
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
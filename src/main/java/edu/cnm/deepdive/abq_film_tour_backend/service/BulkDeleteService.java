@@ -0,0 +1,213 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.FilmLocationReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Deletes film locations, comments and images with set-based {@code DELETE ... WHERE id IN}
+ * statements instead of loading and removing them one at a time. The IDs are read first, with the
+ * production of each film location, and deleted in chunks, the comments and images on a film
+ * location before the location itself. Bulk deletes bypass the entity listeners, so a
+ * {@link EntityChangeEvent} is published for each deleted row, carrying only its ID and, for a
+ * film location, the production it counted toward; that is all the change log, caches, indexes and
+ * location counts need to forget it.
+ */
+@Service
+public class BulkDeleteService {
+
+  /**
+   * The most rows read or deleted by a single statement.
+   */
+  public static final int CHUNK_SIZE = 500;
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final UserCommentRepository userCommentRepository;
+  private final ImageRepository imageRepository;
+  private final ApplicationEventPublisher publisher;
+
+  /**
+   * Instantiates a new bulk delete service.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param userCommentRepository the user comment repository.
+   * @param imageRepository the image repository.
+   * @param publisher the publisher of the deletes.
+   */
+  @Autowired
+  public BulkDeleteService(FilmLocationRepository filmLocationRepository,
+      UserCommentRepository userCommentRepository, ImageRepository imageRepository,
+      ApplicationEventPublisher publisher) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.userCommentRepository = userCommentRepository;
+    this.imageRepository = imageRepository;
+    this.publisher = publisher;
+  }
+
+  /**
+   * Deletes film locations with all the comments and images on them, in one transaction.
+   *
+   * @param ids the IDs of the film locations.
+   * @return the rows deleted, no film locations if none of them existed.
+   */
+  @Transactional
+  public Deleted deleteFilmLocations(Collection<UUID> ids) {
+    return deleteAll(ids, Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * Deletes film locations, with all the comments and images on them, and other comments and
+   * images, in one transaction. The comments and images must have been read in the same
+   * transaction, since a delete is published for each of their IDs.
+   *
+   * @param filmLocationIds the IDs of the film locations.
+   * @param imageIds the IDs of existing images.
+   * @param userCommentIds the IDs of existing comments.
+   * @return the rows deleted; film location IDs matching no row are not counted.
+   */
+  @Transactional
+  public Deleted deleteAll(Collection<UUID> filmLocationIds, Collection<UUID> imageIds,
+      Collection<UUID> userCommentIds) {
+    Deleted deleted = new Deleted();
+    deleted.userComments += deleteUserComments(new ArrayList<>(userCommentIds));
+    deleted.images += deleteImages(new ArrayList<>(imageIds));
+    List<UUID> remaining = new ArrayList<>(filmLocationIds);
+    for (int i = 0; i < remaining.size(); i += CHUNK_SIZE) {
+      deleteFilmLocations(filmLocationRepository.findReferencesByIdIn(
+          remaining.subList(i, Math.min(i + CHUNK_SIZE, remaining.size()))), deleted);
+    }
+    return deleted;
+  }
+
+  /**
+   * Deletes the next chunk of what a user has submitted, in one transaction: up to
+   * {@link #CHUNK_SIZE} each of their comments, images and film locations, with everyone's comments
+   * and images on those film locations. Calling it until it deletes nothing purges the user.
+   *
+   * @param googleId the Google ID the submissions were made under.
+   * @return the rows deleted, none once the user has nothing left.
+   */
+  @Transactional
+  public Deleted purgeChunk(String googleId) {
+    PageRequest chunk = PageRequest.of(0, CHUNK_SIZE);
+    Deleted deleted = new Deleted();
+    deleted.userComments += deleteUserComments(
+        userCommentRepository.findIdsByGoogleId(googleId, chunk));
+    deleted.images += deleteImages(imageRepository.findIdsByGoogleId(googleId, chunk));
+    deleteFilmLocations(filmLocationRepository.findReferencesByGoogleId(googleId, chunk), deleted);
+    return deleted;
+  }
+
+  private void deleteFilmLocations(List<FilmLocationReference> references, Deleted deleted) {
+    if (references.isEmpty()) {
+      return;
+    }
+    List<UUID> ids = new ArrayList<>();
+    for (FilmLocationReference reference : references) {
+      ids.add(reference.getId());
+    }
+    deleted.userComments += deleteUserComments(userCommentRepository.findIdsByFilmLocationIdIn(ids));
+    deleted.images += deleteImages(imageRepository.findIdsByFilmLocationIdIn(ids));
+    deleted.filmLocations += filmLocationRepository.deleteAllByIdIn(ids);
+    for (FilmLocationReference reference : references) {
+      FilmLocation location = new FilmLocation();
+      location.setId(reference.getId());
+      location.setCountedProductionId(reference.getProductionId());
+      publisher.publishEvent(new EntityChangeEvent(location, Type.DELETED));
+    }
+  }
+
+  private int deleteUserComments(List<UUID> ids) {
+    return delete(ids, userCommentRepository::deleteAllByIdIn, (id) -> {
+      UserComment comment = new UserComment();
+      comment.setId(id);
+      return comment;
+    });
+  }
+
+  private int deleteImages(List<UUID> ids) {
+    return delete(ids, imageRepository::deleteAllByIdIn, (id) -> {
+      Image image = new Image();
+      image.setId(id);
+      return image;
+    });
+  }
+
+  private int delete(List<UUID> ids, ToIntFunction<Collection<UUID>> statement,
+      Function<UUID, Object> stub) {
+    int count = 0;
+    for (int i = 0; i < ids.size(); i += CHUNK_SIZE) {
+      count += statement.applyAsInt(ids.subList(i, Math.min(i + CHUNK_SIZE, ids.size())));
+    }
+    for (UUID id : ids) {
+      publisher.publishEvent(new EntityChangeEvent(stub.apply(id), Type.DELETED));
+    }
+    return count;
+  }
+
+  /**
+   * The number of rows of each kind removed by a bulk delete.
+   */
+  public static class Deleted {
+
+    private int filmLocations;
+    private int images;
+    private int userComments;
+
+    /**
+     * Gets the number of film locations deleted.
+     *
+     * @return the film location count.
+     */
+    public int getFilmLocations() {
+      return filmLocations;
+    }
+
+    /**
+     * Gets the number of images deleted.
+     *
+     * @return the image count.
+     */
+    public int getImages() {
+      return images;
+    }
+
+    /**
+     * Gets the number of comments deleted.
+     *
+     * @return the comment count.
+     */
+    public int getUserComments() {
+      return userComments;
+    }
+
+    /**
+     * Checks if nothing was deleted.
+     *
+     * @return true if no rows were deleted.
+     */
+    public boolean isEmpty() {
+      return filmLocations == 0 && images == 0 && userComments == 0;
+    }
+
+  }
+
+}
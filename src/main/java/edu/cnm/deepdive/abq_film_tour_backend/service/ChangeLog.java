@@ -0,0 +1,281 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ChangeRecordRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Records committed changes to film locations, productions, comments and images in the change log
+ * read by the changes feed. The changes of a transaction are collected from
+ * {@link EntityChangeEvent}s while it runs and written in the same transaction just before it
+ * commits, so the log commits or rolls back together with the data it describes. Writes to the log
+ * are serialized by a lock taken before the records are written and released once the transaction
+ * has completed, so changes are numbered in the order they are committed and a reader never sees a
+ * number before a smaller one.
+ * Recording a change replaces the earlier changes to the same entity, which keeps the log to one
+ * entry per entity. Bulk JPQL updates bypass the events and must be recorded with
+ * {@link #recordSaved(Kind, Collection)}.
+ * <p>
+ * The log also keeps in memory the sequence number of the latest change to each kind of entity
+ * and to each entity, which serve as the versions behind conditional GETs. They are loaded from
+ * the log at startup and advanced once a change has been committed, so a version never runs ahead
+ * of the data it stands for.
+ */
+@Service
+public class ChangeLog {
+
+  private static final int DELETE_CHUNK_SIZE = 500;
+
+  private final ChangeRecordRepository changeRecordRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final AtomicLongArray versions = new AtomicLongArray(Kind.values().length);
+  private final Map<UUID, Long> entityVersions = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Instantiates a new change log.
+   *
+   * @param changeRecordRepository the change record repository.
+   * @param transactionManager the transaction manager used to write changes made outside of any
+   *     transaction.
+   */
+  @Autowired
+  public ChangeLog(ChangeRecordRepository changeRecordRepository,
+      PlatformTransactionManager transactionManager) {
+    this.changeRecordRepository = changeRecordRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  void loadVersions() {
+    for (ChangeRecord record : changeRecordRepository.findAll()) {
+      stamp(record);
+    }
+  }
+
+  /**
+   * Collects a write or delete of a recorded entity, to be written when its transaction commits.
+   *
+   * @param event the entity change.
+   */
+  @EventListener
+  public void onEntityChange(EntityChangeEvent event) {
+    Kind kind = Kind.of(event.getEntity());
+    if (kind != null) {
+      Map<UUID, Boolean> changes = new LinkedHashMap<>();
+      changes.put(idOf(event.getEntity()), event.getType() == Type.DELETED);
+      record(kind, changes);
+    }
+  }
+
+  /**
+   * Records writes that bypassed the entity change events, such as bulk updates.
+   *
+   * @param kind the kind of the entities written.
+   * @param ids the internal IDs of the entities written.
+   */
+  public void recordSaved(Kind kind, Collection<UUID> ids) {
+    Map<UUID, Boolean> changes = new LinkedHashMap<>();
+    for (UUID id : ids) {
+      changes.put(id, false);
+    }
+    record(kind, changes);
+  }
+
+  /**
+   * Gets the changes recorded after a point in the sequence, oldest first.
+   *
+   * @param since the sequence number of the last change already seen.
+   * @param limit the most changes to get.
+   * @return the changes.
+   */
+  public List<ChangeRecord> read(long since, Pageable limit) {
+    return changeRecordRepository.findAllBySequenceGreaterThanOrderBySequenceAsc(since, limit);
+  }
+
+  /**
+   * Gets the sequence number of the latest change recorded.
+   *
+   * @return the sequence number, or 0 if nothing has been recorded.
+   */
+  public long latest() {
+    Long latest = changeRecordRepository.findLatestSequence();
+    return (latest == null) ? 0 : latest;
+  }
+
+  /**
+   * Gets the version of the collections of one or more kinds of entity, which changes whenever an
+   * entity of any of those kinds is written or deleted. It is read without touching the database.
+   *
+   * @param kinds the kinds of entity.
+   * @return the sequence number of the latest change to any of the kinds, or 0 if none.
+   */
+  public long version(Kind... kinds) {
+    long version = 0;
+    for (Kind kind : kinds) {
+      version = Math.max(version, versions.get(kind.ordinal()));
+    }
+    return version;
+  }
+
+  /**
+   * Gets the version of a single entity, which changes whenever it is written or deleted. It is
+   * read without touching the database.
+   *
+   * @param id the internal ID of the entity.
+   * @return the sequence number of the latest change to the entity, or 0 if none.
+   */
+  public long version(UUID id) {
+    return entityVersions.getOrDefault(id, 0L);
+  }
+
+  private void record(Kind kind, Map<UUID, Boolean> changes) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      Map<Kind, Map<UUID, Boolean>> committed = new EnumMap<>(Kind.class);
+      committed.put(kind, changes);
+      writeLock.lock();
+      try {
+        stampAll(transactionTemplate.execute((status) -> write(committed)));
+      } finally {
+        writeLock.unlock();
+      }
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Map<Kind, Map<UUID, Boolean>> pending =
+        (Map<Kind, Map<UUID, Boolean>>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new EnumMap<>(Kind.class);
+      PendingChanges process = new PendingChanges(pending);
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+              process.unlock();
+            }
+          });
+      ActionQueue actions = entityManager.unwrap(SessionImplementor.class).getActionQueue();
+      actions.registerProcess((BeforeTransactionCompletionProcess) process);
+      actions.registerProcess((AfterTransactionCompletionProcess) process);
+    }
+    pending.computeIfAbsent(kind, (k) -> new LinkedHashMap<>()).putAll(changes);
+  }
+
+  private List<ChangeRecord> write(Map<Kind, Map<UUID, Boolean>> changes) {
+    List<ChangeRecord> records = new ArrayList<>();
+    for (Map.Entry<Kind, Map<UUID, Boolean>> entry : changes.entrySet()) {
+      List<UUID> ids = new ArrayList<>(entry.getValue().keySet());
+      for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+        changeRecordRepository.deleteAllByKindAndEntityIdIn(entry.getKey(),
+            ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
+      }
+      for (Map.Entry<UUID, Boolean> change : entry.getValue().entrySet()) {
+        records.add(new ChangeRecord(entry.getKey(), change.getKey(), change.getValue()));
+      }
+    }
+    changeRecordRepository.saveAll(records);
+    return records;
+  }
+
+  private void stampAll(List<ChangeRecord> records) {
+    for (ChangeRecord record : records) {
+      stamp(record);
+    }
+  }
+
+  private void stamp(ChangeRecord record) {
+    entityVersions.put(record.getEntityId(), record.getSequence());
+    versions.accumulateAndGet(record.getKind().ordinal(), record.getSequence(), Math::max);
+  }
+
+  /**
+   * Writes the changes collected in a transaction as the last step before it commits, once the
+   * session has been flushed, so the changes of the final flush are included, and releases the log
+   * lock as soon as the transaction has committed or rolled back. The lock is taken only after the
+   * data rows have been written, so a transaction waiting for it never holds rows of the log.
+   */
+  private class PendingChanges
+      implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+    private final Map<Kind, Map<UUID, Boolean>> changes;
+    private List<ChangeRecord> written;
+    private boolean locked;
+
+    private PendingChanges(Map<Kind, Map<UUID, Boolean>> changes) {
+      this.changes = changes;
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+      writeLock.lock();
+      locked = true;
+      written = write(changes);
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success,
+        SharedSessionContractImplementor session) {
+      if (success && written != null) {
+        stampAll(written);
+      }
+      unlock();
+    }
+
+    private void unlock() {
+      if (locked) {
+        locked = false;
+        writeLock.unlock();
+      }
+    }
+
+  }
+
+  private static UUID idOf(Object entity) {
+    if (entity instanceof FilmLocation) {
+      return ((FilmLocation) entity).getId();
+    } else if (entity instanceof Production) {
+      return ((Production) entity).getId();
+    } else if (entity instanceof UserComment) {
+      return ((UserComment) entity).getId();
+    }
+    return ((Image) entity).getId();
+  }
+
+}
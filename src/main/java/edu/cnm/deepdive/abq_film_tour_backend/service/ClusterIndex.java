@@ -0,0 +1,323 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.IndexedLocation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Precomputed map clusters of film locations for every zoom level. At each zoom the Web Mercator
+ * map is divided into square cells of 64 pixels, and each cell holds the number of locations in it
+ * and the sum of their coordinates. A cell at one zoom is exactly four cells of the next, so a
+ * location is added to or removed from one cell per zoom level. The clusters are built from the
+ * database at startup and follow every committed write to a film location through
+ * {@link EntityChangeEvent}s, so a query only reads the cells in view.
+ */
+@Service
+public class ClusterIndex implements MetricsSource {
+
+  private static final String METRICS_NAME = "clusterIndex";
+  private static final int CELLS_PER_TILE_SHIFT = 2; // 256 pixel tiles of 64 pixel cells
+  private static final double MAX_LATITUDE = 85.05112878;
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final int maxZoom;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<Map<Long, Cell>> levels;
+  private final Map<UUID, double[]> points = new HashMap<>();
+  private final AtomicLong queries = new AtomicLong();
+  private final AtomicLong queryNanos = new AtomicLong();
+
+  /**
+   * Instantiates a new cluster index.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param maxZoom the deepest zoom level clustered; deeper zooms are served from this level.
+   */
+  @Autowired
+  public ClusterIndex(FilmLocationRepository filmLocationRepository,
+      @Value("${clusters.maxZoom}") int maxZoom) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.maxZoom = maxZoom;
+    levels = new ArrayList<>(maxZoom + 1);
+    for (int zoom = 0; zoom <= maxZoom; zoom++) {
+      levels.add(new HashMap<>());
+    }
+  }
+
+  @PostConstruct
+  void build() {
+    lock.writeLock().lock();
+    try {
+      points.clear();
+      for (Map<Long, Cell> level : levels) {
+        level.clear();
+      }
+      for (IndexedLocation location : filmLocationRepository.findAllIndexedLocations()) {
+        add(location.getId(), location.getLatCoordinate(), location.getLongCoordinate());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Follows committed writes to film locations.
+   *
+   * @param event the entity change.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    if (event.getEntity() instanceof FilmLocation) {
+      FilmLocation location = (FilmLocation) event.getEntity();
+      lock.writeLock().lock();
+      try {
+        remove(location.getId());
+        if (event.getType() == Type.SAVED) {
+          add(location.getId(), location.getLatCoordinate(), location.getLongCoordinate());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Gets the deepest zoom level clustered.
+   *
+   * @return the maximum zoom.
+   */
+  public int getMaxZoom() {
+    return maxZoom;
+  }
+
+  /**
+   * Gets the clusters in view at a zoom level.
+   *
+   * @param zoom the map zoom level; levels deeper than {@link #getMaxZoom()} use the deepest.
+   * @param minLat the southern edge of the viewport.
+   * @param minLng the western edge of the viewport.
+   * @param maxLat the northern edge of the viewport.
+   * @param maxLng the eastern edge of the viewport.
+   * @return the clusters whose cells overlap the viewport.
+   */
+  public List<Cluster> clusters(int zoom, double minLat, double minLng, double maxLat,
+      double maxLng) {
+    long start = System.nanoTime();
+    int level = Math.max(0, Math.min(zoom, maxZoom));
+    int shift = level + CELLS_PER_TILE_SHIFT;
+    long x0 = cellX(minLng, shift);
+    long x1 = cellX(maxLng, shift);
+    long y0 = cellY(maxLat, shift);
+    long y1 = cellY(minLat, shift);
+    List<Cluster> clusters = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      Map<Long, Cell> cells = levels.get(level);
+      if ((x1 - x0 + 1) * (y1 - y0 + 1) <= cells.size()) {
+        for (long x = x0; x <= x1; x++) {
+          for (long y = y0; y <= y1; y++) {
+            Cell cell = cells.get(key(x, y, shift));
+            if (cell != null) {
+              clusters.add(cell.toCluster(x, y, shift));
+            }
+          }
+        }
+      } else {
+        for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+          long x = entry.getKey() >>> shift;
+          long y = entry.getKey() & ((1L << shift) - 1);
+          if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+            clusters.add(entry.getValue().toCluster(x, y, shift));
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    queries.incrementAndGet();
+    queryNanos.addAndGet(System.nanoTime() - start);
+    return clusters;
+  }
+
+  private void add(UUID id, double lat, double lng) {
+    points.put(id, new double[]{lat, lng});
+    int finest = maxZoom + CELLS_PER_TILE_SHIFT;
+    long x = cellX(lng, finest);
+    long y = cellY(lat, finest);
+    for (int level = maxZoom; level >= 0; level--) {
+      int shift = level + CELLS_PER_TILE_SHIFT;
+      long levelX = x >>> (finest - shift);
+      long levelY = y >>> (finest - shift);
+      levels.get(level).computeIfAbsent(key(levelX, levelY, shift), (key) -> new Cell())
+          .add(lat, lng);
+    }
+  }
+
+  private void remove(UUID id) {
+    double[] point = points.remove(id);
+    if (point != null) {
+      int finest = maxZoom + CELLS_PER_TILE_SHIFT;
+      long x = cellX(point[1], finest);
+      long y = cellY(point[0], finest);
+      for (int level = maxZoom; level >= 0; level--) {
+        int shift = level + CELLS_PER_TILE_SHIFT;
+        long key = key(x >>> (finest - shift), y >>> (finest - shift), shift);
+        Map<Long, Cell> cells = levels.get(level);
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(point[0], point[1])) {
+          cells.remove(key);
+        }
+      }
+    }
+  }
+
+  private static long key(long x, long y, int shift) {
+    return (x << shift) | y;
+  }
+
+  private static long cellX(double lng, int shift) {
+    long cells = 1L << shift;
+    long x = (long) Math.floor((lng + 180) / 360 * cells);
+    return Math.max(0, Math.min(cells - 1, x));
+  }
+
+  private static long cellY(double lat, int shift) {
+    long cells = 1L << shift;
+    double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat))));
+    double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    return Math.max(0, Math.min(cells - 1, (long) Math.floor(y * cells)));
+  }
+
+  private static double cellLng(long x, int shift) {
+    return x * 360.0 / (1L << shift) - 180;
+  }
+
+  private static double cellLat(long y, int shift) {
+    double n = Math.PI - 2 * Math.PI * y / (1L << shift);
+    return Math.toDegrees(Math.atan(Math.sinh(n)));
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      metrics.put("locations", points.size());
+      long cells = 0;
+      for (Map<Long, Cell> level : levels) {
+        cells += level.size();
+      }
+      metrics.put("cells", cells);
+    } finally {
+      lock.readLock().unlock();
+    }
+    long count = queries.get();
+    metrics.put("queries", count);
+    metrics.put("averageQueryMillis", count == 0 ? 0 : queryNanos.get() / 1e6 / count);
+    return metrics;
+  }
+
+  private static class Cell {
+
+    private int count;
+    private double sumLat;
+    private double sumLng;
+
+    private void add(double lat, double lng) {
+      count++;
+      sumLat += lat;
+      sumLng += lng;
+    }
+
+    private boolean remove(double lat, double lng) {
+      count--;
+      sumLat -= lat;
+      sumLng -= lng;
+      return count == 0;
+    }
+
+    private Cluster toCluster(long x, long y, int shift) {
+      return new Cluster(sumLat / count, sumLng / count, count, cellLat(y + 1, shift),
+          cellLng(x, shift), cellLat(y, shift), cellLng(x + 1, shift));
+    }
+  }
+
+  /**
+   * A group of film locations shown as one marker: the centroid of the locations, how many there
+   * are, and the bounds of the cell they share, which a client can zoom to.
+   */
+  public static class Cluster {
+
+    private final double latCoordinate;
+    private final double longCoordinate;
+    private final int count;
+    private final double[] bounds;
+
+    Cluster(double latCoordinate, double longCoordinate, int count, double minLat,
+        double minLng, double maxLat, double maxLng) {
+      this.latCoordinate = latCoordinate;
+      this.longCoordinate = longCoordinate;
+      this.count = count;
+      this.bounds = new double[]{minLng, minLat, maxLng, maxLat};
+    }
+
+    /**
+     * Gets the latitude of the centroid of the locations.
+     *
+     * @return the centroid latitude.
+     */
+    public double getLatCoordinate() {
+      return latCoordinate;
+    }
+
+    /**
+     * Gets the longitude of the centroid of the locations.
+     *
+     * @return the centroid longitude.
+     */
+    public double getLongCoordinate() {
+      return longCoordinate;
+    }
+
+    /**
+     * Gets the number of locations in the cluster.
+     *
+     * @return the location count.
+     */
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Gets the bounds of the cluster's cell, in the same west,south,east,north order as a bbox
+     * query.
+     *
+     * @return the cell bounds in degrees.
+     */
+    public double[] getBounds() {
+      return bounds;
+    }
+  }
+
+}
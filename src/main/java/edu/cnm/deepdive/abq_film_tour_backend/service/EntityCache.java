@@ -0,0 +1,129 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * A read-through cache of productions and film locations by ID, for the lookups that every item
+ * and nested-resource request makes. Film locations are cached with their production loaded. An
+ * entry is dropped once a write to its entity commits, and every film location is dropped once a
+ * production is written, since each carries its production. Bulk JPQL updates bypass the events
+ * and must be followed by {@link #invalidateProductions(Collection)} or
+ * {@link #invalidateFilmLocations(Collection)}; a production counted by such an update is dropped,
+ * but the copies carried by cached film locations keep their count until they expire. The time to
+ * live bounds how long a read that raced a write can serve the old row. Cached entities are
+ * detached and shared between requests, so callers must not modify them.
+ */
+@Service
+public class EntityCache implements MetricsSource {
+
+  private static final String METRICS_NAME = "entityCache";
+
+  private final ProductionRepository productionRepository;
+  private final FilmLocationRepository filmLocationRepository;
+  private final BoundedCache<UUID, Production> productions;
+  private final BoundedCache<UUID, FilmLocation> filmLocations;
+
+  /**
+   * Instantiates a new entity cache.
+   *
+   * @param productionRepository the production repository.
+   * @param filmLocationRepository the film location repository.
+   * @param cacheSize the maximum number of each kind of entity to hold.
+   * @param cacheTtlSeconds how long an entity is served before it is re-read.
+   */
+  @Autowired
+  public EntityCache(ProductionRepository productionRepository,
+      FilmLocationRepository filmLocationRepository,
+      @Value("${entities.cacheSize}") int cacheSize,
+      @Value("${entities.cacheTtlSeconds}") long cacheTtlSeconds) {
+    this.productionRepository = productionRepository;
+    this.filmLocationRepository = filmLocationRepository;
+    long ttlMillis = TimeUnit.SECONDS.toMillis(cacheTtlSeconds);
+    productions = new BoundedCache<>(cacheSize, ttlMillis);
+    filmLocations = new BoundedCache<>(cacheSize, ttlMillis);
+  }
+
+  /**
+   * Gets a production, reading it on a miss.
+   *
+   * @param id the internal ID of the production.
+   * @return the production, or null if there is none with the ID.
+   */
+  public Production production(UUID id) {
+    return productions.get(id, (key) -> productionRepository.findById(key).orElse(null));
+  }
+
+  /**
+   * Gets a film location with its production, reading it on a miss.
+   *
+   * @param id the internal ID of the film location.
+   * @return the film location, or null if there is none with the ID.
+   */
+  public FilmLocation filmLocation(UUID id) {
+    return filmLocations.get(id, (key) -> filmLocationRepository.findById(key).orElse(null));
+  }
+
+  /**
+   * Drops productions written by a bulk update.
+   *
+   * @param ids the internal IDs of the productions.
+   */
+  public void invalidateProductions(Collection<UUID> ids) {
+    for (UUID id : ids) {
+      productions.invalidate(id);
+    }
+  }
+
+  /**
+   * Drops film locations written by a bulk update.
+   *
+   * @param ids the internal IDs of the film locations.
+   */
+  public void invalidateFilmLocations(Collection<UUID> ids) {
+    for (UUID id : ids) {
+      filmLocations.invalidate(id);
+    }
+  }
+
+  /**
+   * Drops the entries of committed writes to productions and film locations.
+   *
+   * @param event the entity change.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    if (event.getEntity() instanceof FilmLocation) {
+      filmLocations.invalidate(((FilmLocation) event.getEntity()).getId());
+    } else if (event.getEntity() instanceof Production) {
+      productions.invalidate(((Production) event.getEntity()).getId());
+      filmLocations.invalidateAll();
+    }
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("productions", productions.getStatistics());
+    metrics.put("filmLocations", filmLocations.getStatistics());
+    return metrics;
+  }
+
+}
@@ -0,0 +1,131 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Encodes coordinates as geohashes: base 32 strings naming nested cells of the map, where every
+ * extra character narrows a cell by a factor of 32 and a shared prefix means a shared cell.
+ */
+public final class GeoHash {
+
+  private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+  private static final int BITS_PER_CHAR = 5;
+
+  private GeoHash() {
+  }
+
+  /**
+   * Encodes a coordinate as a geohash.
+   *
+   * @param latitude the latitude, between -90 and 90.
+   * @param longitude the longitude, between -180 and 180.
+   * @param precision the number of characters in the geohash.
+   * @return the geohash of the cell containing the coordinate.
+   */
+  public static String encode(double latitude, double longitude, int precision) {
+    double minLat = -90;
+    double maxLat = 90;
+    double minLng = -180;
+    double maxLng = 180;
+    StringBuilder hash = new StringBuilder(precision);
+    boolean evenBit = true;
+    int bit = 0;
+    int ch = 0;
+    while (hash.length() < precision) {
+      if (evenBit) {
+        double mid = (minLng + maxLng) / 2;
+        if (longitude >= mid) {
+          ch = (ch << 1) | 1;
+          minLng = mid;
+        } else {
+          ch <<= 1;
+          maxLng = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2;
+        if (latitude >= mid) {
+          ch = (ch << 1) | 1;
+          minLat = mid;
+        } else {
+          ch <<= 1;
+          maxLat = mid;
+        }
+      }
+      evenBit = !evenBit;
+      if (++bit == BITS_PER_CHAR) {
+        hash.append(BASE32.charAt(ch));
+        bit = 0;
+        ch = 0;
+      }
+    }
+    return hash.toString();
+  }
+
+  /**
+   * Gets the height of a cell at a given precision.
+   *
+   * @param precision the number of characters in the geohash.
+   * @return the cell height in degrees of latitude.
+   */
+  public static double cellHeight(int precision) {
+    return 180 / Math.pow(2, (precision * BITS_PER_CHAR) / 2);
+  }
+
+  /**
+   * Gets the width of a cell at a given precision.
+   *
+   * @param precision the number of characters in the geohash.
+   * @return the cell width in degrees of longitude.
+   */
+  public static double cellWidth(int precision) {
+    return 360 / Math.pow(2, (precision * BITS_PER_CHAR + 1) / 2);
+  }
+
+  /**
+   * Counts the cells at a given precision needed to cover a bounding box, without listing them.
+   *
+   * @param minLat the southern edge.
+   * @param minLng the western edge.
+   * @param maxLat the northern edge.
+   * @param maxLng the eastern edge.
+   * @param precision the number of characters in the geohash.
+   * @return an upper bound on the size of {@link #cover}.
+   */
+  public static long coverSize(double minLat, double minLng, double maxLat, double maxLng,
+      int precision) {
+    long rows = (long) Math.ceil((maxLat - minLat) / cellHeight(precision)) + 1;
+    long columns = (long) Math.ceil((maxLng - minLng) / cellWidth(precision)) + 1;
+    return rows * columns;
+  }
+
+  /**
+   * Lists the cells at a given precision that cover a bounding box.
+   *
+   * @param minLat the southern edge.
+   * @param minLng the western edge.
+   * @param maxLat the northern edge.
+   * @param maxLng the eastern edge.
+   * @param precision the number of characters in the geohash.
+   * @return the geohashes of every cell overlapping the box.
+   */
+  public static Set<String> cover(double minLat, double minLng, double maxLat, double maxLng,
+      int precision) {
+    double height = cellHeight(precision);
+    double width = cellWidth(precision);
+    Set<String> cells = new LinkedHashSet<>();
+    for (double lat = minLat; ; lat = Math.min(lat + height, maxLat)) {
+      for (double lng = minLng; ; lng = Math.min(lng + width, maxLng)) {
+        cells.add(encode(lat, lng, precision));
+        if (lng >= maxLng) {
+          break;
+        }
+      }
+      if (lat >= maxLat) {
+        break;
+      }
+    }
+    return cells;
+  }
+
+}
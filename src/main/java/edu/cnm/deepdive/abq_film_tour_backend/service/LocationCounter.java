@@ -0,0 +1,146 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the stored location count of each production, so listing productions with their counts
+ * needs no {@code COUNT} per row. Each film location remembers the production it was loaded with;
+ * a write that changes its production, an insert or a delete is turned into a change to the count
+ * of the productions involved. The changes of a transaction are summed while it runs and applied
+ * with bulk updates once it commits, then recorded in the {@link ChangeLog} so conditional GETs
+ * and the changes feed see the new counts. The counts are recomputed from the film locations at
+ * startup, which also fills them in for databases written before they existed.
+ */
+@Service
+public class LocationCounter {
+
+  private final ProductionRepository productionRepository;
+  private final ChangeLog changeLog;
+  private final EntityCache entityCache;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Instantiates a new location counter.
+   *
+   * @param productionRepository the production repository.
+   * @param changeLog the change log the counted productions are recorded in.
+   * @param entityCache the cache the counted productions are dropped from.
+   * @param transactionManager the transaction manager the counts are written with.
+   */
+  @Autowired
+  public LocationCounter(ProductionRepository productionRepository, ChangeLog changeLog,
+      EntityCache entityCache, PlatformTransactionManager transactionManager) {
+    this.productionRepository = productionRepository;
+    this.changeLog = changeLog;
+    this.entityCache = entityCache;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate
+        .setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @PostConstruct
+  void recount() {
+    transactionTemplate.execute((status) -> productionRepository.recountLocations());
+  }
+
+  /**
+   * Counts a write or delete of a film location, to be applied once its transaction commits.
+   *
+   * @param event the entity change.
+   */
+  @EventListener
+  public void onEntityChange(EntityChangeEvent event) {
+    if (!(event.getEntity() instanceof FilmLocation)) {
+      return;
+    }
+    FilmLocation location = (FilmLocation) event.getEntity();
+    UUID counted = location.getCountedProductionId();
+    UUID current = (event.getType() == Type.SAVED && location.getProduction() != null)
+        ? location.getProduction().getId() : null;
+    if (Objects.equals(counted, current)) {
+      return;
+    }
+    location.setCountedProductionId(current);
+    Map<UUID, Integer> deltas = new HashMap<>();
+    if (counted != null) {
+      deltas.put(counted, -1);
+    }
+    if (current != null) {
+      deltas.put(current, 1);
+    }
+    record(deltas);
+  }
+
+  private void record(Map<UUID, Integer> deltas) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply(deltas);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Map<UUID, Integer> pending =
+        (Map<UUID, Integer>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      Map<UUID, Integer> collected = new HashMap<>();
+      TransactionSynchronizationManager.bindResource(this, collected);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              TransactionSynchronizationManager.unbindResourceIfPossible(LocationCounter.this);
+              apply(collected);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(LocationCounter.this);
+            }
+          });
+      pending = collected;
+    }
+    for (Map.Entry<UUID, Integer> delta : deltas.entrySet()) {
+      pending.merge(delta.getKey(), delta.getValue(), Integer::sum);
+    }
+  }
+
+  private void apply(Map<UUID, Integer> deltas) {
+    Map<Integer, List<UUID>> byDelta = new HashMap<>();
+    for (Map.Entry<UUID, Integer> delta : deltas.entrySet()) {
+      if (delta.getValue() != 0) {
+        byDelta.computeIfAbsent(delta.getValue(), (key) -> new ArrayList<>()).add(delta.getKey());
+      }
+    }
+    if (byDelta.isEmpty()) {
+      return;
+    }
+    List<UUID> counted = new ArrayList<>();
+    transactionTemplate.execute((status) -> {
+      for (Map.Entry<Integer, List<UUID>> group : byDelta.entrySet()) {
+        productionRepository.addToLocationCount(group.getKey(), group.getValue());
+        counted.addAll(group.getValue());
+      }
+      changeLog.recordSaved(Kind.PRODUCTION, counted);
+      return null;
+    });
+    entityCache.invalidateProductions(counted);
+  }
+
+}
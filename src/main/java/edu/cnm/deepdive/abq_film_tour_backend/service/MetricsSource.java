@@ -0,0 +1,24 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import java.util.Map;
+
+/**
+ * A component that reports runtime statistics, such as cache hit ratios, on the metrics endpoint.
+ */
+public interface MetricsSource {
+
+  /**
+   * Gets the name the statistics are reported under.
+   *
+   * @return the name of this source.
+   */
+  String getMetricsName();
+
+  /**
+   * Gets a snapshot of the current statistics.
+   *
+   * @return a map of statistic names to values.
+   */
+  Map<String, Object> getMetrics();
+
+}
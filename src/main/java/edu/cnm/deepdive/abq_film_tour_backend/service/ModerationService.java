@@ -0,0 +1,162 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Approves or rejects pending film locations, images and comments many at a time. Only the IDs
+ * still pending are acted on, read with one {@code IN} query per kind. Approving sets the flag with
+ * one bulk {@code UPDATE} per kind and records the approved rows in the {@link ChangeLog};
+ * rejecting deletes them with the {@link BulkDeleteService}, a rejected film location taking the
+ * comments and images on it along.
+ */
+@Service
+public class ModerationService {
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final ImageRepository imageRepository;
+  private final UserCommentRepository userCommentRepository;
+  private final BulkDeleteService bulkDeleteService;
+  private final ChangeLog changeLog;
+  private final EntityCache entityCache;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Instantiates a new moderation service.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param imageRepository the image repository.
+   * @param userCommentRepository the user comment repository.
+   * @param bulkDeleteService the service deleting rejected rows.
+   * @param changeLog the change log the approved rows are recorded in.
+   * @param entityCache the cache the approved film locations are dropped from.
+   * @param transactionManager the transaction manager each decision is made in.
+   */
+  @Autowired
+  public ModerationService(FilmLocationRepository filmLocationRepository,
+      ImageRepository imageRepository, UserCommentRepository userCommentRepository,
+      BulkDeleteService bulkDeleteService, ChangeLog changeLog, EntityCache entityCache,
+      PlatformTransactionManager transactionManager) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.imageRepository = imageRepository;
+    this.userCommentRepository = userCommentRepository;
+    this.bulkDeleteService = bulkDeleteService;
+    this.changeLog = changeLog;
+    this.entityCache = entityCache;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Approves pending film locations, images and comments, in one transaction.
+   *
+   * @param filmLocationIds the IDs of the film locations.
+   * @param imageIds the IDs of the images.
+   * @param userCommentIds the IDs of the comments.
+   * @return the IDs that were pending and are now approved.
+   */
+  public Decided approve(Collection<UUID> filmLocationIds, Collection<UUID> imageIds,
+      Collection<UUID> userCommentIds) {
+    Decided decided = transactionTemplate.execute((status) -> new Decided(
+        approve(Kind.FILM_LOCATION, filmLocationIds, filmLocationRepository::findPendingIdsByIdIn,
+            filmLocationRepository::approveAllByIdIn),
+        approve(Kind.IMAGE, imageIds, imageRepository::findPendingIdsByIdIn,
+            imageRepository::approveAllByIdIn),
+        approve(Kind.USER_COMMENT, userCommentIds, userCommentRepository::findPendingIdsByIdIn,
+            userCommentRepository::approveAllByIdIn)));
+    entityCache.invalidateFilmLocations(decided.getFilmLocations());
+    return decided;
+  }
+
+  /**
+   * Rejects pending film locations, images and comments by deleting them, in one transaction.
+   *
+   * @param filmLocationIds the IDs of the film locations.
+   * @param imageIds the IDs of the images.
+   * @param userCommentIds the IDs of the comments.
+   * @return the IDs that were pending and are now deleted.
+   */
+  public Decided reject(Collection<UUID> filmLocationIds, Collection<UUID> imageIds,
+      Collection<UUID> userCommentIds) {
+    return transactionTemplate.execute((status) -> {
+      Decided decided = new Decided(
+          pending(filmLocationIds, filmLocationRepository::findPendingIdsByIdIn),
+          pending(imageIds, imageRepository::findPendingIdsByIdIn),
+          pending(userCommentIds, userCommentRepository::findPendingIdsByIdIn));
+      bulkDeleteService.deleteAll(decided.getFilmLocations(), decided.getImages(),
+          decided.getUserComments());
+      return decided;
+    });
+  }
+
+  private List<UUID> approve(Kind kind, Collection<UUID> ids,
+      Function<Collection<UUID>, List<UUID>> query, ToIntFunction<Collection<UUID>> statement) {
+    List<UUID> pending = pending(ids, query);
+    if (!pending.isEmpty()) {
+      statement.applyAsInt(pending);
+      changeLog.recordSaved(kind, pending);
+    }
+    return pending;
+  }
+
+  private static List<UUID> pending(Collection<UUID> ids,
+      Function<Collection<UUID>, List<UUID>> query) {
+    return ids.isEmpty() ? Collections.emptyList() : query.apply(ids);
+  }
+
+  /**
+   * The IDs of each kind acted on by a moderation decision.
+   */
+  public static class Decided {
+
+    private final List<UUID> filmLocations;
+    private final List<UUID> images;
+    private final List<UUID> userComments;
+
+    private Decided(List<UUID> filmLocations, List<UUID> images, List<UUID> userComments) {
+      this.filmLocations = filmLocations;
+      this.images = images;
+      this.userComments = userComments;
+    }
+
+    /**
+     * Gets the IDs of the film locations acted on.
+     *
+     * @return the film location IDs.
+     */
+    public List<UUID> getFilmLocations() {
+      return filmLocations;
+    }
+
+    /**
+     * Gets the IDs of the images acted on.
+     *
+     * @return the image IDs.
+     */
+    public List<UUID> getImages() {
+      return images;
+    }
+
+    /**
+     * Gets the IDs of the comments acted on.
+     *
+     * @return the comment IDs.
+     */
+    public List<UUID> getUserComments() {
+      return userComments;
+    }
+
+  }
+
+}
@@ -0,0 +1,368 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * A disk cache of production posters from the OMDb poster API, keyed by IMDb ID. Posters are
+ * fetched once through a single shared, connection-pooled client and kept as files, so a warm
+ * poster is served straight from disk. Concurrent requests for a poster that is not cached yet
+ * share one fetch. The least recently used posters are dropped once the cache grows past its size
+ * cap, and posters that OMDb does not have are remembered for a while so they are not asked for on
+ * every view; other upstream failures are not remembered. The file of a dropped poster is only
+ * deleted after a grace period, because a request that was handed the poster just before may not
+ * have opened the file yet: the servlet container opens it for sendfile after the request handler
+ * returns.
+ */
+@Service
+public class PosterStore implements MetricsSource {
+
+  private static final String METRICS_NAME = "posters";
+  private static final Pattern IMDB_ID = Pattern.compile("tt\\d+");
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int MISSING_CACHE_SIZE = 1000;
+  private static final long MISSING_TTL_MILLIS = 60 * 60 * 1000L;
+  private static final Map<String, String> EXTENSIONS = new HashMap<>();
+
+  static {
+    EXTENSIONS.put("image/jpeg", ".jpg");
+    EXTENSIONS.put("image/png", ".png");
+    EXTENSIONS.put("image/gif", ".gif");
+  }
+
+  private final OkHttpClient client = new OkHttpClient();
+  private final String apikey;
+  private final String urlFormat;
+  private final Path directory;
+  private final long maxBytes;
+  private final long deleteDelayMillis;
+  private final LinkedHashMap<String, Poster> posters = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, CompletableFuture<Poster>> fetches = new ConcurrentHashMap<>();
+  private final LinkedHashMap<Path, Long> retired = new LinkedHashMap<>();
+  private final BoundedCache<String, Boolean> missing =
+      new BoundedCache<>(MISSING_CACHE_SIZE, MISSING_TTL_MILLIS);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong fetched = new AtomicLong();
+  private final AtomicLong sharedFetches = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private long bytes;
+
+  /**
+   * Instantiates a new poster store.
+   *
+   * @param apikey the OMDb API key.
+   * @param urlFormat the poster URL, with placeholders for the IMDb ID and the API key.
+   * @param directory the directory posters are kept in.
+   * @param maxBytes the most bytes of posters kept in the cache.
+   * @param deleteDelaySeconds how long the file of a dropped poster is kept for requests that are
+   * still sending it.
+   */
+  @Autowired
+  public PosterStore(@Qualifier("apiKey") String apikey,
+      @Value("${posters.url}") String urlFormat,
+      @Value("${posters.directory}") String directory,
+      @Value("${posters.maxBytes}") long maxBytes,
+      @Value("${posters.deleteDelaySeconds}") long deleteDelaySeconds) {
+    this.apikey = apikey;
+    this.urlFormat = urlFormat;
+    this.directory = Paths.get(directory);
+    this.maxBytes = maxBytes;
+    this.deleteDelayMillis = TimeUnit.SECONDS.toMillis(deleteDelaySeconds);
+  }
+
+  /**
+   * Picks up the posters already on disk, oldest first, so a restart starts warm.
+   *
+   * @throws IOException if the directory cannot be created or read.
+   */
+  @PostConstruct
+  void load() throws IOException {
+    Files.createDirectories(directory);
+    List<Poster> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String contentType = (dot < 0) ? null : contentType(name.substring(dot));
+        if (contentType == null) {
+          Files.deleteIfExists(file);
+        } else {
+          found.add(new Poster(name.substring(0, dot), file, contentType));
+        }
+      }
+    }
+    found.sort(Comparator.comparingLong(Poster::getLastModified));
+    synchronized (this) {
+      for (Poster poster : found) {
+        add(poster);
+      }
+    }
+  }
+
+  /**
+   * Gets the poster of a production, fetching it from OMDb if it is not cached.
+   *
+   * @param imdbId the IMDb ID of the production.
+   * @return the cached poster, or null if OMDb has none.
+   * @throws IOException if OMDb cannot be reached or the poster cannot be written.
+   */
+  public Poster get(String imdbId) throws IOException {
+    if (imdbId == null || !IMDB_ID.matcher(imdbId).matches()) {
+      return null;
+    }
+    Poster poster = cached(imdbId);
+    if (poster != null) {
+      hits.incrementAndGet();
+      return poster;
+    }
+    if (missing.get(imdbId) != null) {
+      return null;
+    }
+    CompletableFuture<Poster> fetch = new CompletableFuture<>();
+    CompletableFuture<Poster> running = fetches.putIfAbsent(imdbId, fetch);
+    if (running != null) {
+      sharedFetches.incrementAndGet();
+      return join(running);
+    }
+    try {
+      poster = cached(imdbId);
+      if (poster == null) {
+        poster = fetch(imdbId);
+      }
+      fetch.complete(poster);
+      return poster;
+    } catch (IOException | RuntimeException e) {
+      fetch.completeExceptionally(e);
+      throw e;
+    } finally {
+      fetches.remove(imdbId, fetch);
+    }
+  }
+
+  private synchronized Poster cached(String imdbId) {
+    Poster poster = posters.get(imdbId);
+    if (poster != null && !Files.exists(poster.file)) {
+      posters.remove(imdbId);
+      bytes -= poster.length;
+      poster = null;
+    }
+    return poster;
+  }
+
+  private Poster join(CompletableFuture<Poster> fetch) throws IOException {
+    try {
+      return fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private Poster fetch(String imdbId) throws IOException {
+    fetched.incrementAndGet();
+    Request request = new Request.Builder()
+        .url(String.format(urlFormat, imdbId, apikey))
+        .build();
+    try (Response response = client.newCall(request).execute()) {
+      ResponseBody body = response.body();
+      MediaType type = (body == null) ? null : body.contentType();
+      String extension =
+          (type == null) ? null : EXTENSIONS.get(type.type() + "/" + type.subtype());
+      if (!response.isSuccessful() || extension == null) {
+        if (response.code() == HTTP_NOT_FOUND || response.isSuccessful()) {
+          missing.put(imdbId, Boolean.TRUE);
+        }
+        return null;
+      }
+      Path temp = Files.createTempFile(directory, imdbId, ".part");
+      try {
+        try (InputStream input = body.byteStream()) {
+          Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Path file = directory.resolve(imdbId + extension);
+        synchronized (this) {
+          retired.remove(file);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        Poster poster = new Poster(imdbId, file, contentType(extension));
+        synchronized (this) {
+          add(poster);
+        }
+        return poster;
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+  }
+
+  private void add(Poster poster) throws IOException {
+    retired.remove(poster.file);
+    Poster replaced = posters.put(poster.imdbId, poster);
+    if (replaced != null) {
+      bytes -= replaced.length;
+      if (!replaced.file.equals(poster.file)) {
+        retire(replaced.file);
+      }
+    }
+    bytes += poster.length;
+    Iterator<Poster> eldest = posters.values().iterator();
+    while (bytes > maxBytes && posters.size() > 1) {
+      Poster evicted = eldest.next();
+      eldest.remove();
+      bytes -= evicted.length;
+      evictions.incrementAndGet();
+      retire(evicted.file);
+    }
+    deleteRetired();
+  }
+
+  private void retire(Path file) {
+    retired.put(file, System.currentTimeMillis());
+  }
+
+  private void deleteRetired() throws IOException {
+    long cutoff = System.currentTimeMillis() - deleteDelayMillis;
+    Iterator<Map.Entry<Path, Long>> oldest = retired.entrySet().iterator();
+    while (oldest.hasNext()) {
+      Map.Entry<Path, Long> entry = oldest.next();
+      if (entry.getValue() > cutoff) {
+        break;
+      }
+      oldest.remove();
+      Files.deleteIfExists(entry.getKey());
+    }
+  }
+
+  private static String contentType(String extension) {
+    for (Map.Entry<String, String> entry : EXTENSIONS.entrySet()) {
+      if (entry.getValue().equals(extension)) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    synchronized (this) {
+      metrics.put("posters", posters.size());
+      metrics.put("bytes", bytes);
+      metrics.put("retiredFiles", retired.size());
+    }
+    metrics.put("maxBytes", maxBytes);
+    metrics.put("hits", hits.get());
+    metrics.put("fetches", fetched.get());
+    metrics.put("sharedFetches", sharedFetches.get());
+    metrics.put("evictions", evictions.get());
+    metrics.put("missing", missing.getStatistics());
+    return metrics;
+  }
+
+  /**
+   * A poster file in the cache.
+   */
+  public static class Poster {
+
+    private final String imdbId;
+    private final Path file;
+    private final String contentType;
+    private final long length;
+    private final long lastModified;
+
+    private Poster(String imdbId, Path file, String contentType) throws IOException {
+      this.imdbId = imdbId;
+      this.file = file;
+      this.contentType = contentType;
+      this.length = Files.size(file);
+      this.lastModified = Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * Gets the file the poster is kept in.
+     *
+     * @return the poster file.
+     */
+    public Path getFile() {
+      return file;
+    }
+
+    /**
+     * Gets the media type of the poster image.
+     *
+     * @return the content type.
+     */
+    public String getContentType() {
+      return contentType;
+    }
+
+    /**
+     * Gets the size of the poster image.
+     *
+     * @return the length in bytes.
+     */
+    public long getLength() {
+      return length;
+    }
+
+    /**
+     * Gets the time the poster was fetched.
+     *
+     * @return the last modified time in milliseconds.
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Gets a strong entity tag for this copy of the poster.
+     *
+     * @return the quoted ETag.
+     */
+    public String getETag() {
+      return "\"" + imdbId + "-" + Long.toHexString(lastModified) + "-" + Long.toHexString(length)
+          + "\"";
+    }
+  }
+
+}
@@ -0,0 +1,194 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Copies a changed Google name or picture onto the film locations, comments and images a user has
+ * submitted, which keep their own copy so they can be read without joining the user. Changes are
+ * queued by Google ID and applied on a background thread; a user whose profile changes again
+ * before the first change is applied is only updated once, to the latest profile. The copies are
+ * updated with bulk {@code UPDATE ... WHERE id IN} statements of up to
+ * {@link BulkDeleteService#CHUNK_SIZE} rows, each in its own transaction, and recorded in the
+ * {@link ChangeLog} so conditional GETs and the changes feed see the new names. The user's own
+ * record is updated last, so a change lost to a failure or a restart still differs from the
+ * profile the user next signs in with, and is queued again then.
+ */
+@Service
+public class ProfilePropagator implements MetricsSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProfilePropagator.class);
+  private static final String METRICS_NAME = "profilePropagation";
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final UserCommentRepository userCommentRepository;
+  private final ImageRepository imageRepository;
+  private final UserRepository userRepository;
+  private final ChangeLog changeLog;
+  private final EntityCache entityCache;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<String, Profile> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final AtomicLong propagatedUsers = new AtomicLong();
+  private final AtomicLong updatedRows = new AtomicLong();
+  private final AtomicLong failedUsers = new AtomicLong();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor((runnable) -> {
+    Thread thread = new Thread(runnable, "profile-propagation");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Instantiates a new profile propagator.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param userCommentRepository the user comment repository.
+   * @param imageRepository the image repository.
+   * @param userRepository the user repository.
+   * @param changeLog the change log the updated rows are recorded in.
+   * @param entityCache the cache the updated film locations are dropped from.
+   * @param transactionManager the transaction manager each chunk is updated with.
+   */
+  @Autowired
+  public ProfilePropagator(FilmLocationRepository filmLocationRepository,
+      UserCommentRepository userCommentRepository, ImageRepository imageRepository,
+      UserRepository userRepository, ChangeLog changeLog, EntityCache entityCache,
+      PlatformTransactionManager transactionManager) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.userCommentRepository = userCommentRepository;
+    this.imageRepository = imageRepository;
+    this.userRepository = userRepository;
+    this.changeLog = changeLog;
+    this.entityCache = entityCache;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Queues a user's new name and picture to be copied onto everything they submitted, replacing
+   * any change to the same user that is still waiting, and then updates the user's record.
+   *
+   * @param googleId the Google ID of the user.
+   * @param name the new full name on the Google account.
+   * @param pictureUrl the new URL of the Google profile picture.
+   * @param failed called if the change could not be applied, so it is detected again.
+   */
+  public void propagate(String googleId, String name, String pictureUrl, Runnable failed) {
+    pending.put(googleId, new Profile(name, pictureUrl, failed));
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    do {
+      for (String googleId : new ArrayList<>(pending.keySet())) {
+        Profile profile = pending.remove(googleId);
+        if (profile != null) {
+          try {
+            apply(googleId, profile);
+            propagatedUsers.incrementAndGet();
+          } catch (Exception e) {
+            failedUsers.incrementAndGet();
+            profile.failed.run();
+            LOGGER.error("Failed to propagate the profile of " + googleId + ".", e);
+          }
+        }
+      }
+      scheduled.set(false);
+    } while (!pending.isEmpty() && scheduled.compareAndSet(false, true));
+  }
+
+  private void apply(String googleId, Profile profile) {
+    for (List<UUID> chunk :
+        chunks(filmLocationRepository.findIdsByGoogleId(googleId, Pageable.unpaged()))) {
+      update(Kind.FILM_LOCATION, chunk, () ->
+          filmLocationRepository.updateUserProfile(chunk, profile.name, profile.pictureUrl));
+      entityCache.invalidateFilmLocations(chunk);
+    }
+    for (List<UUID> chunk :
+        chunks(userCommentRepository.findIdsByGoogleId(googleId, Pageable.unpaged()))) {
+      update(Kind.USER_COMMENT, chunk, () ->
+          userCommentRepository.updateUserProfile(chunk, profile.name, profile.pictureUrl));
+    }
+    for (List<UUID> chunk :
+        chunks(imageRepository.findIdsByGoogleId(googleId, Pageable.unpaged()))) {
+      update(Kind.IMAGE, chunk, () ->
+          imageRepository.updateUserProfile(chunk, profile.name, profile.pictureUrl));
+    }
+    userRepository.updateProfile(googleId, profile.name, profile.pictureUrl);
+  }
+
+  private void update(Kind kind, Collection<UUID> ids, IntSupplier statement) {
+    transactionTemplate.execute((status) -> {
+      updatedRows.addAndGet(statement.getAsInt());
+      changeLog.recordSaved(kind, ids);
+      return null;
+    });
+  }
+
+  private static List<List<UUID>> chunks(List<UUID> ids) {
+    List<List<UUID>> chunks = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += BulkDeleteService.CHUNK_SIZE) {
+      chunks.add(ids.subList(i, Math.min(i + BulkDeleteService.CHUNK_SIZE, ids.size())));
+    }
+    return chunks;
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("pending", pending.size());
+    metrics.put("propagatedUsers", propagatedUsers.get());
+    metrics.put("updatedRows", updatedRows.get());
+    metrics.put("failedUsers", failedUsers.get());
+    return metrics;
+  }
+
+  private static class Profile {
+
+    private final String name;
+    private final String pictureUrl;
+    private final Runnable failed;
+
+    private Profile(String name, String pictureUrl, Runnable failed) {
+      this.name = name;
+      this.pictureUrl = pictureUrl;
+      this.failed = failed;
+    }
+
+  }
+
+}
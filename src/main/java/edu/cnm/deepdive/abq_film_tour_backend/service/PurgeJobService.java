@@ -0,0 +1,131 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.PurgeJobRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob.State;
+import edu.cnm.deepdive.abq_film_tour_backend.service.BulkDeleteService.Deleted;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the purges of users' submissions in the background, one at a time, so purging an account
+ * with many thousands of rows does not hold a request thread. A purge deletes a chunk at a time
+ * with {@link BulkDeleteService#purgeChunk(String)}, adding what each chunk deleted to its
+ * {@link PurgeJob} in the same transaction. A purge interrupted by a shutdown is left running in
+ * the database and resumed once the application is ready again; the chunks it already deleted are
+ * gone, so it simply carries on with the rest.
+ */
+@Service
+public class PurgeJobService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PurgeJobService.class);
+
+  private final PurgeJobRepository purgeJobRepository;
+  private final BulkDeleteService bulkDeleteService;
+  private final TransactionTemplate transactionTemplate;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor((runnable) -> {
+    Thread thread = new Thread(runnable, "user-purge");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Instantiates a new purge job service.
+   *
+   * @param purgeJobRepository the purge job repository.
+   * @param bulkDeleteService the service deleting each chunk.
+   * @param transactionManager the transaction manager each chunk is deleted with.
+   */
+  @Autowired
+  public PurgeJobService(PurgeJobRepository purgeJobRepository,
+      BulkDeleteService bulkDeleteService, PlatformTransactionManager transactionManager) {
+    this.purgeJobRepository = purgeJobRepository;
+    this.bulkDeleteService = bulkDeleteService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Resumes the purges that were pending or running when the application last stopped.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resume() {
+    for (PurgeJob job :
+        purgeJobRepository.findAllByStateInOrderByCreatedAsc(
+            Arrays.asList(State.PENDING, State.RUNNING))) {
+      executor.execute(() -> run(job.getId()));
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Starts purging everything a user has submitted. If a purge of the user is already pending or
+   * running, that purge is returned instead of starting another.
+   *
+   * @param user the user to purge.
+   * @return the purge job.
+   */
+  public synchronized PurgeJob start(GoogleUser user) {
+    Optional<PurgeJob> latest = latest(user.getId());
+    if (latest.isPresent() && (latest.get().getState() == State.PENDING
+        || latest.get().getState() == State.RUNNING)) {
+      return latest.get();
+    }
+    PurgeJob job = purgeJobRepository.save(new PurgeJob(user));
+    executor.execute(() -> run(job.getId()));
+    return job;
+  }
+
+  /**
+   * Gets the most recent purge of a user.
+   *
+   * @param userId the internal ID of the user.
+   * @return the latest purge job, if the user was ever purged.
+   */
+  public Optional<PurgeJob> latest(UUID userId) {
+    return purgeJobRepository.findFirstByUserIdOrderByCreatedDesc(userId);
+  }
+
+  private void run(UUID jobId) {
+    try {
+      boolean more = true;
+      while (more && !Thread.currentThread().isInterrupted()) {
+        more = transactionTemplate.execute((status) -> {
+          PurgeJob job = purgeJobRepository.findById(jobId).get();
+          Deleted deleted = bulkDeleteService.purgeChunk(job.getGoogleId());
+          job.addDeleted(deleted.getFilmLocations(), deleted.getImages(),
+              deleted.getUserComments());
+          job.setState(deleted.isEmpty() ? State.COMPLETE : State.RUNNING);
+          purgeJobRepository.save(job);
+          return !deleted.isEmpty();
+        });
+      }
+    } catch (Exception e) {
+      LOGGER.error("Failed to purge the submissions of purge job " + jobId + ".", e);
+      transactionTemplate.execute((status) -> {
+        purgeJobRepository.findById(jobId).ifPresent((job) -> {
+          job.setState(State.FAILED);
+          purgeJobRepository.save(job);
+        });
+        return null;
+      });
+    }
+  }
+
+}
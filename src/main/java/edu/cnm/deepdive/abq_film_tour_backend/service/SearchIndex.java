@@ -0,0 +1,638 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ProductionSummary;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.UserCommentSummary;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * An in-memory inverted index over the text of film locations, productions and comments. Text is
+ * folded to lower case without accents before it is split into terms, which matches the
+ * accent- and case-insensitive collation of the database. Each term maps to the documents holding
+ * it, sorted by document number with the weight of the term in each, so a query walks the
+ * shortest list of the terms it asks for, merging the lists a prefix expands to, and looks the
+ * other terms up by binary search. Every term of a query must match, and the last one also
+ * matches as a prefix of every indexed term that starts with it, so results follow the user as
+ * they type. Results are ranked by the sum over the query terms of the rarity of the term
+ * times its saturated weight in the document, with names weighing more than addresses and
+ * addresses more than free text. The index is built from the database at startup and follows
+ * every committed write through {@link EntityChangeEvent}s.
+ */
+@Service
+public class SearchIndex implements MetricsSource {
+
+  private static final String METRICS_NAME = "searchIndex";
+  private static final float NAME_WEIGHT = 3;
+  private static final float ADDRESS_WEIGHT = 2;
+  private static final float TEXT_WEIGHT = 1;
+  private static final float SATURATION = 1.2f;
+  private static final float PREFIX_FACTOR = 0.8f;
+  private static final int MIN_PREFIX_LENGTH = 2;
+  private static final int TITLE_LENGTH = 140;
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final ProductionRepository productionRepository;
+  private final UserCommentRepository userCommentRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, Postings> terms = new TreeMap<>();
+  private final Map<UUID, Integer> numbers = new HashMap<>();
+  private final List<Document> documents = new ArrayList<>();
+  private final Deque<Integer> freeNumbers = new ArrayDeque<>();
+  private final AtomicLong queries = new AtomicLong();
+  private final AtomicLong queryNanos = new AtomicLong();
+
+  /**
+   * Instantiates a new search index.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param productionRepository the production repository.
+   * @param userCommentRepository the user comment repository.
+   */
+  @Autowired
+  public SearchIndex(FilmLocationRepository filmLocationRepository,
+      ProductionRepository productionRepository, UserCommentRepository userCommentRepository) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.productionRepository = productionRepository;
+    this.userCommentRepository = userCommentRepository;
+  }
+
+  @PostConstruct
+  void build() {
+    List<CompactFilmLocation> locations = filmLocationRepository.findAllCompact();
+    List<ProductionSummary> productions = productionRepository.findAllSummaries();
+    List<UserCommentSummary> comments = userCommentRepository.findAllSummaries();
+    lock.writeLock().lock();
+    try {
+      terms.clear();
+      numbers.clear();
+      documents.clear();
+      freeNumbers.clear();
+      for (CompactFilmLocation location : locations) {
+        addFilmLocation(location.getId(), location.getSiteName(), location.getAddress(),
+            location.getOriginalDetails());
+      }
+      for (ProductionSummary production : productions) {
+        addProduction(production.getId(), production.getTitle(), production.getPlot());
+      }
+      for (UserCommentSummary comment : comments) {
+        addUserComment(comment.getId(), comment.getText(), comment.getFilmLocationId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Follows committed writes to film locations, productions and comments.
+   *
+   * @param event the entity change.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    Object entity = event.getEntity();
+    boolean saved = event.getType() == Type.SAVED;
+    if (entity instanceof FilmLocation) {
+      FilmLocation location = (FilmLocation) entity;
+      lock.writeLock().lock();
+      try {
+        remove(location.getId());
+        if (saved) {
+          addFilmLocation(location.getId(), location.getSiteName(), location.getAddress(),
+              location.getOriginalDetails());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else if (entity instanceof Production) {
+      Production production = (Production) entity;
+      lock.writeLock().lock();
+      try {
+        remove(production.getId());
+        if (saved) {
+          addProduction(production.getId(), production.getTitle(), production.getPlot());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else if (entity instanceof UserComment) {
+      UserComment comment = (UserComment) entity;
+      lock.writeLock().lock();
+      try {
+        remove(comment.getId());
+        if (saved) {
+          addUserComment(comment.getId(), comment.getText(),
+              comment.getFilmLocation() != null ? comment.getFilmLocation().getId() : null);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Finds the documents matching every term of a query, best first. Results with equal scores
+   * keep the order of the index, and a page continues after the score and ID of the last result of
+   * the previous page; if that result has since left the index, the page restarts at its score.
+   *
+   * @param query the query text.
+   * @param kind the kind of document to find, or null for all kinds.
+   * @param afterScore the score of the last result of the previous page, or null for the first.
+   * @param afterId the ID of the last result of the previous page, or null for the first page.
+   * @param limit the most results to return.
+   * @return the matching documents, best first.
+   */
+  public List<Hit> search(String query, Kind kind, Float afterScore, UUID afterId, int limit) {
+    long start = System.nanoTime();
+    List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+    List<Hit> hits = Collections.emptyList();
+    if (!tokens.isEmpty() && limit > 0) {
+      lock.readLock().lock();
+      try {
+        hits = find(tokens, kind, afterScore, afterId, limit);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    queries.incrementAndGet();
+    queryNanos.addAndGet(System.nanoTime() - start);
+    return hits;
+  }
+
+  /**
+   * Splits text into the terms it is indexed and searched by: runs of letters and digits, in lower
+   * case and without accents.
+   *
+   * @param text the text.
+   * @return the terms, in order.
+   */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text != null) {
+      String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+          .replaceAll("").toLowerCase(Locale.ROOT);
+      for (String token : SEPARATORS.split(folded)) {
+        if (!token.isEmpty()) {
+          tokens.add(token);
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private List<Hit> find(List<String> tokens, Kind kind, Float afterScore, UUID afterId,
+      int limit) {
+    int count = numbers.size();
+    List<Clause> clauses = new ArrayList<>(tokens.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      Clause clause = new Clause();
+      Postings exact = terms.get(token);
+      if (exact != null) {
+        clause.add(exact, idf(exact, count));
+      }
+      if (i == tokens.size() - 1 && token.length() >= MIN_PREFIX_LENGTH) {
+        for (Postings postings :
+            terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+          clause.add(postings, idf(postings, count) * PREFIX_FACTOR);
+        }
+      }
+      if (clause.parts.isEmpty()) {
+        return Collections.emptyList();
+      }
+      clauses.add(clause);
+    }
+    Clause driver = Collections.min(clauses, Comparator.comparingInt(Clause::size));
+    List<Clause> others = new ArrayList<>(clauses);
+    others.remove(driver);
+    int afterNumber = -1;
+    if (afterScore != null) {
+      Integer number = numbers.get(afterId);
+      afterNumber = (number != null) ? number : -1;
+    }
+    Ranking ranking = new Ranking(others, kind, afterScore, afterNumber, limit);
+    if (driver.parts.size() == 1) {
+      Postings postings = driver.parts.get(0);
+      float factor = driver.factors.get(0);
+      for (int i = 0; i < postings.size; i++) {
+        ranking.consider(postings.docs[i], factor * saturate(postings.weights[i]));
+      }
+    } else {
+      PriorityQueue<Cursor> heads = new PriorityQueue<>(driver.parts.size(),
+          Comparator.comparingInt(Cursor::doc));
+      for (int part = 0; part < driver.parts.size(); part++) {
+        heads.add(new Cursor(driver.parts.get(part), driver.factors.get(part)));
+      }
+      while (!heads.isEmpty()) {
+        int number = heads.peek().doc();
+        float score = 0;
+        while (!heads.isEmpty() && heads.peek().doc() == number) {
+          Cursor cursor = heads.poll();
+          score = Math.max(score, cursor.score());
+          if (cursor.advance()) {
+            heads.add(cursor);
+          }
+        }
+        ranking.consider(number, score);
+      }
+    }
+    return ranking.hits();
+  }
+
+  private void addFilmLocation(UUID id, String siteName, String address, String details) {
+    Map<String, Float> weights = new HashMap<>();
+    weigh(weights, siteName, NAME_WEIGHT);
+    weigh(weights, address, ADDRESS_WEIGHT);
+    weigh(weights, details, TEXT_WEIGHT);
+    add(new Document(id, Kind.FILM_LOCATION, siteName, id), weights);
+  }
+
+  private void addProduction(UUID id, String title, String plot) {
+    Map<String, Float> weights = new HashMap<>();
+    weigh(weights, title, NAME_WEIGHT);
+    weigh(weights, plot, TEXT_WEIGHT);
+    add(new Document(id, Kind.PRODUCTION, title, null), weights);
+  }
+
+  private void addUserComment(UUID id, String text, UUID filmLocationId) {
+    Map<String, Float> weights = new HashMap<>();
+    weigh(weights, text, TEXT_WEIGHT);
+    String title = (text != null && text.length() > TITLE_LENGTH)
+        ? text.substring(0, TITLE_LENGTH) : text;
+    add(new Document(id, Kind.USER_COMMENT, title, filmLocationId), weights);
+  }
+
+  private static void weigh(Map<String, Float> weights, String text, float weight) {
+    for (String token : tokenize(text)) {
+      weights.merge(token, weight, Float::sum);
+    }
+  }
+
+  private void add(Document document, Map<String, Float> weights) {
+    int number;
+    if (freeNumbers.isEmpty()) {
+      number = documents.size();
+      documents.add(document);
+    } else {
+      number = freeNumbers.pop();
+      documents.set(number, document);
+    }
+    numbers.put(document.id, number);
+    document.terms = weights.keySet().toArray(new String[0]);
+    for (Map.Entry<String, Float> entry : weights.entrySet()) {
+      terms.computeIfAbsent(entry.getKey(), (term) -> new Postings())
+          .put(number, entry.getValue());
+    }
+  }
+
+  private void remove(UUID id) {
+    Integer number = numbers.remove(id);
+    if (number != null) {
+      for (String term : documents.get(number).terms) {
+        Postings postings = terms.get(term);
+        if (postings != null && postings.remove(number)) {
+          terms.remove(term);
+        }
+      }
+      documents.set(number, null);
+      freeNumbers.push(number);
+    }
+  }
+
+  private static float idf(Postings postings, int count) {
+    return (float) Math.log(1 + (double) count / postings.size);
+  }
+
+  private static float saturate(float weight) {
+    return weight / (weight + SATURATION);
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      metrics.put("documents", numbers.size());
+      metrics.put("terms", terms.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+    long count = queries.get();
+    metrics.put("queries", count);
+    metrics.put("averageQueryMillis", count == 0 ? 0 : queryNanos.get() / 1e6 / count);
+    return metrics;
+  }
+
+  /**
+   * The documents holding a term, sorted by document number, with the weight of the term in each.
+   */
+  private static class Postings {
+
+    private int[] docs = new int[2];
+    private float[] weights = new float[2];
+    private int size;
+
+    private void put(int doc, float weight) {
+      int i = Arrays.binarySearch(docs, 0, size, doc);
+      if (i >= 0) {
+        weights[i] = weight;
+        return;
+      }
+      i = -i - 1;
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        weights = Arrays.copyOf(weights, size * 2);
+      }
+      System.arraycopy(docs, i, docs, i + 1, size - i);
+      System.arraycopy(weights, i, weights, i + 1, size - i);
+      docs[i] = doc;
+      weights[i] = weight;
+      size++;
+    }
+
+    private boolean remove(int doc) {
+      int i = Arrays.binarySearch(docs, 0, size, doc);
+      if (i >= 0) {
+        System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+        System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+        size--;
+      }
+      return size == 0;
+    }
+
+    private float weight(int doc) {
+      int i = Arrays.binarySearch(docs, 0, size, doc);
+      return i >= 0 ? weights[i] : 0;
+    }
+  }
+
+  /**
+   * The postings a query term matches, exactly or as a prefix, each with the factor its matches
+   * are scored by.
+   */
+  private static class Clause {
+
+    private final List<Postings> parts = new ArrayList<>();
+    private final List<Float> factors = new ArrayList<>();
+    private int size;
+
+    private void add(Postings postings, float factor) {
+      parts.add(postings);
+      factors.add(factor);
+      size += postings.size;
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private float max() {
+      return Collections.max(factors);
+    }
+
+    private float best(int doc) {
+      float best = 0;
+      for (int i = 0; i < parts.size(); i++) {
+        float weight = parts.get(i).weight(doc);
+        if (weight > 0) {
+          best = Math.max(best, factors.get(i) * saturate(weight));
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * A position in the postings of one term of a clause, for merging the postings of all its terms
+   * in document number order.
+   */
+  private static class Cursor {
+
+    private final Postings postings;
+    private final float factor;
+    private int index;
+
+    private Cursor(Postings postings, float factor) {
+      this.postings = postings;
+      this.factor = factor;
+    }
+
+    private int doc() {
+      return postings.docs[index];
+    }
+
+    private float score() {
+      return factor * saturate(postings.weights[index]);
+    }
+
+    private boolean advance() {
+      return ++index < postings.size;
+    }
+  }
+
+  /**
+   * The best matches found so far, ordered by score and then by document number. Candidates
+   * arrive in document number order, so one that only ties the worst match kept can be skipped,
+   * and one whose score cannot beat it is skipped before the other terms are looked up.
+   */
+  private class Ranking {
+
+    private final List<Clause> others;
+    private final Kind kind;
+    private final Float afterScore;
+    private final int afterNumber;
+    private final int limit;
+    private final float othersMax;
+    private final PriorityQueue<Candidate> top;
+
+    private Ranking(List<Clause> others, Kind kind, Float afterScore, int afterNumber,
+        int limit) {
+      this.others = others;
+      this.kind = kind;
+      this.afterScore = afterScore;
+      this.afterNumber = afterNumber;
+      this.limit = limit;
+      float max = 0;
+      for (Clause clause : others) {
+        max += clause.max();
+      }
+      othersMax = max;
+      top = new PriorityQueue<>(limit + 1, Candidate.RANK.reversed());
+    }
+
+    private void consider(int number, float score) {
+      if (top.size() == limit && score + othersMax <= top.peek().score) {
+        return;
+      }
+      if (kind != null && documents.get(number).kind != kind) {
+        return;
+      }
+      for (Clause clause : others) {
+        float best = clause.best(number);
+        if (best == 0) {
+          return;
+        }
+        score += best;
+      }
+      if (afterScore != null
+          && (score > afterScore || (score == afterScore && number <= afterNumber))) {
+        return;
+      }
+      Candidate candidate = new Candidate(number, score);
+      if (top.size() < limit) {
+        top.add(candidate);
+      } else if (Candidate.RANK.compare(candidate, top.peek()) < 0) {
+        top.poll();
+        top.add(candidate);
+      }
+    }
+
+    private List<Hit> hits() {
+      List<Candidate> candidates = new ArrayList<>(top);
+      candidates.sort(Candidate.RANK);
+      List<Hit> hits = new ArrayList<>(candidates.size());
+      for (Candidate candidate : candidates) {
+        hits.add(new Hit(documents.get(candidate.number), candidate.score));
+      }
+      return hits;
+    }
+  }
+
+  private static class Candidate {
+
+    private static final Comparator<Candidate> RANK =
+        Comparator.comparingDouble((Candidate candidate) -> -candidate.score)
+            .thenComparingInt((candidate) -> candidate.number);
+
+    private final int number;
+    private final float score;
+
+    private Candidate(int number, float score) {
+      this.number = number;
+      this.score = score;
+    }
+  }
+
+  private static class Document {
+
+    private final UUID id;
+    private final Kind kind;
+    private final String title;
+    private final UUID filmLocationId;
+    private String[] terms;
+
+    private Document(UUID id, Kind kind, String title, UUID filmLocationId) {
+      this.id = id;
+      this.kind = kind;
+      this.title = title;
+      this.filmLocationId = filmLocationId;
+    }
+  }
+
+  /**
+   * A search result: what was found, a title to show for it, and how well it matched.
+   */
+  public static class Hit {
+
+    private final Kind kind;
+    private final UUID id;
+    private final String title;
+    private final UUID filmLocationId;
+    private final float score;
+
+    private Hit(Document document, float score) {
+      this.kind = document.kind;
+      this.id = document.id;
+      this.title = document.title;
+      this.filmLocationId = document.filmLocationId;
+      this.score = score;
+    }
+
+    /**
+     * Gets the kind of entity found.
+     *
+     * @return the kind.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Gets the internal ID of the entity found.
+     *
+     * @return the entity ID.
+     */
+    public UUID getId() {
+      return id;
+    }
+
+    /**
+     * Gets the text to show for the result: the site name of a location, the title of a
+     * production, or the start of a comment.
+     *
+     * @return the title.
+     */
+    public String getTitle() {
+      return title;
+    }
+
+    /**
+     * Gets the film location the result belongs to: the location itself, or the location a
+     * comment is on.
+     *
+     * @return the film location ID, or null for a production.
+     */
+    public UUID getFilmLocationId() {
+      return filmLocationId;
+    }
+
+    /**
+     * Gets the relevance of the result to the query; higher is better.
+     *
+     * @return the score.
+     */
+    public float getScore() {
+      return score;
+    }
+  }
+
+}
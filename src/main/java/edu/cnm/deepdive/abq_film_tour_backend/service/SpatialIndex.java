@@ -0,0 +1,321 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.IndexedLocation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * An in-memory grid of film location coordinates, bucketed by geohash cell, for answering
+ * bounding box and radius queries without reading the whole table. The grid is built from the
+ * database at startup and follows every committed write to a film location through
+ * {@link EntityChangeEvent}s. Locations written before geohashes were stored are backfilled while
+ * the grid is built.
+ */
+@Service
+public class SpatialIndex implements MetricsSource {
+
+  /**
+   * The geohash precision of a grid cell, about 1.2 by 0.6 kilometers.
+   */
+  static final int CELL_PRECISION = 6;
+
+  private static final String METRICS_NAME = "spatialIndex";
+  private static final double EARTH_RADIUS_METERS = 6371008.8;
+  private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+  private static final int BACKFILL_CHUNK = 500;
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxResults;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Map<UUID, Point>> cells = new HashMap<>();
+  private final Map<UUID, Point> points = new HashMap<>();
+  private final AtomicLong queries = new AtomicLong();
+  private final AtomicLong candidatesScanned = new AtomicLong();
+  private final AtomicLong queryNanos = new AtomicLong();
+
+  /**
+   * Instantiates a new spatial index.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param transactionManager the transaction manager used to backfill geohashes.
+   * @param maxResults the most locations a single query returns.
+   */
+  @Autowired
+  public SpatialIndex(FilmLocationRepository filmLocationRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${spatial.maxResults}") int maxResults) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.maxResults = maxResults;
+  }
+
+  @PostConstruct
+  void build() {
+    List<UUID> missingGeohash = new ArrayList<>();
+    lock.writeLock().lock();
+    try {
+      cells.clear();
+      points.clear();
+      for (IndexedLocation location : filmLocationRepository.findAllIndexedLocations()) {
+        add(location.getId(), location.getLatCoordinate(), location.getLongCoordinate());
+        if (location.getGeohash() == null) {
+          missingGeohash.add(location.getId());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    for (int i = 0; i < missingGeohash.size(); i += BACKFILL_CHUNK) {
+      List<UUID> chunk =
+          missingGeohash.subList(i, Math.min(i + BACKFILL_CHUNK, missingGeohash.size()));
+      transactionTemplate.execute(status -> {
+        filmLocationRepository.findAllById(chunk).forEach(FilmLocation::updateGeohash);
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Follows committed writes to film locations.
+   *
+   * @param event the entity change.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    if (event.getEntity() instanceof FilmLocation) {
+      FilmLocation location = (FilmLocation) event.getEntity();
+      lock.writeLock().lock();
+      try {
+        remove(location.getId());
+        if (event.getType() == Type.SAVED) {
+          add(location.getId(), location.getLatCoordinate(), location.getLongCoordinate());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Gets the most locations a single query returns.
+   *
+   * @return the result limit.
+   */
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * Finds the locations inside a bounding box, nearest to its center first.
+   *
+   * @param minLat the southern edge.
+   * @param minLng the western edge.
+   * @param maxLat the northern edge.
+   * @param maxLng the eastern edge.
+   * @param limit the most locations to return, capped at {@link #getMaxResults()}.
+   * @return the IDs of the locations found, ordered by distance from the center of the box.
+   */
+  public List<UUID> withinBox(double minLat, double minLng, double maxLat, double maxLng,
+      int limit) {
+    double centerLat = (minLat + maxLat) / 2;
+    double centerLng = (minLng + maxLng) / 2;
+    return query(minLat, minLng, maxLat, maxLng, centerLat, centerLng, Double.MAX_VALUE, limit);
+  }
+
+  /**
+   * Finds the locations within a distance of a point, nearest first.
+   *
+   * @param lat the latitude of the point.
+   * @param lng the longitude of the point.
+   * @param radiusMeters the distance from the point in meters.
+   * @param limit the most locations to return, capped at {@link #getMaxResults()}.
+   * @return the IDs of the locations found, ordered by distance from the point.
+   */
+  public List<UUID> near(double lat, double lng, double radiusMeters, int limit) {
+    double latSpan = radiusMeters / METERS_PER_DEGREE;
+    double lngSpan = latSpan / Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+    return query(Math.max(lat - latSpan, -90), Math.max(lng - lngSpan, -180),
+        Math.min(lat + latSpan, 90), Math.min(lng + lngSpan, 180), lat, lng, radiusMeters, limit);
+  }
+
+  /**
+   * Loads the locations found by a query, keeping the order of the query.
+   *
+   * @param ids the IDs returned by a query.
+   * @return the film locations, in the same order.
+   */
+  public List<FilmLocation> load(List<UUID> ids) {
+    Map<UUID, FilmLocation> loaded = new HashMap<>();
+    for (FilmLocation location : filmLocationRepository.findAllWithProductionByIdIn(ids)) {
+      loaded.put(location.getId(), location);
+    }
+    List<FilmLocation> ordered = new ArrayList<>(ids.size());
+    for (UUID id : ids) {
+      FilmLocation location = loaded.get(id);
+      if (location != null) {
+        ordered.add(location);
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * Calculates the great circle distance between two points.
+   *
+   * @param lat1 the latitude of the first point.
+   * @param lng1 the longitude of the first point.
+   * @param lat2 the latitude of the second point.
+   * @param lng2 the longitude of the second point.
+   * @return the distance in meters.
+   */
+  public static double distance(double lat1, double lng1, double lat2, double lng2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLng = Math.toRadians(lng2 - lng1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+    return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  private List<UUID> query(double minLat, double minLng, double maxLat, double maxLng,
+      double centerLat, double centerLng, double radiusMeters, int limit) {
+    long start = System.nanoTime();
+    int capacity = Math.max(1, Math.min(limit, maxResults));
+    PriorityQueue<Match> nearest =
+        new PriorityQueue<>(capacity, Comparator.comparingDouble((Match m) -> m.distance).reversed());
+    long scanned = 0;
+    lock.readLock().lock();
+    try {
+      Collection<Map<UUID, Point>> candidates;
+      if (GeoHash.coverSize(minLat, minLng, maxLat, maxLng, CELL_PRECISION) > cells.size()) {
+        candidates = cells.values();
+      } else {
+        candidates = new ArrayList<>();
+        for (String cell : GeoHash.cover(minLat, minLng, maxLat, maxLng, CELL_PRECISION)) {
+          Map<UUID, Point> bucket = cells.get(cell);
+          if (bucket != null) {
+            candidates.add(bucket);
+          }
+        }
+      }
+      for (Map<UUID, Point> bucket : candidates) {
+        for (Point point : bucket.values()) {
+          scanned++;
+          if (point.lat < minLat || point.lat > maxLat || point.lng < minLng || point.lng > maxLng) {
+            continue;
+          }
+          double distance = distance(centerLat, centerLng, point.lat, point.lng);
+          if (distance > radiusMeters) {
+            continue;
+          }
+          if (nearest.size() < capacity) {
+            nearest.add(new Match(point.id, distance));
+          } else if (distance < nearest.peek().distance) {
+            nearest.poll();
+            nearest.add(new Match(point.id, distance));
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Match> matches = new ArrayList<>(nearest);
+    matches.sort(Comparator.comparingDouble((Match m) -> m.distance));
+    List<UUID> ids = new ArrayList<>(matches.size());
+    for (Match match : matches) {
+      ids.add(match.id);
+    }
+    queries.incrementAndGet();
+    candidatesScanned.addAndGet(scanned);
+    queryNanos.addAndGet(System.nanoTime() - start);
+    return ids;
+  }
+
+  private void add(UUID id, double lat, double lng) {
+    Point point = new Point(id, lat, lng, GeoHash.encode(lat, lng, CELL_PRECISION));
+    points.put(id, point);
+    cells.computeIfAbsent(point.cell, (cell) -> new HashMap<>()).put(id, point);
+  }
+
+  private void remove(UUID id) {
+    Point point = points.remove(id);
+    if (point != null) {
+      Map<UUID, Point> bucket = cells.get(point.cell);
+      bucket.remove(id);
+      if (bucket.isEmpty()) {
+        cells.remove(point.cell);
+      }
+    }
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      metrics.put("locations", points.size());
+      metrics.put("cells", cells.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+    long count = queries.get();
+    metrics.put("queries", count);
+    metrics.put("averageCandidatesScanned", count == 0 ? 0 : candidatesScanned.get() / count);
+    metrics.put("averageQueryMillis", count == 0 ? 0 : queryNanos.get() / 1e6 / count);
+    return metrics;
+  }
+
+  private static class Point {
+
+    private final UUID id;
+    private final double lat;
+    private final double lng;
+    private final String cell;
+
+    private Point(UUID id, double lat, double lng, String cell) {
+      this.id = id;
+      this.lat = lat;
+      this.lng = lng;
+      this.cell = cell;
+    }
+  }
+
+  private static class Match {
+
+    private final UUID id;
+    private final double distance;
+
+    private Match(UUID id, double distance) {
+      this.id = id;
+      this.distance = distance;
+    }
+  }
+
+}
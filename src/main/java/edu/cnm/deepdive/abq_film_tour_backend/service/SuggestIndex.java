@@ -0,0 +1,477 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent;
+import edu.cnm.deepdive.abq_film_tour_backend.model.event.EntityChangeEvent.Type;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.CompactFilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.projection.ProductionSummary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * An in-memory prefix tree of production titles and film location site names, for suggestions as
+ * the user types. Names are folded the way {@link SearchIndex} folds them, so a prefix matches
+ * regardless of case, accents and punctuation. Each node holds the best suggestions below it,
+ * ranked by the number of film locations they lead to, so a lookup walks the prefix and copies a
+ * list without searching the subtree. Locations sharing a site name are suggested once, with the
+ * number of them. The tree is built from the database at startup and follows every committed
+ * write through {@link EntityChangeEvent}s, re-ranking only the nodes above the names it changed.
+ */
+@Service
+public class SuggestIndex implements MetricsSource {
+
+  private static final String METRICS_NAME = "suggestIndex";
+  private static final Comparator<Entry> RANK =
+      Comparator.comparingInt((Entry entry) -> -entry.locationCount)
+          .thenComparing((entry) -> entry.key)
+          .thenComparing((entry) -> entry.text);
+  private static final char[] NO_LABELS = new char[0];
+  private static final Node[] NO_CHILDREN = new Node[0];
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+
+  private final FilmLocationRepository filmLocationRepository;
+  private final ProductionRepository productionRepository;
+  private final int defaultSize;
+  private final int maxSize;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<UUID, Entry> productions = new HashMap<>();
+  private final Map<String, Entry> sites = new HashMap<>();
+  private final Map<UUID, Located> locations = new HashMap<>();
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong lookupNanos = new AtomicLong();
+  private Node root = new Node();
+
+  /**
+   * Instantiates a new suggest index.
+   *
+   * @param filmLocationRepository the film location repository.
+   * @param productionRepository the production repository.
+   * @param defaultSize the number of suggestions returned when none is requested.
+   * @param maxSize the most suggestions returned, and kept at each node.
+   */
+  @Autowired
+  public SuggestIndex(FilmLocationRepository filmLocationRepository,
+      ProductionRepository productionRepository,
+      @Value("${suggest.defaultSize}") int defaultSize,
+      @Value("${suggest.maxSize}") int maxSize) {
+    this.filmLocationRepository = filmLocationRepository;
+    this.productionRepository = productionRepository;
+    this.defaultSize = defaultSize;
+    this.maxSize = maxSize;
+  }
+
+  @PostConstruct
+  void build() {
+    List<ProductionSummary> summaries = productionRepository.findAllSummaries();
+    List<CompactFilmLocation> compact = filmLocationRepository.findAllCompact();
+    lock.writeLock().lock();
+    try {
+      root = new Node();
+      productions.clear();
+      sites.clear();
+      locations.clear();
+      for (ProductionSummary production : summaries) {
+        saveProduction(production.getId(), production.getTitle());
+      }
+      for (CompactFilmLocation location : compact) {
+        saveFilmLocation(location.getId(), location.getSiteName(), location.getProductionId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Follows committed writes to film locations and productions.
+   *
+   * @param event the entity change.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    Object entity = event.getEntity();
+    boolean saved = event.getType() == Type.SAVED;
+    if (entity instanceof FilmLocation) {
+      FilmLocation location = (FilmLocation) entity;
+      lock.writeLock().lock();
+      try {
+        if (saved) {
+          saveFilmLocation(location.getId(), location.getSiteName(),
+              location.getProduction() != null ? location.getProduction().getId() : null);
+        } else {
+          deleteFilmLocation(location.getId());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else if (entity instanceof Production) {
+      Production production = (Production) entity;
+      lock.writeLock().lock();
+      try {
+        if (saved) {
+          saveProduction(production.getId(), production.getTitle());
+        } else {
+          deleteProduction(production.getId());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Gets the production titles and site names starting with a prefix, those with the most film
+   * locations first.
+   *
+   * @param prefix the text typed so far.
+   * @param size the number of suggestions wanted, or null for the default; capped by the maximum.
+   * @return the suggestions, best first.
+   */
+  public List<Suggestion> suggest(String prefix, Integer size) {
+    long start = System.nanoTime();
+    String key = key(prefix);
+    int limit = Math.min(size == null ? defaultSize : size, maxSize);
+    List<Suggestion> suggestions = Collections.emptyList();
+    if (key != null && limit > 0) {
+      lock.readLock().lock();
+      try {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+          node = node.child(key.charAt(i));
+        }
+        if (node != null) {
+          suggestions = new ArrayList<>(Math.min(limit, node.top.length));
+          for (int i = 0; i < limit && i < node.top.length; i++) {
+            suggestions.add(new Suggestion(node.top[i]));
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    lookups.incrementAndGet();
+    lookupNanos.addAndGet(System.nanoTime() - start);
+    return suggestions;
+  }
+
+  private void saveProduction(UUID id, String title) {
+    Entry entry = productions.computeIfAbsent(id, (key) -> new Entry(Kind.PRODUCTION, id));
+    String key = key(title);
+    if (!Objects.equals(key, entry.key)) {
+      unlink(entry);
+      entry.key = key;
+      entry.text = title;
+      link(entry);
+    } else if (!Objects.equals(title, entry.text)) {
+      entry.text = title;
+      refresh(entry);
+    }
+  }
+
+  private void deleteProduction(UUID id) {
+    Entry entry = productions.remove(id);
+    if (entry != null) {
+      unlink(entry);
+    }
+  }
+
+  private void saveFilmLocation(UUID id, String siteName, UUID productionId) {
+    Located located = locations.get(id);
+    String siteKey = key(siteName);
+    if (located != null && Objects.equals(located.siteKey, siteKey)
+        && Objects.equals(located.productionId, productionId)) {
+      return;
+    }
+    deleteFilmLocation(id);
+    locations.put(id, new Located(siteKey, productionId));
+    if (siteKey != null) {
+      Entry site = sites.get(siteKey);
+      if (site == null) {
+        site = new Entry(Kind.FILM_LOCATION, null);
+        site.key = siteKey;
+        site.text = siteName;
+        site.locationCount = 1;
+        sites.put(siteKey, site);
+        link(site);
+      } else {
+        site.locationCount++;
+        refresh(site);
+      }
+    }
+    if (productionId != null) {
+      Entry production = productions
+          .computeIfAbsent(productionId, (key) -> new Entry(Kind.PRODUCTION, productionId));
+      production.locationCount++;
+      refresh(production);
+    }
+  }
+
+  private void deleteFilmLocation(UUID id) {
+    Located located = locations.remove(id);
+    if (located == null) {
+      return;
+    }
+    Entry site = (located.siteKey != null) ? sites.get(located.siteKey) : null;
+    if (site != null) {
+      if (--site.locationCount == 0) {
+        sites.remove(site.key);
+        unlink(site);
+      } else {
+        refresh(site);
+      }
+    }
+    Entry production = (located.productionId != null)
+        ? productions.get(located.productionId) : null;
+    if (production != null) {
+      production.locationCount--;
+      refresh(production);
+    }
+  }
+
+  private void link(Entry entry) {
+    if (entry.key != null) {
+      Node node = root;
+      for (int i = 0; i < entry.key.length(); i++) {
+        node = node.childOrAdd(entry.key.charAt(i));
+      }
+      node.entries = append(node.entries, entry);
+      refresh(entry);
+    }
+  }
+
+  private void unlink(Entry entry) {
+    if (entry.key != null) {
+      Node node = root;
+      for (int i = 0; i < entry.key.length() && node != null; i++) {
+        node = node.child(entry.key.charAt(i));
+      }
+      if (node != null) {
+        node.entries = without(node.entries, entry);
+      }
+      refresh(entry);
+    }
+  }
+
+  private void refresh(Entry entry) {
+    if (entry.key != null) {
+      refresh(root, entry.key, 0);
+    }
+  }
+
+  private void refresh(Node node, String key, int depth) {
+    if (depth < key.length()) {
+      char label = key.charAt(depth);
+      Node child = node.child(label);
+      if (child != null) {
+        refresh(child, key, depth + 1);
+        if (child.top.length == 0) {
+          node.remove(label);
+        }
+      }
+    }
+    node.rank(maxSize);
+  }
+
+  private static String key(String text) {
+    List<String> tokens = SearchIndex.tokenize(text);
+    return tokens.isEmpty() ? null : String.join(" ", tokens);
+  }
+
+  private static Entry[] append(Entry[] entries, Entry entry) {
+    Entry[] appended = Arrays.copyOf(entries, entries.length + 1);
+    appended[entries.length] = entry;
+    return appended;
+  }
+
+  private static Entry[] without(Entry[] entries, Entry entry) {
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i] == entry) {
+        Entry[] remaining = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, remaining, 0, i);
+        System.arraycopy(entries, i + 1, remaining, i, remaining.length - i);
+        return remaining;
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      metrics.put("productions", productions.size());
+      metrics.put("siteNames", sites.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+    long count = lookups.get();
+    metrics.put("lookups", count);
+    metrics.put("averageLookupMicros", count == 0 ? 0 : lookupNanos.get() / 1e3 / count);
+    return metrics;
+  }
+
+  /**
+   * A node of the tree, with its children in label order, the names ending at it, and the best
+   * suggestions at or below it.
+   */
+  private static class Node {
+
+    private char[] labels = NO_LABELS;
+    private Node[] children = NO_CHILDREN;
+    private Entry[] entries = NO_ENTRIES;
+    private Entry[] top = NO_ENTRIES;
+
+    private Node child(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      return (i >= 0) ? children[i] : null;
+    }
+
+    private Node childOrAdd(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      if (i >= 0) {
+        return children[i];
+      }
+      i = -i - 1;
+      char[] addedLabels = new char[labels.length + 1];
+      Node[] addedChildren = new Node[children.length + 1];
+      System.arraycopy(labels, 0, addedLabels, 0, i);
+      System.arraycopy(children, 0, addedChildren, 0, i);
+      System.arraycopy(labels, i, addedLabels, i + 1, labels.length - i);
+      System.arraycopy(children, i, addedChildren, i + 1, children.length - i);
+      Node child = new Node();
+      addedLabels[i] = label;
+      addedChildren[i] = child;
+      labels = addedLabels;
+      children = addedChildren;
+      return child;
+    }
+
+    private void remove(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      if (i >= 0) {
+        char[] remainingLabels = new char[labels.length - 1];
+        Node[] remainingChildren = new Node[children.length - 1];
+        System.arraycopy(labels, 0, remainingLabels, 0, i);
+        System.arraycopy(children, 0, remainingChildren, 0, i);
+        System.arraycopy(labels, i + 1, remainingLabels, i, remainingLabels.length - i);
+        System.arraycopy(children, i + 1, remainingChildren, i, remainingChildren.length - i);
+        labels = remainingLabels;
+        children = remainingChildren;
+      }
+    }
+
+    private void rank(int size) {
+      List<Entry> candidates = new ArrayList<>(Arrays.asList(entries));
+      for (Node child : children) {
+        candidates.addAll(Arrays.asList(child.top));
+      }
+      candidates.sort(RANK);
+      top = candidates.subList(0, Math.min(size, candidates.size())).toArray(NO_ENTRIES);
+    }
+  }
+
+  private static class Entry {
+
+    private final Kind kind;
+    private final UUID id;
+    private String key;
+    private String text;
+    private int locationCount;
+
+    private Entry(Kind kind, UUID id) {
+      this.kind = kind;
+      this.id = id;
+    }
+  }
+
+  private static class Located {
+
+    private final String siteKey;
+    private final UUID productionId;
+
+    private Located(String siteKey, UUID productionId) {
+      this.siteKey = siteKey;
+      this.productionId = productionId;
+    }
+  }
+
+  /**
+   * A production title or site name starting with the prefix asked for.
+   */
+  public static class Suggestion {
+
+    private final Kind kind;
+    private final UUID id;
+    private final String text;
+    private final int locationCount;
+
+    private Suggestion(Entry entry) {
+      this.kind = entry.kind;
+      this.id = entry.id;
+      this.text = entry.text;
+      this.locationCount = entry.locationCount;
+    }
+
+    /**
+     * Gets what the suggestion names: a production, or the site of one or more film locations.
+     *
+     * @return {@link Kind#PRODUCTION} or {@link Kind#FILM_LOCATION}.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Gets the internal ID of the production suggested.
+     *
+     * @return the production ID, or null for a site name.
+     */
+    public UUID getId() {
+      return id;
+    }
+
+    /**
+     * Gets the title or site name to show.
+     *
+     * @return the text.
+     */
+    public String getText() {
+      return text;
+    }
+
+    /**
+     * Gets the number of film locations of the production, or at the site.
+     *
+     * @return the location count.
+     */
+    public int getLocationCount() {
+      return locationCount;
+    }
+  }
+
+}
@@ -0,0 +1,182 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Verifies Google ID tokens with a single shared verifier. Google's signing keys are kept in
+ * memory and refreshed on a background thread shortly before the cache headers on the certificate
+ * response say they expire, so request threads never wait on a key download. Tokens that verify
+ * successfully are cached by their SHA-256 hash until they expire, so repeated requests with the
+ * same bearer token skip signature checking.
+ */
+@Service
+public class TokenVerificationService implements MetricsSource {
+
+  private static final String METRICS_NAME = "tokenVerification";
+  private static final String HASH_ALGORITHM = "SHA-256";
+  /**
+   * GooglePublicKeysManager refreshes on the calling thread within 5 minutes of expiry, so the
+   * background refresh runs a little earlier than that.
+   */
+  private static final long REFRESH_LEAD_MILLIS = TimeUnit.MINUTES.toMillis(6);
+  private static final long MIN_REFRESH_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final GooglePublicKeysManager publicKeysManager;
+  private final GoogleIdTokenVerifier verifier;
+  private final BoundedCache<String, Payload> verifiedTokens;
+  private final ScheduledExecutorService refresher;
+  private final AtomicLong keyRefreshes = new AtomicLong();
+  private final AtomicLong keyRefreshFailures = new AtomicLong();
+  private final AtomicLong signatureChecks = new AtomicLong();
+  private final AtomicLong rejectedTokens = new AtomicLong();
+  private volatile long lastKeyRefresh;
+
+  /**
+   * Instantiates a new token verification service.
+   *
+   * @param clientId the OAuth client ID tokens must be issued for.
+   * @param certsUrl the URL Google's public signing certificates are served from.
+   * @param cacheSize the maximum number of verified tokens to remember.
+   */
+  @Autowired
+  public TokenVerificationService(@Value("${oauth.clientId}") String clientId,
+      @Value("${oauth.certsUrl}") String certsUrl,
+      @Value("${oauth.tokenCacheSize}") int cacheSize) {
+    publicKeysManager = new GooglePublicKeysManager.Builder(
+        new NetHttpTransport(), JacksonFactory.getDefaultInstance())
+        .setPublicCertsEncodedUrl(certsUrl)
+        .build();
+    verifier = new GoogleIdTokenVerifier.Builder(publicKeysManager)
+        .setAudience(Collections.singletonList(clientId))
+        .build();
+    verifiedTokens = new BoundedCache<>(cacheSize, 0);
+    refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "google-key-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts loading the signing keys in the background.
+   */
+  @PostConstruct
+  public void start() {
+    refresher.execute(this::refreshKeys);
+  }
+
+  /**
+   * Stops the background key refresh.
+   */
+  @PreDestroy
+  public void stop() {
+    refresher.shutdownNow();
+  }
+
+  /**
+   * Verifies a Google ID token, returning its payload if the token is valid.
+   *
+   * @param idTokenString the encoded ID token.
+   * @return the token payload, or null if the token is not valid.
+   * @throws GeneralSecurityException if the signature could not be checked.
+   * @throws IOException if the token could not be parsed or the keys could not be loaded.
+   */
+  public Payload verify(String idTokenString) throws GeneralSecurityException, IOException {
+    String key = hash(idTokenString);
+    Payload payload = verifiedTokens.get(key);
+    if (payload == null) {
+      signatureChecks.incrementAndGet();
+      GoogleIdToken idToken = verifier.verify(idTokenString);
+      if (idToken == null) {
+        rejectedTokens.incrementAndGet();
+        return null;
+      }
+      payload = idToken.getPayload();
+      verifiedTokens.put(key, payload,
+          TimeUnit.SECONDS.toMillis(payload.getExpirationTimeSeconds()));
+    } else if (TimeUnit.SECONDS.toMillis(payload.getExpirationTimeSeconds())
+        <= System.currentTimeMillis()) {
+      verifiedTokens.invalidate(key);
+      rejectedTokens.incrementAndGet();
+      return null;
+    }
+    return payload;
+  }
+
+  /**
+   * Downloads the signing keys and schedules the next refresh from the cache headers.
+   */
+  void refreshKeys() {
+    long delay;
+    try {
+      publicKeysManager.refresh();
+      keyRefreshes.incrementAndGet();
+      lastKeyRefresh = System.currentTimeMillis();
+      verifiedTokens.cleanUp();
+      delay = Math.max(MIN_REFRESH_DELAY_MILLIS,
+          publicKeysManager.getExpirationTimeMilliseconds() - lastKeyRefresh
+              - REFRESH_LEAD_MILLIS);
+    } catch (GeneralSecurityException | IOException | RuntimeException e) {
+      keyRefreshFailures.incrementAndGet();
+      delay = RETRY_DELAY_MILLIS;
+    }
+    if (!refresher.isShutdown()) {
+      refresher.schedule(this::refreshKeys, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private String hash(String idTokenString) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      return Base64.getEncoder().encodeToString(
+          digest.digest(idTokenString.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("tokenCache", verifiedTokens.getStatistics());
+    metrics.put("signatureChecks", signatureChecks.get());
+    metrics.put("rejectedTokens", rejectedTokens.get());
+    metrics.put("keyRefreshes", keyRefreshes.get());
+    metrics.put("keyRefreshFailures", keyRefreshFailures.get());
+    metrics.put("lastKeyRefresh", lastKeyRefresh == 0 ? null : new Date(lastKeyRefresh));
+    metrics.put("keysExpire", publicKeysManager.getExpirationTimeMilliseconds() == 0 ? null
+        : new Date(publicKeysManager.getExpirationTimeMilliseconds()));
+    return metrics;
+  }
+
+}
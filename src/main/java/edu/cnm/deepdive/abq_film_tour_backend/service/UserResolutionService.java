@@ -0,0 +1,235 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the Google account behind an authenticated request to its banned status and granted
+ * roles. Resolutions are cached by Google ID, so returning users are authenticated without a
+ * database round trip. First-time users are created, and missing roles are backfilled, with a
+ * single idempotent upsert. Anything that changes a user's record must call
+ * {@link #invalidate(String)}.
+ * <p>
+ * Each resolution also remembers the name and picture last seen on the Google account. When a
+ * token carries a different name or picture, the change is queued with the
+ * {@link ProfilePropagator}, which copies it onto everything the user has submitted and then
+ * updates the user's record. If that fails, the resolution is forgotten, so the next sign-in reads
+ * the old profile again and queues the change again.
+ */
+@Service
+public class UserResolutionService implements MetricsSource {
+
+  private static final String METRICS_NAME = "userResolution";
+  private static final String ROLE_ADMIN = "admin";
+  private static final String ROLE_SUPER = "superuser";
+  private static final String ROLE_USER = "user";
+  private static final String AUTHORITY_ADMIN = "ROLE_ADMIN";
+  private static final String AUTHORITY_SUPER = "ROLE_SUPER";
+  private static final String AUTHORITY_USER = "ROLE_USER";
+
+  /**
+   * A collection of Google IDs assigned to privileged users.
+   */
+  private String[] superIds;
+
+  /**
+   * The Google ID belonging to the administrator.
+   */
+  private String adminId;
+
+  private final UserRepository userRepository;
+  private final ProfilePropagator profilePropagator;
+  private final BoundedCache<String, ResolvedUser> resolvedUsers;
+
+  /**
+   * Instantiates a new user resolution service.
+   *
+   * @param userRepository the user repository.
+   * @param profilePropagator the propagator of changed names and pictures.
+   * @param cacheSize the maximum number of users to remember.
+   * @param cacheTtlSeconds how long a resolution is trusted before it is re-read, which bounds how
+   * long a ban made on another node takes to apply here.
+   */
+  @Autowired
+  public UserResolutionService(UserRepository userRepository,
+      ProfilePropagator profilePropagator,
+      @Value("${users.cacheSize}") int cacheSize,
+      @Value("${users.cacheTtlSeconds}") long cacheTtlSeconds) {
+    this.userRepository = userRepository;
+    this.profilePropagator = profilePropagator;
+    resolvedUsers = new BoundedCache<>(cacheSize, TimeUnit.SECONDS.toMillis(cacheTtlSeconds));
+  }
+
+  @Autowired
+  @Qualifier("adminId")
+  public void setAdminId(String adminId) {
+    this.adminId = adminId;
+  }
+
+  @Autowired
+  @Qualifier("superIds")
+  public void setSuperIds(String[] superIds) {
+    this.superIds = superIds;
+  }
+
+  /**
+   * Resolves a Google account, creating its user record on first sign-in and queuing a changed
+   * name or picture to be propagated.
+   *
+   * @param googleId the Google ID from the token payload.
+   * @param name the full name on the Google account.
+   * @param email the email address on the Google account.
+   * @param pictureUrl the URL of the Google profile picture.
+   * @return the resolved user.
+   */
+  public ResolvedUser resolve(String googleId, String name, String email, String pictureUrl) {
+    ResolvedUser resolved = resolvedUsers.get(googleId);
+    if (resolved == null) {
+      resolved = load(googleId, name, email, pictureUrl);
+      resolvedUsers.put(googleId, resolved);
+    }
+    if (!resolved.hasProfile(name, pictureUrl)) {
+      profilePropagator.propagate(googleId, name, pictureUrl, () -> invalidate(googleId));
+      resolved = resolved.withProfile(name, pictureUrl);
+      resolvedUsers.put(googleId, resolved);
+    }
+    return resolved;
+  }
+
+  /**
+   * Forgets the cached resolution of a user, so the next request re-reads the database.
+   *
+   * @param googleId the Google ID of the user that changed.
+   */
+  public void invalidate(String googleId) {
+    if (googleId != null) {
+      resolvedUsers.invalidate(googleId);
+    }
+  }
+
+  private ResolvedUser load(String googleId, String name, String email, String pictureUrl) {
+    String role = roleFor(googleId);
+    try {
+      userRepository.upsert(UUID.randomUUID(), googleId, name, email, pictureUrl, role);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent sign-in inserted the same user first, which is the outcome we wanted.
+    }
+    GoogleUser user = userRepository.findByGoogleId(googleId);
+    return new ResolvedUser(googleId, user.isBanned(), user.getBanReason(),
+        authoritiesFor(googleId), user.getGoogleName(), user.getPictureUrl());
+  }
+
+  private String roleFor(String googleId) {
+    if (googleId.equals(adminId)) {
+      return ROLE_ADMIN;
+    } else if (Arrays.asList(superIds).contains(googleId)) {
+      return ROLE_SUPER;
+    }
+    return ROLE_USER;
+  }
+
+  private Set<GrantedAuthority> authoritiesFor(String googleId) {
+    Set<GrantedAuthority> grants = new HashSet<>();
+    if (googleId.equals(adminId)) {
+      grants.add(new SimpleGrantedAuthority(AUTHORITY_ADMIN));
+    }
+    if (googleId.equals(adminId) || Arrays.asList(superIds).contains(googleId)) {
+      grants.add(new SimpleGrantedAuthority(AUTHORITY_SUPER));
+    }
+    grants.add(new SimpleGrantedAuthority(AUTHORITY_USER));
+    return Collections.unmodifiableSet(grants);
+  }
+
+  @Override
+  public String getMetricsName() {
+    return METRICS_NAME;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics() {
+    return resolvedUsers.getStatistics();
+  }
+
+  /**
+   * The cached outcome of resolving a Google account.
+   */
+  public static class ResolvedUser {
+
+    private final String googleId;
+    private final boolean banned;
+    private final String banReason;
+    private final Set<GrantedAuthority> authorities;
+    private final String name;
+    private final String pictureUrl;
+
+    ResolvedUser(String googleId, boolean banned, String banReason,
+        Set<GrantedAuthority> authorities, String name, String pictureUrl) {
+      this.googleId = googleId;
+      this.banned = banned;
+      this.banReason = banReason;
+      this.authorities = authorities;
+      this.name = name;
+      this.pictureUrl = pictureUrl;
+    }
+
+    boolean hasProfile(String name, String pictureUrl) {
+      return Objects.equals(this.name, name) && Objects.equals(this.pictureUrl, pictureUrl);
+    }
+
+    ResolvedUser withProfile(String name, String pictureUrl) {
+      return new ResolvedUser(googleId, banned, banReason, authorities, name, pictureUrl);
+    }
+
+    /**
+     * Gets the Google ID of the user.
+     *
+     * @return the Google ID.
+     */
+    public String getGoogleId() {
+      return googleId;
+    }
+
+    /**
+     * Checks if the user is banned from the service.
+     *
+     * @return the banned status of the user.
+     */
+    public boolean isBanned() {
+      return banned;
+    }
+
+    /**
+     * Gets the reason for a ban.
+     *
+     * @return the ban reason.
+     */
+    public String getBanReason() {
+      return banReason;
+    }
+
+    /**
+     * Gets the roles granted to the user.
+     *
+     * @return the granted authorities.
+     */
+    public Set<GrantedAuthority> getAuthorities() {
+      return authorities;
+    }
+  }
+
+}
@@ -0,0 +1,256 @@
+package edu.cnm.deepdive.abq_film_tour_backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.service.RetrofitClientService;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ParserTest {
+
+  private static final String HEADER = "features__attributes__OBJECTID,features__attributes__Title,"
+      + "features__attributes__Type,features__attributes__IMDbLink,features__attributes__Address,"
+      + "features__attributes__Site,features__attributes__ShootDate,"
+      + "features__attributes__OriginalDetails,features__geometry__x,features__geometry__y,,";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Autowired
+  private Parser parser;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private RetrofitClientService retrofitClientService;
+
+  private HttpServer server;
+  private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+  private final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+  private volatile Thread interruptedOnLookup;
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      String imdbId = exchange.getRequestURI().getQuery().split("&")[0].substring(2);
+      lookups.computeIfAbsent(imdbId, (key) -> new AtomicInteger()).incrementAndGet();
+      Thread waiting = interruptedOnLookup;
+      if (waiting != null) {
+        waiting.interrupt();
+      }
+      if (unavailable.contains(imdbId)) {
+        exchange.sendResponseHeaders(503, -1);
+        exchange.close();
+        return;
+      }
+      byte[] body = ("{\"imdbID\":\"" + imdbId + "\",\"Title\":\"Production " + imdbId
+          + "\",\"Type\":\"movie\"}").getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(body);
+      }
+    });
+    server.start();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://" + server.getAddress().getHostString() + ":"
+            + server.getAddress().getPort() + "/")
+        .addConverterFactory(GsonConverterFactory.create())
+        .build();
+    ReflectionTestUtils.setField(parser, "retrofitClientService", new RetrofitClientService() {
+      @Override
+      public Retrofit getRetrofit() {
+        return retrofit;
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    ReflectionTestUtils.setField(parser, "retrofitClientService", retrofitClientService);
+    server.stop(0);
+  }
+
+  @Test
+  public void synchronizeAppliesOnlyTheDifferences() throws IOException {
+    FilmLocation userLocation = new FilmLocation();
+    userLocation.setSiteName("User Site");
+    userLocation.setUserName("Someone Else");
+    filmLocationRepository.save(userLocation);
+    FilmLocation legacy = legacyLocation(null, "100 Central Ave", "First Site");
+    FilmLocation impostor = legacyLocation("google-city-impostor", "300 Central Ave", "Third Site");
+
+    ImportReport first = parser.synchronizeDatabase(export("first.csv",
+        record(900001, "100 Central Ave", "First Site"),
+        record(900002, "200 Central Ave", "Second Site"),
+        record(900003, "300 Central Ave", "Third Site")));
+    assertEquals(2, first.getLocationsAdded());
+    assertEquals(1, first.getLocationsUpdated());
+    assertEquals(legacy.getId(), filmLocationRepository.findByObjectId(900001L).getId());
+
+    ImportReport second = parser.synchronizeDatabase(export("second.csv",
+        record(900001, "100 Central Ave", "First Site"),
+        record(900002, "250 Central Ave", "Second Site"),
+        record(900004, "400 Central Ave", "Fourth Site")));
+    assertEquals(1, second.getLocationsAdded());
+    assertEquals(1, second.getLocationsUpdated());
+    assertEquals(1, second.getLocationsUnchanged());
+    assertEquals(1, second.getLocationsRemoved());
+    assertEquals(0, second.getFailures());
+
+    FilmLocation changed = filmLocationRepository.findByObjectId(900002L);
+    assertEquals("250 Central Ave", changed.getAddress());
+    List<UserComment> comments =
+        userCommentRepository.findAllByFilmLocationOrderByCreatedDesc(changed);
+    assertEquals(1, comments.size());
+    assertTrue(comments.get(0).getText().contains("250 Central Ave"));
+    assertTrue(filmLocationRepository.findByObjectId(900003L).isCityDataRemoved());
+    assertFalse(filmLocationRepository.findByObjectId(900001L).isCityDataRemoved());
+    FilmLocation untouched = filmLocationRepository.findById(userLocation.getId()).get();
+    assertEquals("User Site", untouched.getSiteName());
+    assertFalse(untouched.isCityDataRemoved());
+    FilmLocation unclaimed = filmLocationRepository.findById(impostor.getId()).get();
+    assertNull(unclaimed.getObjectId());
+    assertEquals("google-city-impostor", unclaimed.getGoogleId());
+  }
+
+  @Test
+  public void locationIsUpdatedOnceItsProductionIsFound() throws IOException {
+    String record = record(930001, "tt9300001", "100 Lookup Rd", "Lookup One");
+    unavailable.add("tt9300001");
+    ImportReport first = parser.synchronizeDatabase(export("unavailable.csv", record));
+    assertEquals(1, first.getLocationsAdded());
+    assertEquals(1, first.getProductionFetchFailures());
+    FilmLocation location = filmLocationRepository.findByObjectId(930001L);
+    assertNull(location.getProduction());
+
+    unavailable.clear();
+    ImportReport second = parser.synchronizeDatabase(export("available.csv", record));
+    assertEquals(1, second.getLocationsUpdated());
+    assertEquals(0, second.getLocationsUnchanged());
+    FilmLocation found = filmLocationRepository.findAllWithProductionByIdIn(
+        Collections.singleton(location.getId())).get(0);
+    assertEquals("Production tt9300001", found.getProduction().getTitle());
+
+    ImportReport third = parser.synchronizeDatabase(export("unchanged.csv", record));
+    assertEquals(0, third.getLocationsUpdated());
+    assertEquals(1, third.getLocationsUnchanged());
+  }
+
+  @Test
+  public void failedChunkIsRetriedOneRecordAtATimeAndEachIdIsFetchedOnce() throws IOException {
+    char[] tooLong = new char[300];
+    Arrays.fill(tooLong, 'x');
+    ImportReport report = parser.synchronizeDatabase(export("pipeline.csv",
+        record(910001, "tt9100001", "100 Pipeline Rd", "Pipeline One"),
+        record(910002, "tt9100001", "200 Pipeline Rd", "Pipeline Two"),
+        record(910003, "tt9100001", "300 Pipeline Rd", new String(tooLong)),
+        record(910004, "tt9100002", "400 Pipeline Rd", "Pipeline Four")));
+    assertEquals(3, report.getLocationsAdded());
+    assertEquals(1, report.getFailures());
+    assertNull(filmLocationRepository.findByObjectId(910003L));
+    assertEquals(2, report.getProductionsFetched());
+    assertEquals(1, lookups.get("tt9100001").get());
+    assertEquals(1, lookups.get("tt9100002").get());
+    for (FilmLocation location : filmLocationRepository.findAllWithProductionByIdIn(Arrays.asList(
+        filmLocationRepository.findByObjectId(910001L).getId(),
+        filmLocationRepository.findByObjectId(910002L).getId()))) {
+      assertEquals("Production tt9100001", location.getProduction().getTitle());
+    }
+  }
+
+  @Test
+  public void interruptedLookupsAbandonTheImport() throws IOException {
+    String path = export("interrupted.csv",
+        record(920001, "tt9200001", "100 Interrupted Rd", "Interrupted One"));
+    interruptedOnLookup = Thread.currentThread();
+    try {
+      parser.synchronizeDatabase(path);
+      fail();
+    } catch (InterruptedIOException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertNull(filmLocationRepository.findByObjectId(920001L));
+    assertNull(productionRepository.findByImdbId("tt9200001"));
+  }
+
+  private FilmLocation legacyLocation(String googleId, String address, String site) {
+    FilmLocation location = new FilmLocation();
+    location.setGoogleId(googleId);
+    location.setUserName("City of Albuquerque");
+    location.setAddress(address);
+    location.setSiteName(site);
+    location.setShootDate(1254441600000L);
+    location.setLongCoordinate(-106.60941972991);
+    location.setLatCoordinate(35.0824450926014);
+    return filmLocationRepository.save(location);
+  }
+
+  private String record(long objectId, String address, String site) {
+    return objectId + ",0,Movie,na," + address + "," + site
+        + ",1254441600000,null,-106.60941972991,35.0824450926014,,";
+  }
+
+  private String record(long objectId, String imdbId, String address, String site) {
+    return objectId + ",0,Movie,http://www.imdb.com/title/" + imdbId + "/," + address + ","
+        + site + ",1254441600000,null,-106.60941972991,35.0824450926014,,";
+  }
+
+  private String export(String name, String... records) throws IOException {
+    File file = folder.newFile(name);
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    lines.addAll(Arrays.asList(records));
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    return file.getPath();
+  }
+
+}
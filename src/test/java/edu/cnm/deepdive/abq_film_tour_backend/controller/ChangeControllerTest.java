@@ -0,0 +1,139 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.controller.ChangePage.Tombstone;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ChangeControllerTest {
+
+  @Autowired
+  private ChangeController changeController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private Production production;
+  private FilmLocation location;
+
+  @After
+  public void tearDown() {
+    if (location != null) {
+      userCommentRepository.deleteAll(
+          userCommentRepository.findAllByFilmLocationOrderByCreatedDesc(location));
+      filmLocationRepository.delete(location);
+    }
+    if (production != null) {
+      productionRepository.delete(production);
+    }
+  }
+
+  @Test
+  public void feedHoldsOnlyTheLatestChangesAndTombstones() {
+    String start = changeController.list(null, null).getToken();
+
+    production = new Production();
+    production.setImdbId("tt-changes");
+    production.setTitle("Changes");
+    production = productionRepository.save(production);
+    location = new FilmLocation();
+    location.setSiteName("Changes");
+    location.setProduction(production);
+    location = filmLocationRepository.save(location);
+    UserComment comment = new UserComment();
+    comment.setText("Soon gone");
+    comment.setFilmLocation(location);
+    comment = userCommentRepository.save(comment);
+    location.setSiteName("Changed");
+    location = filmLocationRepository.save(location);
+    userCommentRepository.delete(comment);
+
+    ChangePage page = changeController.list(start, null);
+    assertFalse(page.isMore());
+    assertEquals(1, page.getFilmLocations().size());
+    assertEquals("Changed", page.getFilmLocations().get(0).getSiteName());
+    assertEquals(production.getId(), page.getFilmLocations().get(0).getProductionId());
+    assertEquals(1, page.getProductions().size());
+    assertTrue(page.getUserComments().isEmpty());
+    assertEquals(1, page.getDeleted().size());
+    Tombstone tombstone = page.getDeleted().get(0);
+    assertEquals(Kind.USER_COMMENT, tombstone.getKind());
+    assertEquals(comment.getId(), tombstone.getId());
+    assertNotNull(location.getUpdated());
+
+    assertTrue(changeController.list(page.getToken(), null).getFilmLocations().isEmpty());
+  }
+
+  @Test
+  public void tokenFetchedBeforeAFullDownloadDeliversWritesMadeDuringIt() {
+    production = new Production();
+    production.setImdbId("tt-download");
+    production.setTitle("Before");
+    production = productionRepository.save(production);
+    String before = changeController.list(null, null).getToken();
+    assertEquals("Before", productionRepository.findById(production.getId()).get().getTitle());
+
+    production.setTitle("During");
+    production = productionRepository.save(production);
+    String after = changeController.list(null, null).getToken();
+
+    ChangePage page = changeController.list(before, null);
+    assertEquals(1, page.getProductions().size());
+    assertEquals("During", page.getProductions().get(0).getTitle());
+    assertTrue(changeController.list(after, null).getProductions().isEmpty());
+  }
+
+  @Test
+  public void rolledBackWritesAreNotRecorded() {
+    String start = changeController.list(null, null).getToken();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.execute((status) -> {
+      Production rolledBack = new Production();
+      rolledBack.setImdbId("tt-rolled-back");
+      productionRepository.save(rolledBack);
+      status.setRollbackOnly();
+      return null;
+    });
+    ChangePage page = changeController.list(start, null);
+    assertEquals(start, page.getToken());
+    assertEquals(Collections.emptyList(), page.getProductions());
+  }
+
+  @Test(expected = ResponseStatusException.class)
+  public void malformedTokensAreRejected() {
+    changeController.list("not-a-token", null);
+  }
+
+}
@@ -0,0 +1,95 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class CompactFilmLocationTest {
+
+  @Autowired
+  private FilmLocationController filmLocationController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final List<FilmLocation> locations = new ArrayList<>();
+  private Production production;
+
+  @After
+  public void tearDown() {
+    filmLocationRepository.deleteAll(locations);
+    productionRepository.delete(production);
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void productionsAreSideLoadedOnce() throws Exception {
+    production = new Production();
+    production.setImdbId("tt-compact");
+    production.setTitle("Compact");
+    char[] plot = new char[300];
+    Arrays.fill(plot, 'p');
+    production.setPlot(new String(plot));
+    production = productionRepository.save(production);
+    for (int i = 0; i < 20; i++) {
+      FilmLocation location = new FilmLocation();
+      location.setSiteName("Compact " + i);
+      location.setLatCoordinate(-70.0);
+      location.setLongCoordinate(-100.0 + i * 0.001);
+      location.setProduction(production);
+      locations.add(location);
+    }
+    filmLocationRepository.saveAll(locations);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/film_locations/compact")));
+
+    JsonNode page = objectMapper.valueToTree(
+        filmLocationController.listCompact(null, null).getBody());
+    String productionId = production.getId().toString();
+    List<JsonNode> compact = new ArrayList<>();
+    for (JsonNode location : page.get("filmLocations")) {
+      if (productionId.equals(location.path("productionId").asText())) {
+        assertTrue(location.path("production").isMissingNode());
+        compact.add(location);
+      }
+    }
+    assertEquals(locations.size(), compact.size());
+    JsonNode summary = page.get("productions").get(productionId);
+    assertEquals("Compact", summary.get("title").asText());
+    assertEquals(300, summary.get("plot").asText().length());
+
+    int full = objectMapper.writeValueAsBytes(locations).length;
+    int side = objectMapper.writeValueAsBytes(compact).length
+        + objectMapper.writeValueAsBytes(summary).length;
+    assertTrue(side * 2 < full);
+  }
+
+}
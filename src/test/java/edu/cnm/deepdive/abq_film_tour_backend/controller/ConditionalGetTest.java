@@ -0,0 +1,123 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import java.util.concurrent.Callable;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ConditionalGetTest {
+
+  @Autowired
+  private FilmLocationController filmLocationController;
+
+  @Autowired
+  private ProductionController productionController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  private Production production;
+  private FilmLocation location;
+  private MockHttpServletResponse response;
+
+  @Before
+  public void setUp() {
+    production = new Production();
+    production.setImdbId("tt-conditional");
+    production.setTitle("Conditional");
+    production = productionRepository.save(production);
+    location = new FilmLocation();
+    location.setSiteName("Conditional");
+    location.setProduction(production);
+    location = filmLocationRepository.save(location);
+  }
+
+  @After
+  public void tearDown() {
+    filmLocationRepository.delete(location);
+    productionRepository.delete(production);
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void listsAnswerCurrentTagsWithoutQueries() throws Exception {
+    Callable<Object> list = () ->
+        filmLocationController.list(null, null, 0, null, null, null, false, response);
+    String tag = get(null, list);
+    assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    assertEquals(ConditionalGet.CACHE_CONTROL, response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+    QueryCounter.reset();
+    assertNull(call(tag, list));
+    assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+    assertEquals(0, QueryCounter.count());
+
+    production.setTitle("Retitled");
+    production = productionRepository.save(production);
+    assertNotNull(call(tag, list));
+    assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    assertNotEquals(tag, response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  public void itemsChangeTagOnlyWhenTheyAreWritten() throws Exception {
+    Callable<Object> item = () -> productionController.get(production.getId());
+    String tag = get(null, item);
+
+    Production other = new Production();
+    other.setImdbId("tt-conditional-other");
+    other = productionRepository.save(other);
+    productionRepository.delete(other);
+    assertNull(call(tag, item));
+    assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+    production.setTitle("Retitled");
+    production = productionRepository.save(production);
+    assertNotNull(call(tag, item));
+    assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+  }
+
+  private String get(String ifNoneMatch, Callable<Object> call) throws Exception {
+    call(ifNoneMatch, call);
+    String tag = response.getHeader(HttpHeaders.ETAG);
+    assertNotNull(tag);
+    return tag;
+  }
+
+  private Object call(String ifNoneMatch, Callable<Object> call) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    if (ifNoneMatch != null) {
+      request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+    response = new MockHttpServletResponse();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    return call.call();
+  }
+
+}
@@ -0,0 +1,113 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class JsonStreamerTest {
+
+  @Autowired
+  private FilmLocationController filmLocationController;
+
+  @Autowired
+  private UserCommentController userCommentController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final List<FilmLocation> saved = new ArrayList<>();
+  private final List<UserComment> comments = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    userCommentRepository.deleteAll(comments);
+    filmLocationRepository.deleteAll(saved);
+  }
+
+  @Test
+  public void streamWritesEveryLocationAsOneArray() throws Exception {
+    for (int i = 0; i < 250; i++) {
+      FilmLocation location = new FilmLocation();
+      location.setSiteName("Streamed " + i);
+      location.setLatCoordinate(-60.0);
+      location.setLongCoordinate(-100.0 + i * 0.001);
+      saved.add(location);
+    }
+    filmLocationRepository.saveAll(saved);
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertEquals(null, filmLocationController.list(null, null, 1000, null, null, null, true,
+        response));
+    JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+    assertTrue(body.isArray());
+    assertEquals(filmLocationRepository.count(), body.size());
+    Set<String> ids = new HashSet<>();
+    for (JsonNode location : body) {
+      ids.add(location.get("id").asText());
+    }
+    assertEquals(body.size(), ids.size());
+    for (FilmLocation location : saved) {
+      assertTrue(ids.contains(location.getId().toString()));
+    }
+  }
+
+  @Test
+  public void streamedCommentsCarryOnlyTheirLocationIdAndName() throws Exception {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName("Commented");
+    location.setLatCoordinate(-61.0);
+    location.setLongCoordinate(-100.0);
+    saved.add(filmLocationRepository.save(location));
+    for (int i = 0; i < 3; i++) {
+      UserComment comment = new UserComment();
+      comment.setText("Comment " + i);
+      comment.setFilmLocation(location);
+      comment.setGoogleId("streamer");
+      comment.setUserName("Streamer");
+      comments.add(comment);
+    }
+    userCommentRepository.saveAll(comments);
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertEquals(null, userCommentController.list(null, null, true, response));
+    int found = 0;
+    for (JsonNode comment : objectMapper.readTree(response.getContentAsByteArray())) {
+      if (location.getId().toString().equals(comment.path("filmLocationId").asText())) {
+        assertEquals("Commented", comment.get("filmLocationName").asText());
+        assertEquals("Streamer", comment.get("userName").asText());
+        assertFalse(comment.has("filmLocation"));
+        found++;
+      }
+    }
+    assertEquals(comments.size(), found);
+  }
+
+}
@@ -0,0 +1,149 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.service.BulkDeleteService;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ModerationService.Decided;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ModerationControllerTest {
+
+  @Autowired
+  private ModerationController moderationController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private BulkDeleteService bulkDeleteService;
+
+  private FilmLocation location;
+  private UserComment pendingComment;
+  private UserComment approvedComment;
+  private Image image;
+
+  @Before
+  public void setUp() {
+    location = new FilmLocation();
+    location.setSiteName("Moderated");
+    location = filmLocationRepository.save(location);
+    pendingComment = comment(false);
+    image = new Image();
+    image.setUrl("https://example.com/moderated.jpg");
+    image.setFilmLocation(location);
+    image = imageRepository.save(image);
+    approvedComment = comment(true);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/moderation/queue")));
+    SecurityContextHolder.getContext().setAuthentication(
+        new TestingAuthenticationToken("moderator", null, "ROLE_SUPER"));
+  }
+
+  @After
+  public void tearDown() {
+    bulkDeleteService.deleteFilmLocations(Collections.singleton(location.getId()));
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void queueMergesPendingItemsOldestFirst() {
+    List<PendingItem> queue = queue();
+    Map<UUID, Kind> kinds = new HashMap<>();
+    for (int i = 0; i < queue.size(); i++) {
+      assertNull(kinds.put(queue.get(i).getId(), queue.get(i).getKind()));
+      if (i > 0) {
+        assertTrue(PendingItem.QUEUE_ORDER.compare(queue.get(i - 1), queue.get(i)) < 0);
+      }
+    }
+    assertEquals(Kind.FILM_LOCATION, kinds.get(location.getId()));
+    assertEquals(Kind.USER_COMMENT, kinds.get(pendingComment.getId()));
+    assertEquals(Kind.IMAGE, kinds.get(image.getId()));
+    assertFalse(kinds.containsKey(approvedComment.getId()));
+  }
+
+  @Test
+  public void approvesAndRejectsOnlyPendingItems() {
+    ModerationBatch approval = new ModerationBatch();
+    approval.setFilmLocations(Collections.singletonList(location.getId()));
+    approval.setUserComments(Arrays.asList(pendingComment.getId(), approvedComment.getId()));
+    Decided approved = moderationController.approve(approval);
+    assertEquals(Collections.singletonList(location.getId()), approved.getFilmLocations());
+    assertEquals(Collections.singletonList(pendingComment.getId()), approved.getUserComments());
+    assertTrue(filmLocationRepository.findById(location.getId()).get().isApproved());
+    assertTrue(userCommentRepository.findById(pendingComment.getId()).get().isApproved());
+
+    ModerationBatch rejection = new ModerationBatch();
+    rejection.setImages(Collections.singletonList(image.getId()));
+    rejection.setUserComments(Collections.singletonList(pendingComment.getId()));
+    Decided rejected = moderationController.reject(rejection);
+    assertEquals(Collections.singletonList(image.getId()), rejected.getImages());
+    assertTrue(rejected.getUserComments().isEmpty());
+    assertFalse(imageRepository.existsById(image.getId()));
+    assertTrue(userCommentRepository.existsById(pendingComment.getId()));
+    for (PendingItem item : queue()) {
+      assertFalse(item.getId().equals(location.getId()) || item.getId().equals(image.getId()));
+    }
+  }
+
+  private List<PendingItem> queue() {
+    List<PendingItem> all = new ArrayList<>();
+    String cursor = null;
+    do {
+      ResponseEntity<List<PendingItem>> response = moderationController.queue(cursor, 1);
+      assertNotNull(response.getBody());
+      all.addAll(response.getBody());
+      cursor = PageLinks.nextCursor(response);
+    } while (cursor != null && all.size() < 1000);
+    return all;
+  }
+
+  private UserComment comment(boolean approved) {
+    UserComment comment = new UserComment();
+    comment.setText("Moderated");
+    comment.setApproved(approved);
+    comment.setFilmLocation(location);
+    return userCommentRepository.save(comment);
+  }
+
+}
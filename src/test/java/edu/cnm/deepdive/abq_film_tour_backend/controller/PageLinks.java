@@ -0,0 +1,38 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Reads the {@code Link} header of the paged responses the controllers return.
+ */
+final class PageLinks {
+
+  private static final Pattern NEXT = Pattern.compile("<([^>]+)>; rel=\"next\"");
+
+  private PageLinks() {
+  }
+
+  /**
+   * Gets the cursor of the next page a response links to.
+   *
+   * @param response the response to a page request.
+   * @return the cursor of the next page, or null on the last page.
+   */
+  static String nextCursor(ResponseEntity<?> response) {
+    String link = response.getHeaders().getFirst(HttpHeaders.LINK);
+    if (link == null) {
+      return null;
+    }
+    Matcher matcher = NEXT.matcher(link);
+    assertTrue(matcher.find());
+    return UriComponentsBuilder.fromUriString(matcher.group(1)).build()
+        .getQueryParams().getFirst("cursor");
+  }
+
+}
@@ -0,0 +1,110 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class PaginatorTest {
+
+  @Autowired
+  private ProductionController productionController;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  private final List<Production> saved = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    productionRepository.deleteAll(saved);
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void pagesCoverEveryProductionOnceInTitleOrder() {
+    List<UUID> expected = new ArrayList<>();
+    for (String title : new String[]{"Paging C", "Paging A", null, "Paging B", null}) {
+      Production production = new Production();
+      production.setTitle(title);
+      production.setImdbId("tt-paging-" + saved.size());
+      saved.add(productionRepository.save(production));
+    }
+    expected.add(saved.get(1).getId());
+    expected.add(saved.get(3).getId());
+    expected.add(saved.get(0).getId());
+    Set<UUID> untitled = new HashSet<>();
+    untitled.add(saved.get(2).getId());
+    untitled.add(saved.get(4).getId());
+
+    List<UUID> seen = new ArrayList<>();
+    Set<UUID> unique = new HashSet<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      setRequest(cursor);
+      ResponseEntity<List<Production>> response = productionController.list(null, cursor, 2);
+      assertTrue(response.getBody().size() <= 2);
+      for (Production production : response.getBody()) {
+        assertTrue(unique.add(production.getId()));
+        if (expected.contains(production.getId()) || untitled.contains(production.getId())) {
+          seen.add(production.getId());
+        }
+      }
+      cursor = PageLinks.nextCursor(response);
+      pages++;
+    } while (cursor != null && pages < 1000);
+    assertEquals(expected, seen.subList(0, expected.size()));
+    assertEquals(untitled, new HashSet<>(seen.subList(expected.size(), seen.size())));
+  }
+
+  @Test
+  public void cursorsRoundTrip() {
+    UUID id = UUID.randomUUID();
+    Paginator.Cursor titled = Paginator.decode(Paginator.cursor("Title: with a colon", id));
+    assertEquals("Title: with a colon", titled.getKey());
+    assertEquals(id, titled.getId());
+    Paginator.Cursor untitled = Paginator.decode(Paginator.cursor((String) null, id));
+    assertNull(untitled.getKey());
+    assertEquals(id, untitled.getId());
+  }
+
+  @Test
+  public void lastPageHasNoNextLink() {
+    setRequest(null);
+    ResponseEntity<List<Production>> response = productionController.list(null, null, 500);
+    assertFalse(response.getHeaders().containsKey(HttpHeaders.LINK));
+  }
+
+  private void setRequest(String cursor) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/productions");
+    if (cursor != null) {
+      request.setQueryString("cursor=" + cursor + "&size=2");
+    }
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+}
@@ -0,0 +1,190 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProductionControllerTest {
+
+  @Autowired
+  private ProductionController productionController;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private Production movie;
+  private Production series;
+  private final List<FilmLocation> locations = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    movie = production("tt-tour-1", "Tour Movie", "movie");
+    series = production("tt-tour-2", "Tour Series", "series");
+    location("Far", 35.2, -106.6, movie);
+    location("Near", 35.0, -106.6, movie);
+    location("Middle", 35.1, -106.6, movie);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/productions")));
+    SecurityContextHolder.getContext().setAuthentication(
+        new TestingAuthenticationToken("super", null, "ROLE_SUPER"));
+  }
+
+  @After
+  public void tearDown() {
+    filmLocationRepository.deleteAll(locations);
+    productionRepository.delete(movie);
+    productionRepository.delete(series);
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void locationCountsFollowLocationWrites() {
+    assertEquals(3, productionController.get(movie.getId()).getLocationCount());
+    assertEquals(0, productionController.get(series.getId()).getLocationCount());
+
+    FilmLocation moved = locations.get(0);
+    moved.setProduction(series);
+    locations.set(0, filmLocationRepository.save(moved));
+    filmLocationRepository.delete(locations.remove(1));
+    movie.setPlot("Retold");
+    movie = productionRepository.save(movie);
+
+    assertEquals(1, productionController.get(movie.getId()).getLocationCount());
+    assertEquals(1, productionController.get(series.getId()).getLocationCount());
+    assertEquals(1, productionRepository.findById(movie.getId()).get().getLocationCount());
+  }
+
+  @Test
+  public void listsOnlyProductionsOfTheTypeAskedFor() {
+    List<UUID> ids = new ArrayList<>();
+    for (Production production : productionController.list("series", null, null).getBody()) {
+      assertEquals("series", production.getType());
+      ids.add(production.getId());
+    }
+    assertTrue(ids.contains(series.getId()));
+  }
+
+  @Test
+  public void pagesLocationsNewestFirstOrByDistance() {
+    List<FilmLocation> newest = pages(movie.getId(), null);
+    assertEquals(new HashSet<>(Arrays.asList("Middle", "Near", "Far")),
+        new HashSet<>(siteNames(newest)));
+    for (int i = 1; i < newest.size(); i++) {
+      assertTrue(!newest.get(i).getCreated().after(newest.get(i - 1).getCreated()));
+    }
+    assertEquals(Arrays.asList("Near", "Middle", "Far"),
+        siteNames(pages(movie.getId(), "35.0,-106.6")));
+    assertTrue(productionController.getFilmLocations(series.getId(), null, null, null)
+        .getBody().isEmpty());
+  }
+
+  @Test
+  public void patchChangesOnlyTheFieldsItIncludes() {
+    Production patched = productionController.patch(patch(movie.getVersion(), "Patched"));
+    assertEquals(movie.getVersion() + 1, patched.getVersion());
+    movie = productionRepository.findById(movie.getId()).get();
+    assertEquals("Patched", movie.getPlot());
+    assertEquals("Tour Movie", movie.getTitle());
+    assertEquals("movie", movie.getType());
+    assertEquals(patched.getVersion(), movie.getVersion());
+  }
+
+  @Test
+  public void patchFromAnOlderVersionIsRefused() {
+    long read = movie.getVersion();
+    productionController.patch(patch(read, "First"));
+    try {
+      productionController.patch(patch(read, "Second"));
+      fail();
+    } catch (ResponseStatusException e) {
+      assertEquals(HttpStatus.CONFLICT, e.getStatus());
+    }
+    movie = productionRepository.findById(movie.getId()).get();
+    assertEquals("First", movie.getPlot());
+  }
+
+  private ObjectNode patch(long version, String plot) {
+    return objectMapper.createObjectNode()
+        .put("id", movie.getId().toString())
+        .put("version", version)
+        .put("plot", plot);
+  }
+
+  private List<FilmLocation> pages(UUID productionId, String near) {
+    List<FilmLocation> all = new ArrayList<>();
+    String cursor = null;
+    do {
+      ResponseEntity<List<FilmLocation>> response =
+          productionController.getFilmLocations(productionId, near, cursor, 1);
+      assertNotNull(response.getBody());
+      all.addAll(response.getBody());
+      cursor = PageLinks.nextCursor(response);
+    } while (cursor != null && all.size() < 10);
+    return all;
+  }
+
+  private Production production(String imdbId, String title, String type) {
+    Production production = new Production();
+    production.setImdbId(imdbId);
+    production.setTitle(title);
+    production.setType(type);
+    return productionRepository.save(production);
+  }
+
+  private void location(String siteName, double lat, double lng, Production production) {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName(siteName);
+    location.setLatCoordinate(lat);
+    location.setLongCoordinate(lng);
+    location.setProduction(production);
+    locations.add(filmLocationRepository.save(location));
+  }
+
+  private static List<String> siteNames(List<FilmLocation> locations) {
+    List<String> names = new ArrayList<>();
+    for (FilmLocation location : locations) {
+      names.add(location.getSiteName());
+    }
+    return names;
+  }
+
+}
@@ -0,0 +1,288 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Holds every read endpoint to a budget of SQL statements. The endpoints are called with a few
+ * dozen rows behind them and their responses serialized inside a transaction, as they are with the
+ * session open in the view, so a lazy association loaded once per row goes over budget.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class QueryBudgetTest {
+
+  private static final int ROWS = 20;
+  private static final String GOOGLE_ID = "query-budget";
+
+  @Autowired
+  private FilmLocationController filmLocationController;
+
+  @Autowired
+  private ImageController imageController;
+
+  @Autowired
+  private UserCommentController userCommentController;
+
+  @Autowired
+  private ProductionController productionController;
+
+  @Autowired
+  private UserController userController;
+
+  @Autowired
+  private ChangeController changeController;
+
+  @Autowired
+  private SearchController searchController;
+
+  @Autowired
+  private SuggestController suggestController;
+
+  @Autowired
+  private ModerationController moderationController;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final List<Production> productions = new ArrayList<>();
+  private final List<FilmLocation> locations = new ArrayList<>();
+  private final List<UserComment> comments = new ArrayList<>();
+  private final List<Image> images = new ArrayList<>();
+  private final List<String> failures = new ArrayList<>();
+  private GoogleUser user;
+
+  @Before
+  public void setUp() {
+    user = new GoogleUser();
+    user.setGoogleId(GOOGLE_ID);
+    user.setGoogleName("Query Budget");
+    user = userRepository.save(user);
+    for (int i = 0; i < ROWS; i++) {
+      Production production = new Production();
+      production.setImdbId("tt-budget-" + i);
+      production.setTitle("Budget " + i);
+      productions.add(production);
+      FilmLocation location = new FilmLocation();
+      location.setSiteName("Budget " + i);
+      location.setLatCoordinate(-80.0);
+      location.setLongCoordinate(-100.0 + i * 0.001);
+      location.setGoogleId(GOOGLE_ID);
+      location.setProduction(production);
+      locations.add(location);
+      UserComment comment = new UserComment();
+      comment.setText("Budget " + i);
+      comment.setFilmLocation(location);
+      comment.setGoogleId(GOOGLE_ID);
+      comments.add(comment);
+      Image image = new Image();
+      image.setUrl("https://example.com/" + i + ".jpg");
+      image.setFilmLocation(location);
+      image.setGoogleId(GOOGLE_ID);
+      images.add(image);
+    }
+    productionRepository.saveAll(productions);
+    filmLocationRepository.saveAll(locations);
+    userCommentRepository.saveAll(comments);
+    imageRepository.saveAll(images);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/")));
+    SecurityContextHolder.getContext().setAuthentication(
+        new TestingAuthenticationToken(GOOGLE_ID, null, "ROLE_ADMIN", "ROLE_SUPER"));
+  }
+
+  @After
+  public void tearDown() {
+    imageRepository.deleteAll(images);
+    userCommentRepository.deleteAll(comments);
+    filmLocationRepository.deleteAll(locations);
+    productionRepository.deleteAll(productions);
+    userRepository.delete(user);
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void readEndpointsStayWithinTheirBudgets() {
+    FilmLocation location = locations.get(0);
+    UUID locationId = location.getId();
+    UUID commentId = comments.get(0).getId();
+    UUID imageId = images.get(0).getId();
+
+    within("GET /film_locations", 1, () ->
+        filmLocationController.list(null, null, 0, null, null, null, false, response()));
+    within("GET /film_locations?stream", 1, () ->
+        filmLocationController.list(null, null, 0, null, null, null, true, response()));
+    within("GET /film_locations?bbox", 1, () ->
+        filmLocationController.list("-100.1,-80.1,-99.9,-79.9", null, 0, null, null, null, false,
+            response()));
+    within("GET /film_locations/compact", 2, () ->
+        filmLocationController.listCompact(null, null));
+    within("GET /film_locations/{id}", 1, () -> filmLocationController.get(locationId));
+    within("GET /film_locations/batch", 1, () -> filmLocationController.getBatch(ids(locations,
+        FilmLocation::getId)));
+    within("GET /film_locations/{id}/detail", 5, () ->
+        filmLocationController.getDetail(locationId, null));
+    within("GET /film_locations/{id}/images", 2, () ->
+        filmLocationController.getImages(locationId, null, null));
+    within("GET /film_locations/{id}/images/{id}", 1, () ->
+        filmLocationController.getImage(locationId, imageId));
+    within("GET /film_locations/{id}/user_comments", 2, () ->
+        filmLocationController.getUserComments(locationId, null, null));
+    within("GET /film_locations/{id}/user_comments/{id}", 1, () ->
+        filmLocationController.getUserComment(locationId, commentId));
+    within("GET /images", 1, () -> imageController.list(null, null, false, response()));
+    within("GET /images?stream", 1, () -> imageController.list(null, null, true, response()));
+    within("GET /images/{id}", 1, () -> imageController.get(imageId));
+    within("GET /images/batch", 1, () -> imageController.getBatch(ids(images, Image::getId)));
+    within("GET /user_comments", 1, () ->
+        userCommentController.list(null, null, false, response()));
+    within("GET /user_comments?stream", 1, () ->
+        userCommentController.list(null, null, true, response()));
+    within("GET /user_comments/{id}", 1, () -> userCommentController.get(commentId));
+    within("GET /user_comments/batch", 1, () ->
+        userCommentController.getBatch(ids(comments, UserComment::getId)));
+    within("GET /productions", 1, () -> productionController.list(null, null, null));
+    within("GET /productions?type", 1, () -> productionController.list("movie", null, null));
+    within("GET /productions/{id}", 1, () ->
+        productionController.get(location.getProduction().getId()));
+    within("GET /productions/{id}/film_locations", 2, () ->
+        productionController.getFilmLocations(location.getProduction().getId(), null, null, null));
+    within("GET /productions/{id}/film_locations?near", 3, () ->
+        productionController.getFilmLocations(location.getProduction().getId(), "-80,-100", null,
+            null));
+    within("GET /productions/batch", 1, () ->
+        productionController.getBatch(ids(productions, Production::getId)));
+    within("GET /users", 1, () -> userController.list(null, null));
+    within("GET /users/{id}", 1, () -> userController.get(user.getId()));
+    within("GET /users/{id}/film_locations", 2, () ->
+        userController.getFilmLocations(user.getId(), null, null));
+    within("GET /users/{id}/images", 2, () ->
+        userController.getImages(user.getId(), null, null));
+    within("GET /users/{id}/user_comments", 2, () ->
+        userController.getUserComments(user.getId(), null, null));
+    within("GET /changes", 5, () -> changeController.list("0", null));
+    within("GET /search", 0, () -> searchController.search("budget", null, null, null));
+    within("GET /suggest", 0, () -> suggestController.suggest("bud", null));
+    within("GET /moderation/queue", 3, () -> moderationController.queue(null, null));
+
+    assertEquals(new ArrayList<String>(), failures);
+  }
+
+  @Test
+  public void detailHoldsTheFirstPagesAndTheCounts() {
+    FilmLocation location = locations.get(0);
+    for (int i = 0; i < 2; i++) {
+      UserComment comment = new UserComment();
+      comment.setText("More " + i);
+      comment.setFilmLocation(location);
+      comment.setGoogleId(GOOGLE_ID);
+      comments.add(userCommentRepository.save(comment));
+    }
+    FilmLocationDetail detail = filmLocationController.getDetail(location.getId(), 2);
+    assertEquals("Budget 0", detail.getFilmLocation().getProduction().getTitle());
+    assertEquals(1, detail.getImages().size());
+    assertEquals(1, detail.getImageCount());
+    assertNull(detail.getImagesCursor());
+    assertEquals(2, detail.getUserComments().size());
+    assertEquals(3, detail.getUserCommentCount());
+    assertNotNull(detail.getUserCommentsCursor());
+  }
+
+  @Test
+  public void batchKeepsTheRequestedOrderAndReportsMissingIds() {
+    UUID missing = UUID.randomUUID();
+    List<UUID> ids = Arrays.asList(locations.get(2).getId(), missing, locations.get(0).getId(),
+        locations.get(2).getId());
+    Batch<FilmLocation> batch = filmLocationController.getBatch(ids);
+    assertEquals(Arrays.asList(locations.get(2).getId(), locations.get(0).getId()),
+        ids(batch.getFound(), FilmLocation::getId));
+    assertEquals("Budget 2", batch.getFound().get(0).getProduction().getTitle());
+    assertEquals(Collections.singletonList(missing), batch.getMissing());
+  }
+
+  private void within(String endpoint, int budget, Callable<Object> call) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    int count = transaction.execute((status) -> {
+      try {
+        QueryCounter.reset();
+        objectMapper.writeValueAsBytes(call.call());
+        return QueryCounter.count();
+      } catch (Exception e) {
+        throw new IllegalStateException(endpoint, e);
+      }
+    });
+    if (count > budget) {
+      failures.add(endpoint + ": " + count + " statements, budget " + budget);
+    }
+  }
+
+  private static <T> List<UUID> ids(List<T> rows, Function<T, UUID> idOf) {
+    List<UUID> ids = new ArrayList<>();
+    for (T row : rows) {
+      ids.add(idOf.apply(row));
+    }
+    return ids;
+  }
+
+  private static MockHttpServletResponse response() {
+    return new MockHttpServletResponse();
+  }
+
+}
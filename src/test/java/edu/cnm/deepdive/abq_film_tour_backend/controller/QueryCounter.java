@@ -0,0 +1,35 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Registered for the test
+ * profile through the {@code hibernate.session_factory.statement_inspector} property.
+ */
+public class QueryCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * Starts counting from zero on the current thread.
+   */
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  /**
+   * Gets the number of statements prepared on the current thread since the last reset.
+   *
+   * @return the statement count.
+   */
+  public static int count() {
+    return COUNT.get()[0];
+  }
+
+}
@@ -0,0 +1,69 @@
+package edu.cnm.deepdive.abq_film_tour_backend.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.cnm.deepdive.abq_film_tour_backend.ImportJob;
+import edu.cnm.deepdive.abq_film_tour_backend.ImportJob.State;
+import edu.cnm.deepdive.abq_film_tour_backend.Parser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadinessControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private Parser parser;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Test
+  public void readinessIsOpenToUnauthenticatedCallers() throws Exception {
+    mockMvc.perform(get("/readiness"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.ready").value(true))
+        .andExpect(jsonPath("$.state").value("IDLE"));
+  }
+
+  @Test
+  public void notReadyUntilTheImportFindsData() {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName("Readiness");
+    location = filmLocationRepository.save(location);
+    try {
+      ImportJob job = new ImportJob(parser, filmLocationRepository, true, "");
+      assertFalse(job.isReady());
+      job.start();
+      assertTrue(job.isReady());
+      assertEquals(State.IDLE, job.getState());
+    } finally {
+      filmLocationRepository.delete(location);
+    }
+  }
+
+  @Test
+  public void otherEndpointsStillRequireAuthentication() throws Exception {
+    mockMvc.perform(get("/film_locations"))
+        .andExpect(status().isUnauthorized());
+  }
+
+}
@@ -0,0 +1,64 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.service.ClusterIndex.Cluster;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ClusterIndexTest {
+
+  @Autowired
+  private ClusterIndex clusterIndex;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  private FilmLocationFixtures locations;
+
+  @Before
+  public void setUp() {
+    locations = new FilmLocationFixtures(filmLocationRepository);
+  }
+
+  @Test
+  public void clustersMergeWhenZoomedOutAndFollowWrites() {
+    FilmLocation first = locations.save("First", 60.0, 100.0);
+    FilmLocation second = locations.save("Second", 60.01, 100.01);
+    locations.save("Distant", 60.5, 100.5);
+
+    List<Cluster> zoomedOut = clusterIndex.clusters(10, 59.9, 99.9, 60.1, 100.1);
+    assertEquals(1, zoomedOut.size());
+    assertEquals(2, zoomedOut.get(0).getCount());
+    assertEquals(60.005, zoomedOut.get(0).getLatCoordinate(), 1e-9);
+    assertEquals(100.005, zoomedOut.get(0).getLongCoordinate(), 1e-9);
+    double[] bounds = zoomedOut.get(0).getBounds();
+    assertTrue(bounds[0] <= 100.0 && bounds[2] >= 100.01);
+    assertTrue(bounds[1] <= 60.0 && bounds[3] >= 60.01);
+
+    assertEquals(2, clusterIndex.clusters(16, 59.9, 99.9, 60.1, 100.1).size());
+    assertEquals(2, clusterIndex.clusters(20, 59.9, 99.9, 60.1, 100.1).size());
+
+    filmLocationRepository.delete(second);
+    zoomedOut = clusterIndex.clusters(10, 59.9, 99.9, 60.1, 100.1);
+    assertEquals(1, zoomedOut.get(0).getCount());
+    assertEquals(60.0, zoomedOut.get(0).getLatCoordinate(), 1e-9);
+
+    first.setLatCoordinate(61.0);
+    filmLocationRepository.save(first);
+    assertTrue(clusterIndex.clusters(10, 59.9, 99.9, 60.1, 100.1).isEmpty());
+  }
+
+}
@@ -0,0 +1,71 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.controller.QueryCounter;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EntityCacheTest {
+
+  @Autowired
+  private EntityCache entityCache;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void cachedLocationsFollowWritesToThemAndTheirProductions() {
+    Production production = new Production();
+    production.setImdbId("tt-entity-cache");
+    production.setTitle("Cached");
+    production = productionRepository.save(production);
+    FilmLocation location = new FilmLocation();
+    location.setSiteName("Cached");
+    location.setProduction(production);
+    location = filmLocationRepository.save(location);
+
+    FilmLocation cached = entityCache.filmLocation(location.getId());
+    QueryCounter.reset();
+    assertSame(cached, entityCache.filmLocation(location.getId()));
+    assertSame(entityCache.production(production.getId()),
+        entityCache.production(production.getId()));
+    assertEquals(1, QueryCounter.count());
+
+    production.setTitle("Retitled");
+    production = productionRepository.save(production);
+    assertEquals("Retitled", entityCache.production(production.getId()).getTitle());
+    assertEquals("Retitled",
+        entityCache.filmLocation(location.getId()).getProduction().getTitle());
+
+    filmLocationRepository.delete(location);
+    assertNull(entityCache.filmLocation(location.getId()));
+    productionRepository.delete(production);
+    assertNull(entityCache.production(production.getId()));
+
+    Map<String, Object> statistics =
+        (Map<String, Object>) entityCache.getMetrics().get("filmLocations");
+    assertTrue((Long) statistics.get("hits") > 0);
+    assertTrue((Double) statistics.get("hitRatio") > 0);
+  }
+
+}
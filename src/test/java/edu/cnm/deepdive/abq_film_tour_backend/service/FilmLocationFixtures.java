@@ -0,0 +1,33 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+
+/**
+ * Saves the film locations the spatial and cluster index tests are built on.
+ */
+class FilmLocationFixtures {
+
+  private final FilmLocationRepository filmLocationRepository;
+
+  FilmLocationFixtures(FilmLocationRepository filmLocationRepository) {
+    this.filmLocationRepository = filmLocationRepository;
+  }
+
+  /**
+   * Saves a film location at a point.
+   *
+   * @param siteName the name of the site.
+   * @param lat the latitude in degrees.
+   * @param lng the longitude in degrees.
+   * @return the saved location.
+   */
+  FilmLocation save(String siteName, double lat, double lng) {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName(siteName);
+    location.setLatCoordinate(lat);
+    location.setLongCoordinate(lng);
+    return filmLocationRepository.save(location);
+  }
+
+}
@@ -0,0 +1,173 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.cnm.deepdive.abq_film_tour_backend.service.PosterStore.Poster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.FileSystemUtils;
+
+public class PosterStoreTest {
+
+  private static final int POSTER_BYTES = 1000;
+
+  private HttpServer server;
+  private Path directory;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private volatile boolean hold;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("posters");
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      String imdbId = exchange.getRequestURI().getQuery().split("&")[0].substring(2);
+      if (hold) {
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (imdbId.equals("tt0000404")) {
+        exchange.sendResponseHeaders(404, -1);
+        exchange.close();
+        return;
+      }
+      byte[] body = poster(imdbId);
+      exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.stop(0);
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Test
+  public void warmPostersAreServedFromDisk() throws IOException {
+    PosterStore store = store(10 * POSTER_BYTES);
+    Poster poster = store.get("tt0000001");
+    assertNotNull(poster);
+    assertEquals("image/jpeg", poster.getContentType());
+    assertArrayEquals(poster("tt0000001"), Files.readAllBytes(poster.getFile()));
+    assertSame(poster, store.get("tt0000001"));
+    assertEquals(1, requests.get());
+
+    PosterStore restarted = store(10 * POSTER_BYTES);
+    assertEquals(poster.getETag(), restarted.get("tt0000001").getETag());
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void concurrentMissesShareOneFetch() throws Exception {
+    PosterStore store = store(10 * POSTER_BYTES);
+    hold = true;
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Poster>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> store.get("tt0000002")));
+      }
+      Thread.sleep(200);
+      release.countDown();
+      Poster first = results.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<Poster> result : results) {
+        assertSame(first, result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void evictedPostersStayOnDiskForRequestsStillSendingThem() throws IOException {
+    PosterStore store = store(POSTER_BYTES, 3600);
+    Poster first = store.get("tt0000006");
+    Poster second = store.get("tt0000007");
+    assertTrue(Files.exists(first.getFile()));
+    assertEquals(1, store.getMetrics().get("retiredFiles"));
+    Poster again = store.get("tt0000006");
+    assertEquals(first.getFile(), again.getFile());
+    assertEquals(3, requests.get());
+    assertTrue(Files.exists(again.getFile()));
+    assertTrue(Files.exists(second.getFile()));
+    assertEquals(1, store.getMetrics().get("retiredFiles"));
+  }
+
+  @Test
+  public void leastRecentlyUsedPostersAreEvictedPastTheCap() throws IOException {
+    PosterStore store = store(2 * POSTER_BYTES);
+    Poster first = store.get("tt0000003");
+    Poster second = store.get("tt0000004");
+    store.get("tt0000003");
+    Poster third = store.get("tt0000005");
+    assertTrue(Files.exists(first.getFile()));
+    assertFalse(Files.exists(second.getFile()));
+    assertTrue(Files.exists(third.getFile()));
+    assertEquals(Arrays.asList(2, (long) 2 * POSTER_BYTES, 1L), Arrays.asList(
+        store.getMetrics().get("posters"), store.getMetrics().get("bytes"),
+        store.getMetrics().get("evictions")));
+  }
+
+  @Test
+  public void missingPostersAreRemembered() throws IOException {
+    PosterStore store = store(10 * POSTER_BYTES);
+    assertNull(store.get("tt0000404"));
+    assertNull(store.get("tt0000404"));
+    assertNull(store.get("../etc/passwd"));
+    assertEquals(1, requests.get());
+  }
+
+  private PosterStore store(long maxBytes) throws IOException {
+    return store(maxBytes, 0);
+  }
+
+  private PosterStore store(long maxBytes, long deleteDelaySeconds) throws IOException {
+    String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/?i=%s&apikey=%s";
+    PosterStore store =
+        new PosterStore("key", url, directory.toString(), maxBytes, deleteDelaySeconds);
+    store.load();
+    return store;
+  }
+
+  private static byte[] poster(String imdbId) {
+    byte[] body = new byte[POSTER_BYTES];
+    Arrays.fill(body, (byte) imdbId.hashCode());
+    return body;
+  }
+
+}
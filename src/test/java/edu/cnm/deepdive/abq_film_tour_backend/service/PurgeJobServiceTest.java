@@ -0,0 +1,160 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Image;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.PurgeJob.State;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.service.BulkDeleteService.Deleted;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class PurgeJobServiceTest {
+
+  private static final String SPAMMER = "google-purge-spammer";
+  private static final String NEIGHBOR = "google-purge-neighbor";
+
+  @Autowired
+  private PurgeJobService purgeJobService;
+
+  @Autowired
+  private BulkDeleteService bulkDeleteService;
+
+  @Autowired
+  private SuggestIndex suggestIndex;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  private GoogleUser spammer;
+  private Production production;
+  private FilmLocation kept;
+  private final List<FilmLocation> spam = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    spammer = new GoogleUser();
+    spammer.setGoogleId(SPAMMER);
+    spammer = userRepository.save(spammer);
+    production = new Production();
+    production.setImdbId("tt-purge");
+    production.setTitle("Purge");
+    production = productionRepository.save(production);
+    kept = location("Quokka Keep", NEIGHBOR);
+    comment(kept, SPAMMER);
+    comment(kept, NEIGHBOR);
+    image(kept, SPAMMER);
+    for (int i = 0; i < 3; i++) {
+      FilmLocation location = location("Quokka Spam", SPAMMER);
+      spam.add(location);
+      comment(location, NEIGHBOR);
+      image(location, NEIGHBOR);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    List<UUID> ids = new ArrayList<>();
+    ids.add(kept.getId());
+    for (FilmLocation location : spam) {
+      ids.add(location.getId());
+    }
+    bulkDeleteService.deleteFilmLocations(ids);
+    productionRepository.delete(production);
+    userRepository.delete(spammer);
+  }
+
+  @Test
+  public void purgeDeletesEverythingTheUserSubmittedInTheBackground() throws InterruptedException {
+    PurgeJob job = purgeJobService.start(spammer);
+    for (int i = 0; i < 100 && job.getState() != State.COMPLETE; i++) {
+      Thread.sleep(50);
+      job = purgeJobService.latest(spammer.getId()).get();
+    }
+
+    assertEquals(State.COMPLETE, job.getState());
+    assertEquals(3, job.getDeletedFilmLocations());
+    assertEquals(4, job.getDeletedUserComments());
+    assertEquals(4, job.getDeletedImages());
+    for (FilmLocation location : spam) {
+      assertFalse(filmLocationRepository.existsById(location.getId()));
+    }
+    assertEquals(1, userCommentRepository.findAllByFilmLocationOrderByCreatedDesc(kept).size());
+    assertEquals(1, productionRepository.findById(production.getId()).get().getLocationCount());
+    assertTrue(suggestIndex.suggest("quokka s", null).isEmpty());
+    assertEquals(1, suggestIndex.suggest("quokka k", null).size());
+  }
+
+  @Test
+  public void deletesFilmLocationsWithWhatIsOnThem() {
+    Deleted deleted = bulkDeleteService.deleteFilmLocations(
+        Collections.singleton(spam.get(0).getId()));
+    assertEquals(1, deleted.getFilmLocations());
+    assertEquals(1, deleted.getUserComments());
+    assertEquals(1, deleted.getImages());
+    assertEquals(3, productionRepository.findById(production.getId()).get().getLocationCount());
+    assertTrue(bulkDeleteService.deleteFilmLocations(
+        Collections.singleton(spam.get(0).getId())).isEmpty());
+  }
+
+  private FilmLocation location(String siteName, String googleId) {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName(siteName);
+    location.setGoogleId(googleId);
+    location.setProduction(production);
+    return filmLocationRepository.save(location);
+  }
+
+  private void comment(FilmLocation location, String googleId) {
+    UserComment comment = new UserComment();
+    comment.setText("Purge");
+    comment.setGoogleId(googleId);
+    comment.setFilmLocation(location);
+    userCommentRepository.save(comment);
+  }
+
+  private void image(FilmLocation location, String googleId) {
+    Image image = new Image();
+    image.setUrl("https://example.com/purge.jpg");
+    image.setGoogleId(googleId);
+    image.setFilmLocation(location);
+    imageRepository.save(image);
+  }
+
+}
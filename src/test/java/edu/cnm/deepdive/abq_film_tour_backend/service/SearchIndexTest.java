@@ -0,0 +1,155 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SearchIndex.Hit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class SearchIndexTest {
+
+  @Autowired
+  private SearchIndex searchIndex;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  private Production production;
+  private FilmLocation location;
+  private UserComment comment;
+
+  @Before
+  public void setUp() {
+    production = new Production();
+    production.setImdbId("tt-search");
+    production.setTitle("Breaking Bad");
+    production.setPlot("A chemistry teacher turns to crime.");
+    production = productionRepository.save(production);
+    location = new FilmLocation();
+    location.setSiteName("Café Crêpe");
+    location.setAddress("123 Central Ave");
+    location.setProduction(production);
+    location = filmLocationRepository.save(location);
+    comment = new UserComment();
+    comment.setText("Great cafe for breakfast.");
+    comment.setFilmLocation(location);
+    comment = userCommentRepository.save(comment);
+  }
+
+  @After
+  public void tearDown() {
+    if (comment != null) {
+      userCommentRepository.delete(comment);
+    }
+    filmLocationRepository.delete(location);
+    productionRepository.delete(production);
+  }
+
+  @Test
+  public void ranksNamesFirstAndIgnoresCaseAndAccents() {
+    assertEquals(Arrays.asList(location.getId(), comment.getId()), ids(search("CAFÉ", null)));
+    List<Hit> hits = search("cafe", null);
+    assertEquals(Kind.USER_COMMENT, hits.get(1).getKind());
+    assertEquals(location.getId(), hits.get(1).getFilmLocationId());
+    assertEquals("Café Crêpe", hits.get(0).getTitle());
+  }
+
+  @Test
+  public void requiresEveryTermAndMatchesTheLastAsAPrefix() {
+    assertEquals(Arrays.asList(location.getId()), ids(search("cafe cent", null)));
+    assertEquals(2, search("brea", null).size());
+    assertEquals(2, search("cr", null).size());
+    assertEquals(Arrays.asList(production.getId()), ids(search("brea", Kind.PRODUCTION)));
+    assertTrue(search("cafe chemistry", null).isEmpty());
+  }
+
+  @Test
+  public void prefixesMatchEveryTermTheyStart() {
+    StringBuilder title = new StringBuilder();
+    StringBuilder plot = new StringBuilder();
+    for (int i = 0; i < 70; i++) {
+      (i < 25 ? title : plot).append(String.format("zqa%02d ", i));
+    }
+    Production early = new Production();
+    early.setImdbId("tt-prefix-early");
+    early.setTitle(title.toString());
+    early.setPlot(plot.toString());
+    early = productionRepository.save(early);
+    Production late = new Production();
+    late.setImdbId("tt-prefix-late");
+    late.setTitle("Zqzebra");
+    late = productionRepository.save(late);
+    try {
+      List<UUID> found = ids(search("zq", null));
+      assertEquals(2, found.size());
+      assertTrue(found.contains(late.getId()));
+    } finally {
+      productionRepository.delete(early);
+      productionRepository.delete(late);
+    }
+  }
+
+  @Test
+  public void pagesContinueAfterTheLastResult() {
+    List<Hit> first = search("cafe", null, 1);
+    assertEquals(Arrays.asList(location.getId()), ids(first));
+    Hit last = first.get(0);
+    assertEquals(Arrays.asList(comment.getId()),
+        ids(searchIndex.search("cafe", null, last.getScore(), last.getId(), 10)));
+  }
+
+  @Test
+  public void followsWritesAndDeletes() {
+    location.setSiteName("Diner");
+    location = filmLocationRepository.save(location);
+    assertEquals(Arrays.asList(comment.getId()), ids(search("cafe", null)));
+    assertEquals(Arrays.asList(location.getId()), ids(search("diner", null)));
+    userCommentRepository.delete(comment);
+    comment = null;
+    assertTrue(search("cafe", null).isEmpty());
+  }
+
+  private List<Hit> search(String query, Kind kind) {
+    return search(query, kind, 10);
+  }
+
+  private List<Hit> search(String query, Kind kind, int limit) {
+    return searchIndex.search(query, kind, null, null, limit);
+  }
+
+  private static List<UUID> ids(List<Hit> hits) {
+    List<UUID> ids = new ArrayList<>();
+    for (Hit hit : hits) {
+      ids.add(hit.getId());
+    }
+    return ids;
+  }
+
+}
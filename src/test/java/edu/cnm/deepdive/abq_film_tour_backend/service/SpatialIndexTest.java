@@ -0,0 +1,71 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class SpatialIndexTest {
+
+  @Autowired
+  private SpatialIndex spatialIndex;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  private FilmLocationFixtures locations;
+
+  @Before
+  public void setUp() {
+    locations = new FilmLocationFixtures(filmLocationRepository);
+  }
+
+  @Test
+  public void encodesKnownGeohash() {
+    assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+  }
+
+  @Test
+  public void nearReturnsLocationsWithinRadiusNearestFirst() {
+    FilmLocation far = locations.save("Far", 10.0, 20.009);
+    FilmLocation nearest = locations.save("Nearest", 10.0, 20.001);
+    FilmLocation middle = locations.save("Middle", 10.0, 20.004);
+    FilmLocation outside = locations.save("Outside", 10.0, 20.05);
+    List<UUID> found = spatialIndex.near(10.0, 20.0, 1100, 10);
+    assertEquals(Arrays.asList(nearest.getId(), middle.getId(), far.getId()), found);
+    assertEquals(Arrays.asList(nearest.getId(), middle.getId()),
+        spatialIndex.near(10.0, 20.0, 1100, 2));
+    assertTrue(!found.contains(outside.getId()));
+  }
+
+  @Test
+  public void boxFollowsWritesAndDeletes() {
+    FilmLocation location = locations.save("Moving", -20.0, 40.0);
+    assertEquals(Arrays.asList(location.getId()),
+        spatialIndex.withinBox(-20.1, 39.9, -19.9, 40.1, 10));
+    location.setLatCoordinate(-30.0);
+    location = filmLocationRepository.save(location);
+    assertTrue(spatialIndex.withinBox(-20.1, 39.9, -19.9, 40.1, 10).isEmpty());
+    assertEquals(Arrays.asList(location.getId()),
+        spatialIndex.withinBox(-30.1, 39.9, -29.9, 40.1, 10));
+    assertEquals(GeoHash.encode(-30.0, 40.0, FilmLocation.GEOHASH_PRECISION),
+        filmLocationRepository.findById(location.getId()).get().getGeohash());
+    filmLocationRepository.delete(location);
+    assertTrue(spatialIndex.withinBox(-30.1, 39.9, -29.9, 40.1, 10).isEmpty());
+  }
+
+}
@@ -0,0 +1,111 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ProductionRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.ChangeRecord.Kind;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.Production;
+import edu.cnm.deepdive.abq_film_tour_backend.service.SuggestIndex.Suggestion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class SuggestIndexTest {
+
+  @Autowired
+  private SuggestIndex suggestIndex;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private ProductionRepository productionRepository;
+
+  private Production popular;
+  private Production obscure;
+  private List<FilmLocation> locations = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    popular = production("tt-suggest-1", "Zebra Crossing");
+    obscure = production("tt-suggest-2", "Zébra Café");
+    location("Zeppelin Field", popular);
+    location("Zeppelin Field", popular);
+    location("Zinc Works", obscure);
+  }
+
+  @After
+  public void tearDown() {
+    filmLocationRepository.deleteAll(locations);
+    productionRepository.delete(popular);
+    productionRepository.delete(obscure);
+  }
+
+  @Test
+  public void ranksByLocationCountAndIgnoresCaseAndAccents() {
+    assertEquals(Arrays.asList("Zebra Crossing", "Zeppelin Field", "Zébra Café", "Zinc Works"),
+        texts(suggestIndex.suggest("Z", null)));
+    assertEquals(Arrays.asList("Zebra Crossing", "Zébra Café"),
+        texts(suggestIndex.suggest("ZÉB", null)));
+    Suggestion site = suggestIndex.suggest("zep", null).get(0);
+    assertEquals(Kind.FILM_LOCATION, site.getKind());
+    assertEquals(2, site.getLocationCount());
+    Suggestion production = suggestIndex.suggest("zebra c", 1).get(0);
+    assertEquals(popular.getId(), production.getId());
+    assertTrue(suggestIndex.suggest("zz", null).isEmpty());
+  }
+
+  @Test
+  public void followsWrites() {
+    location("Zinc Works", obscure);
+    location("Zinc Works", obscure);
+    assertEquals(Arrays.asList("Zébra Café", "Zinc Works", "Zebra Crossing", "Zeppelin Field"),
+        texts(suggestIndex.suggest("z", null)));
+    popular.setTitle("Quiet Crossing");
+    popular = productionRepository.save(popular);
+    assertEquals(Arrays.asList("Quiet Crossing"), texts(suggestIndex.suggest("qui", null)));
+    FilmLocation moved = locations.get(0);
+    moved.setSiteName("Quarry");
+    locations.set(0, filmLocationRepository.save(moved));
+    filmLocationRepository.delete(locations.remove(1));
+    assertEquals(Arrays.asList("Zébra Café", "Zinc Works"),
+        texts(suggestIndex.suggest("z", null)));
+  }
+
+  private Production production(String imdbId, String title) {
+    Production production = new Production();
+    production.setImdbId(imdbId);
+    production.setTitle(title);
+    return productionRepository.save(production);
+  }
+
+  private void location(String siteName, Production production) {
+    FilmLocation location = new FilmLocation();
+    location.setSiteName(siteName);
+    location.setProduction(production);
+    locations.add(filmLocationRepository.save(location));
+  }
+
+  private static List<String> texts(List<Suggestion> suggestions) {
+    List<String> texts = new ArrayList<>();
+    for (Suggestion suggestion : suggestions) {
+      texts.add(suggestion.getText());
+    }
+    return texts;
+  }
+
+}
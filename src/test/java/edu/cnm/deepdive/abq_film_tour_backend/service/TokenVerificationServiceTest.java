@@ -0,0 +1,73 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TokenVerificationServiceTest {
+
+  private static final String CLIENT_ID = "test-client.apps.googleusercontent.com";
+  private static final String USER_ID = "1234567890";
+
+  private LocalKeyServer keyServer;
+  private TokenVerificationService service;
+
+  @Before
+  public void setUp() throws Exception {
+    keyServer = new LocalKeyServer(3600);
+    service = new TokenVerificationService(CLIENT_ID, keyServer.getCertsUrl(), 100);
+  }
+
+  @After
+  public void tearDown() {
+    service.stop();
+    keyServer.close();
+  }
+
+  @Test
+  public void verifiesTokenSignedWithServedKey() throws Exception {
+    String token = keyServer.signToken(CLIENT_ID, USER_ID, 3600,
+        Collections.singletonMap("name", "Test User"));
+    Payload payload = service.verify(token);
+    assertNotNull(payload);
+    assertEquals(USER_ID, payload.getSubject());
+    assertEquals("Test User", payload.get("name"));
+  }
+
+  @Test
+  public void repeatedTokenSkipsSignatureCheck() throws Exception {
+    String token = keyServer.signToken(CLIENT_ID, USER_ID, 3600, Collections.emptyMap());
+    service.verify(token);
+    service.verify(token);
+    service.verify(token);
+    Map<String, Object> metrics = service.getMetrics();
+    assertEquals(1L, metrics.get("signatureChecks"));
+    @SuppressWarnings("unchecked")
+    Map<String, Object> cache = (Map<String, Object>) metrics.get("tokenCache");
+    assertEquals(2L, cache.get("hits"));
+    assertEquals(1, keyServer.getRequestCount());
+  }
+
+  @Test
+  public void backgroundRefreshLoadsKeys() throws Exception {
+    service.refreshKeys();
+    assertEquals(1L, service.getMetrics().get("keyRefreshes"));
+    assertEquals(1, keyServer.getRequestCount());
+  }
+
+  @Test
+  public void rejectsTokenForOtherAudience() throws Exception {
+    String token = keyServer.signToken("someone-else", USER_ID, 3600, Collections.emptyMap());
+    assertNull(service.verify(token));
+    assertNull(service.verify(token));
+    assertEquals(2L, service.getMetrics().get("rejectedTokens"));
+  }
+
+}
@@ -0,0 +1,190 @@
+package edu.cnm.deepdive.abq_film_tour_backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.FilmLocationRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.ImageRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserCommentRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.dao.UserRepository;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.FilmLocation;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.GoogleUser;
+import edu.cnm.deepdive.abq_film_tour_backend.model.entity.UserComment;
+import edu.cnm.deepdive.abq_film_tour_backend.service.UserResolutionService.ResolvedUser;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserResolutionServiceTest {
+
+  @Autowired
+  private UserResolutionService userResolutionService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private FilmLocationRepository filmLocationRepository;
+
+  @Autowired
+  private UserCommentRepository userCommentRepository;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private ChangeLog changeLog;
+
+  @Autowired
+  private EntityCache entityCache;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private BulkDeleteService bulkDeleteService;
+
+  @Test
+  public void firstSignInCreatesUserOnce() {
+    ResolvedUser first = userResolutionService.resolve("first-sign-in", "First User",
+        "first@example.com", "https://example.com/first.png");
+    userResolutionService.invalidate("first-sign-in");
+    userResolutionService.resolve("first-sign-in", "First User",
+        "first@example.com", "https://example.com/first.png");
+    GoogleUser user = userRepository.findByGoogleId("first-sign-in");
+    assertEquals("First User", user.getGoogleName());
+    assertEquals("user", user.getUserRole());
+    assertFalse(first.isBanned());
+    assertTrue(first.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER")));
+  }
+
+  @Test
+  public void superuserRoleIsBackfilled() {
+    GoogleUser user = new GoogleUser();
+    user.setGoogleId("test-super-id");
+    userRepository.save(user);
+    ResolvedUser resolved = userResolutionService.resolve("test-super-id", "Super User",
+        "super@example.com", "https://example.com/super.png");
+    assertEquals("superuser", userRepository.findByGoogleId("test-super-id").getUserRole());
+    assertTrue(resolved.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_SUPER")));
+  }
+
+  @Test
+  public void returningUserIsServedFromCacheUntilInvalidated() {
+    ResolvedUser first = userResolutionService.resolve("returning", "Returning User",
+        "returning@example.com", "https://example.com/returning.png");
+    GoogleUser user = userRepository.findByGoogleId("returning");
+    user.setBanned(true);
+    user.setBanReason("Spam");
+    userRepository.save(user);
+    assertSame(first, userResolutionService.resolve("returning", "Returning User",
+        "returning@example.com", "https://example.com/returning.png"));
+    userResolutionService.invalidate("returning");
+    ResolvedUser banned = userResolutionService.resolve("returning", "Returning User",
+        "returning@example.com", "https://example.com/returning.png");
+    assertTrue(banned.isBanned());
+    assertEquals("Spam", banned.getBanReason());
+  }
+
+  @Test
+  public void profileChangesReachEverythingTheUserSubmitted() throws InterruptedException {
+    userResolutionService.resolve("renamed", "Old Name", "renamed@example.com",
+        "https://example.com/old.png");
+    FilmLocation location = new FilmLocation();
+    location.setSiteName("Renamed");
+    location.setGoogleId("renamed");
+    location.setUserName("Old Name");
+    location = filmLocationRepository.save(location);
+    UserComment comment = new UserComment();
+    comment.setText("Renamed");
+    comment.setGoogleId("renamed");
+    comment.setUserName("Old Name");
+    comment.setFilmLocation(location);
+    comment = userCommentRepository.save(comment);
+    try {
+      userResolutionService.resolve("renamed", "Interim Name", "renamed@example.com",
+          "https://example.com/old.png");
+      userResolutionService.resolve("renamed", "New Name", "renamed@example.com",
+          "https://example.com/new.png");
+      awaitName("renamed", "New Name");
+      assertEquals("New Name", userRepository.findByGoogleId("renamed").getGoogleName());
+      assertEquals("New Name", userCommentRepository.findById(comment.getId()).get()
+          .getUserName());
+      FilmLocation renamed = filmLocationRepository.findById(location.getId()).get();
+      assertEquals("New Name", renamed.getUserName());
+      assertEquals("https://example.com/new.png", renamed.getUserPictureUrl());
+    } finally {
+      bulkDeleteService.deleteFilmLocations(Collections.singleton(location.getId()));
+    }
+  }
+
+  @Test
+  public void failedPropagationIsRetriedOnTheNextSignIn() throws InterruptedException {
+    AtomicBoolean fail = new AtomicBoolean(true);
+    FilmLocationRepository failing = (FilmLocationRepository) Proxy.newProxyInstance(
+        FilmLocationRepository.class.getClassLoader(),
+        new Class<?>[]{FilmLocationRepository.class}, (proxy, method, args) -> {
+          if (method.getName().equals("updateUserProfile") && fail.getAndSet(false)) {
+            throw new IllegalStateException("Simulated failure");
+          }
+          try {
+            return method.invoke(filmLocationRepository, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+    ProfilePropagator propagator = new ProfilePropagator(failing, userCommentRepository,
+        imageRepository, userRepository, changeLog, entityCache, transactionManager);
+    UserResolutionService service = new UserResolutionService(userRepository, propagator, 10, 60);
+    service.setAdminId("");
+    service.setSuperIds(new String[0]);
+    service.resolve("retried", "Old Name", "retried@example.com", "https://example.com/old.png");
+    FilmLocation location = new FilmLocation();
+    location.setSiteName("Retried");
+    location.setGoogleId("retried");
+    location.setUserName("Old Name");
+    location = filmLocationRepository.save(location);
+    try {
+      service.resolve("retried", "New Name", "retried@example.com",
+          "https://example.com/new.png");
+      for (int i = 0; i < 100 && propagator.getMetrics().get("failedUsers").equals(0L); i++) {
+        Thread.sleep(50);
+      }
+      assertEquals(1L, propagator.getMetrics().get("failedUsers"));
+      assertEquals("Old Name", userRepository.findByGoogleId("retried").getGoogleName());
+      assertEquals("Old Name", filmLocationRepository.findById(location.getId()).get()
+          .getUserName());
+      service.resolve("retried", "New Name", "retried@example.com",
+          "https://example.com/new.png");
+      awaitName("retried", "New Name");
+      assertEquals("New Name", userRepository.findByGoogleId("retried").getGoogleName());
+      assertEquals("New Name", filmLocationRepository.findById(location.getId()).get()
+          .getUserName());
+    } finally {
+      propagator.stop();
+      bulkDeleteService.deleteFilmLocations(Collections.singleton(location.getId()));
+    }
+  }
+
+  private void awaitName(String googleId, String name) throws InterruptedException {
+    for (int i = 0; i < 100
+        && !name.equals(userRepository.findByGoogleId(googleId).getGoogleName()); i++) {
+      Thread.sleep(50);
+    }
+  }
+
+}